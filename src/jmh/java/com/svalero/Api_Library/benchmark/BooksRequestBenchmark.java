@@ -0,0 +1,74 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.svalero.Api_Library.ApiLibraryApplication;
+import com.svalero.Api_Library.seed.DataSeeder;
+import com.svalero.Api_Library.seed.SeedPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Petición GET /books completa (servicio, Hibernate, H2 en memoria y JSON) con la aplicación arrancada,
+ * sin seguridad ni red: MockMvc sobre el contexto, igual que QueryBudgetTest. Con -prof gc se ve además
+ * la memoria reservada por petición (gc.alloc.rate.norm):
+ *   mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.args="BooksRequest -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class BooksRequestBenchmark {
+
+    @Param({"100", "1000"})
+    int books;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(ApiLibraryApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:books-request;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--server.port=0",
+                "--app.access-log.enabled=false",
+                "--logging.level.root=WARN");
+        new DataSeeder(context.getBean(JdbcTemplate.class), context.getBean(PasswordEncoder.class))
+                .seed(new SeedPlan(Math.max(1, books / 10), DataSeeder.GENRES.length, books, 1, books * 3L, 1.0,
+                        LocalDate.of(2024, 1, 1), LocalDate.of(2025, 12, 31), 42, 1, 1000, "benchmark"));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getAllBooks() throws Exception {
+        return mockMvc.perform(get("/books")).andReturn().getResponse().getContentAsByteArray();
+    }
+}
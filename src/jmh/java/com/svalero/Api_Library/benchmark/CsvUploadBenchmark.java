@@ -0,0 +1,61 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.svalero.Api_Library.controller.BookController;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga de libros desde CSV (POST /books/upload): lectura y parseo de las líneas y alta de cada
+ * libro en BookService, con un repositorio que no hace nada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvUploadBenchmark {
+
+    @Param({"100", "10000"})
+    int rows;
+
+    private BookController bookController;
+    private MockMultipartFile file;
+
+    @Setup
+    public void setUp() {
+        // Sin borrados ni préstamos: el servicio no necesita LoanRepository, DeleteJobs ni LoanMapper
+        BookService bookService = new BookService(Fixtures.repository(BookRepository.class, new Book()),
+                Fixtures.NO_EVENTS, null, null, null);
+        bookController = new BookController(bookService, null);
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= rows; i++) {
+            csv.append("Title ").append(i).append(", Novel, ").append(100 + i % 400)
+                    .append(", ").append(9.95 + i % 20).append(", ").append(i % 3 != 0).append('\n');
+        }
+        file = new MockMultipartFile("file", "books.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public ResponseEntity<String> uploadBooksFile() {
+        return bookController.uploadBooksFile(file);
+    }
+}
@@ -0,0 +1,100 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.svalero.Api_Library.ApiLibraryApplication;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.seed.DataSeeder;
+import com.svalero.Api_Library.seed.SeedPlan;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Efecto de la mejora de bytecode de las entidades (perfil enhance del pom):
+ *  - flush: un préstamo modificado entre 10.000 gestionados por la misma sesión. Sin mejora Hibernate
+ *    compara cada entidad con su copia; con ella cada entidad sabe si ha cambiado.
+ *  - findAllBooks: listado de libros en una transacción de solo lectura, sin tocar autor ni categoría.
+ * Para comparar, se recompila sin la mejora:
+ *   mvn clean -Pbenchmark test-compile exec:exec@jmh -Djmh.args="EntityEnhancement" -DskipEnhance
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class EntityEnhancementBenchmark {
+
+    private static final int BOOKS = 1000;
+    private static final int LOANS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private BookRepository bookRepository;
+
+    // Sesión abierta con todos los préstamos cargados; la transacción no se confirma nunca
+    private EntityManager session;
+    private List<Loan> managedLoans;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(ApiLibraryApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:entity-enhancement;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--server.port=0",
+                "--app.access-log.enabled=false",
+                "--logging.level.root=WARN");
+        new DataSeeder(context.getBean(JdbcTemplate.class), context.getBean(PasswordEncoder.class))
+                .seed(new SeedPlan(BOOKS / 10, DataSeeder.GENRES.length, BOOKS, 1, LOANS, 1.0,
+                        LocalDate.of(2024, 1, 1), LocalDate.of(2025, 12, 31), 42, 1, 1000, "benchmark"));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        bookRepository = context.getBean(BookRepository.class);
+
+        session = context.getBean(EntityManagerFactory.class).createEntityManager();
+        session.getTransaction().begin();
+        managedLoans = session.createQuery("SELECT l FROM Loan l", Loan.class).getResultList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.getTransaction().rollback();
+        session.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int flush() {
+        Loan loan = managedLoans.get(next++ % managedLoans.size());
+        loan.setQuantity(loan.getQuantity() % 5 + 1);
+        session.flush();
+        return loan.getQuantity();
+    }
+
+    @Benchmark
+    public List<Book> findAllBooks() {
+        return readOnly.execute(status -> bookRepository.findAll());
+    }
+}
@@ -0,0 +1,115 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.BookCategory;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.mapper.BookMapperImpl;
+import com.svalero.Api_Library.mapper.LoanMapper;
+import com.svalero.Api_Library.mapper.LoanMapperImpl;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Datos y dobles de prueba para los benchmarks. Los repositorios son proxies mínimos (findById
+ * devuelve siempre la misma entidad y save la recibida) para medir solo el código del servicio,
+ * sin el coste de Mockito ni de la BD.
+ */
+final class Fixtures {
+
+    static final ApplicationEventPublisher NO_EVENTS = event -> { };
+
+    // Los mappers generados por MapStruct no necesitan Spring: se crean a mano
+    static LoanMapper loanMapper() {
+        return new LoanMapperImpl(new BookMapperImpl());
+    }
+
+    private Fixtures() {
+    }
+
+    static <R> R repository(Class<R> type, Object entity) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(entity);
+                    case "findByEmail" -> entity;
+                    case "save" -> args[0];
+                    case "existsById" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+
+    /**
+     * Catálogo con el grafo completo que serializa la API: cada libro con su categoría, su autor
+     * (que a su vez lista sus libros) y loansPerBook préstamos.
+     */
+    static List<Book> catalogue(int books, int loansPerBook) {
+        List<BookCategory> categories = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            BookCategory category = new BookCategory();
+            category.setId(i);
+            category.setName("Category " + i);
+            category.setDescription("Description of category " + i);
+            category.setCreatedDate(LocalDate.of(2024, 1, i));
+            category.setNumberBooks(books / 5);
+            category.setBooks(new ArrayList<>());
+            categories.add(category);
+        }
+        List<Author> authors = new ArrayList<>();
+        for (int i = 1; i <= Math.max(1, books / 10); i++) {
+            Author author = new Author();
+            author.setId(i);
+            author.setName("Name " + i);
+            author.setSurname("Surname " + i);
+            author.setBirthdate(LocalDate.of(1950, 1, 1).plusDays(i));
+            author.setNationality("Spanish");
+            author.setLatitude(40.4 + i * 0.01);
+            author.setLongitude(-3.7 - i * 0.01);
+            author.setBooks(new ArrayList<>());
+            authors.add(author);
+        }
+
+        List<Book> catalogue = new ArrayList<>();
+        long loanId = 1;
+        for (int i = 1; i <= books; i++) {
+            Book book = new Book();
+            book.setId(i);
+            book.setTitle("Title " + i);
+            book.setGenre(i % 2 == 0 ? "Novel" : "Essay");
+            book.setPages(100 + i % 400);
+            book.setPrice(9.95 + i % 20);
+            book.setAvailable(i % 3 != 0);
+            book.setCategory(categories.get(i % categories.size()));
+            book.setAuthor(authors.get(i % authors.size()));
+            book.getCategory().getBooks().add(book);
+            book.getAuthor().getBooks().add(book);
+
+            List<Loan> loans = new ArrayList<>();
+            for (int j = 0; j < loansPerBook; j++) {
+                loans.add(loan(loanId++, book));
+            }
+            book.setLoans(loans);
+            catalogue.add(book);
+        }
+        return catalogue;
+    }
+
+    static Loan loan(long id, Book book) {
+        Loan loan = new Loan();
+        loan.setId(id);
+        loan.setName("Loan " + id);
+        loan.setCustomerName("Customer " + id % 100);
+        loan.setEmail("customer" + id % 100 + "@example.com");
+        loan.setLoanDate(LocalDate.of(2025, 1, 1).plusDays(id % 365));
+        loan.setQuantity((int) (id % 5) + 1);
+        loan.setBook(book);
+        return loan;
+    }
+}
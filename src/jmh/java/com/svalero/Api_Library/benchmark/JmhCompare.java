@@ -0,0 +1,76 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dos resultados JSON de JMH (p. ej. el del commit anterior y el actual) y termina con
+ * código 1 si algún benchmark empeora más de un umbral en %.
+ *
+ *   JmhCompare base.json actual.json [umbral%]
+ *
+ * Los benchmarks se emparejan por nombre y parámetros. En modo thrpt mejor es más; en el resto
+ * (avgt, sample, ss) mejor es menos.
+ */
+public final class JmhCompare {
+
+    private JmhCompare() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: JmhCompare base.json actual.json [umbral%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-75s %14s %14s %9s%n", "Benchmark", "Base", "Actual", "Cambio");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            String unit = after.at("/primaryMetric/scoreUnit").asText();
+            double now = after.at("/primaryMetric/score").asDouble();
+            if (before == null) {
+                System.out.printf("%-75s %14s %14.3f %9s  %s%n", entry.getKey(), "-", now, "nuevo", unit);
+                continue;
+            }
+            double then = before.at("/primaryMetric/score").asDouble();
+            double change = (now - then) / then * 100;
+            // Porcentaje en el que empeora: positivo es peor
+            double worse = after.get("mode").asText().equals("thrpt") ? -change : change;
+            boolean regression = worse > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-75s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), then, now, change, unit,
+                    regression ? "  <-- REGRESIÓN" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%n%d benchmarks empeoran más de un %.0f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                    .replace("com.svalero.Api_Library.benchmark.", ""));
+            JsonNode params = result.get("params");
+            if (params != null) {
+                params.fields().forEachRemaining(param ->
+                        key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,52 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.svalero.Api_Library.DTO.LoanDTO;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.service.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoanService.convertToDTO sobre listas grandes, como hacen los GET de LoanController.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanConversionBenchmark {
+
+    @Param({"1000", "100000"})
+    int loans;
+
+    private LoanService loanService;
+    private List<Loan> loanList;
+
+    @Setup
+    public void setUp() {
+        loanService = new LoanService(null, Fixtures.NO_EVENTS, Fixtures.loanMapper(), null);
+        loanList = Fixtures.catalogue(loans / 4, 4).stream()
+                .map(Book::getLoans)
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Benchmark
+    public List<LoanDTO> convertToDTO() {
+        return loanList.stream().map(loanService::convertToDTO).toList();
+    }
+}
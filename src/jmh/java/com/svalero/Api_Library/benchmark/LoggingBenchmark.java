@@ -0,0 +1,84 @@
+package com.svalero.Api_Library.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de una traza INFO con el logback-spring.xml real, escribiendo en un directorio temporal:
+ * "async" es la configuración tal cual (AsyncAppender delante del fichero) y "sync" la misma con el
+ * fichero directamente en el root. La consola se quita para no inundar la salida de JMH.
+ *
+ * Con varios hilos la cola asíncrona puede llenarse y descartar INFO (discardingThreshold): en ese
+ * caso la llamada mide lo que cuesta descartar, que es justo lo que ve el hilo de la petición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"async", "sync"})
+    String appender;
+
+    private Path logDir;
+    private LoggerContext context;
+    private Logger logger;
+    private long id;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        logDir = Files.createTempDirectory("jmh-logs");
+        String xml;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("logback-spring.xml")) {
+            xml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        xml = xml.replace("value=\"logs\"", "value=\"" + logDir.toString().replace('\\', '/') + "\"")
+                .replace("<appender-ref ref=\"AsyncConsole\" />", "");
+        if (appender.equals("sync")) {
+            xml = xml.replace("<appender-ref ref=\"AsyncRollingFile\" />", "<appender-ref ref=\"RollingFile\" />");
+        }
+
+        context = new LoggerContext();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        logger = context.getLogger("com.svalero.Api_Library.controller.BookController");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.stop();
+        FileSystemUtils.deleteRecursively(logDir);
+    }
+
+    @Benchmark
+    public void info() {
+        logger.info("Fetching book by ID: {}", id++);
+    }
+}
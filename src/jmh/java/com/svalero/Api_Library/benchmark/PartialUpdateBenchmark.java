@@ -0,0 +1,84 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.domain.User;
+import com.svalero.Api_Library.mapper.UserMapperImpl;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.repository.UserRepository;
+import com.svalero.Api_Library.service.BookService;
+import com.svalero.Api_Library.service.LoanService;
+import com.svalero.Api_Library.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actualizaciones parciales (PATCH) de los servicios, que aplican el mapa de campos por reflexión.
+ * El repositorio no hace nada: se mide la búsqueda de campos, las conversiones y los setters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartialUpdateBenchmark {
+
+    private static final Map<String, Object> BOOK_UPDATES =
+            Map.of("title", "Nuevo título", "genre", "Novel", "pages", 321, "price", 19.95, "available", true);
+    private static final Map<String, Object> LOAN_UPDATES =
+            Map.of("customerName", "Ana", "email", "ana@example.com", "loanDate", "2025-03-01", "quantity", "2");
+    private static final Map<String, Object> USER_UPDATES =
+            Map.of("name", "Ana", "email", "ana@example.com", "creationDate", "2025-03-01", "active", "true");
+
+    private BookService bookService;
+    private LoanService loanService;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        Book book = Fixtures.catalogue(1, 1).get(0);
+        Loan loan = book.getLoans().get(0);
+        User user = new User();
+        user.setId(1L);
+        user.setName("Isabel");
+        user.setCreationDate(LocalDate.of(2024, 1, 1));
+
+        // Sin borrados ni préstamos: el servicio no necesita LoanRepository, DeleteJobs ni LoanMapper
+        bookService = new BookService(Fixtures.repository(BookRepository.class, book), Fixtures.NO_EVENTS,
+                null, null, null);
+        // El PATCH cambia email y nombre: el préstamo vuelve a buscar su usuario (findByEmail)
+        loanService = new LoanService(Fixtures.repository(LoanRepository.class, loan), Fixtures.NO_EVENTS,
+                Fixtures.loanMapper(), Fixtures.repository(UserRepository.class, user));
+        userService = new UserService(Fixtures.repository(UserRepository.class, user), new UserMapperImpl(),
+                null, null);
+    }
+
+    @Benchmark
+    public Book updateBookPartial() {
+        return bookService.updateBookPartial(1L, BOOK_UPDATES);
+    }
+
+    @Benchmark
+    public Loan updateLoanPartial() throws Exception {
+        return loanService.updateLoanPartial(1L, LOAN_UPDATES);
+    }
+
+    @Benchmark
+    public User updateUserPartial() {
+        return userService.updateUserPartial(1L, USER_UPDATES);
+    }
+}
@@ -0,0 +1,148 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.svalero.Api_Library.ApiLibraryApplication;
+import com.svalero.Api_Library.config.QueryStats;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.seed.DataSeeder;
+import com.svalero.Api_Library.seed.SeedPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Escrituras en bloque y lecturas con muchas colecciones lazy, con la configuración de persistencia de
+ * application.properties ("tuned") o sin batching de JDBC ni carga por lotes ("untuned"). Al final de
+ * cada iteración se imprimen las sentencias SQL por operación (QueryStats):
+ *   mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.args="PersistenceBatching"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class PersistenceBatchingBenchmark {
+
+    private static final int BOOKS = 500;
+    private static final int NEW_LOANS = 500;
+
+    @Param({"tuned", "untuned"})
+    String profile;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private TransactionTemplate transaction;
+    private EntityManager entityManager;
+    private LoanRepository loanRepository;
+    private Book book;
+
+    private long statements;
+    private long operations;
+
+    @Setup
+    public void setUp() {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:persistence-batching;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--server.port=0",
+                "--app.access-log.enabled=false",
+                "--logging.level.root=WARN"));
+        if (profile.equals("untuned")) {
+            args.add("--spring.jpa.properties.hibernate.jdbc.batch_size=0");
+            args.add("--spring.jpa.properties.hibernate.default_batch_fetch_size=0");
+        }
+        context = SpringApplication.run(ApiLibraryApplication.class, args.toArray(String[]::new));
+        new DataSeeder(context.getBean(JdbcTemplate.class), context.getBean(PasswordEncoder.class))
+                .seed(new SeedPlan(BOOKS / 10, DataSeeder.GENRES.length, BOOKS, 1, BOOKS * 3L, 1.0,
+                        LocalDate.of(2024, 1, 1), LocalDate.of(2025, 12, 31), 42, 1, 1000, "benchmark"));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = context.getBean(EntityManager.class);
+        loanRepository = context.getBean(LoanRepository.class);
+        book = context.getBean(BookRepository.class).findById(1L).orElseThrow();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatements() {
+        if (operations > 0) {
+            System.out.printf("  SQL por operación: %.1f%n", (double) statements / operations);
+        }
+        statements = 0;
+        operations = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** saveAll de NEW_LOANS préstamos y flush; la transacción se deshace para no hacer crecer la tabla. */
+    @Benchmark
+    public int saveLoans() {
+        List<Loan> loans = new ArrayList<>(NEW_LOANS);
+        for (int i = 0; i < NEW_LOANS; i++) {
+            Loan loan = new Loan();
+            loan.setName("Préstamo " + i);
+            loan.setCustomerName("Lector " + i);
+            loan.setLoanDate(LocalDate.of(2025, 6, 1));
+            loan.setQuantity(1);
+            loan.setBook(book);
+            loans.add(loan);
+        }
+        count(QueryStats.measure(() -> transaction.executeWithoutResult(status -> {
+            loanRepository.saveAll(loans);
+            entityManager.flush();
+            status.setRollbackOnly();
+        })));
+        return loans.size();
+    }
+
+    /** GET /books: préstamos de cada libro y libros de cada autor, todo lazy. */
+    @Benchmark
+    public byte[] getAllBooks() {
+        byte[][] body = new byte[1][];
+        count(QueryStats.measure(() -> {
+            try {
+                body[0] = mockMvc.perform(get("/books")).andReturn().getResponse().getContentAsByteArray();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        return body[0];
+    }
+
+    private void count(QueryStats stats) {
+        statements += stats.count();
+        operations++;
+    }
+}
@@ -0,0 +1,75 @@
+package com.svalero.Api_Library.benchmark;
+
+import com.svalero.Api_Library.DTO.UserInDto;
+import com.svalero.Api_Library.domain.User;
+import com.svalero.Api_Library.mapper.UserMapper;
+import com.svalero.Api_Library.mapper.UserMapperImpl;
+import com.svalero.Api_Library.repository.UserRepository;
+import com.svalero.Api_Library.service.UserService;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alta de usuario: mapeo UserInDto -> User en UserService.saveUser. El cifrado de la contraseña
+ * (BCrypt, milisegundos) se sustituye por uno que no hace nada para que no tape el mapeo.
+ * modelMapper mide el mapeo por reflexión que se usaba antes y mapStruct el generado al compilar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private UserService userService;
+    private ModelMapper modelMapper;
+    private UserMapper userMapper;
+    private UserInDto userInDto;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        userMapper = new UserMapperImpl();
+        userService = new UserService(Fixtures.repository(UserRepository.class, new User()), userMapper, null, null);
+        ReflectionTestUtils.setField(userService, "passwordEncoder", NoOpPasswordEncoder.getInstance());
+
+        userInDto = new UserInDto();
+        userInDto.setName("Isabel");
+        userInDto.setUsername("isabel123");
+        userInDto.setEmail("isabel@example.com");
+        userInDto.setPassword("isabelmola");
+        userInDto.setCreationDate(LocalDate.of(2025, 1, 1));
+        userInDto.setActive(true);
+    }
+
+    @Benchmark
+    public User saveUser() {
+        return userService.saveUser(userInDto);
+    }
+
+    @Benchmark
+    public User modelMapper() {
+        return modelMapper.map(userInDto, User.class);
+    }
+
+    @Benchmark
+    public User mapStruct() {
+        return userMapper.toEntity(userInDto);
+    }
+}
@@ -0,0 +1,138 @@
+package com.svalero.Api_Library.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resultado de una medición: por operación, peticiones correctas, errores, peticiones por segundo y
+ * latencias (ms) p50/p99/p99.9/máx. Se guarda en JSON para compararlo con el de otra ejecución.
+ */
+record LoadReport(int users, double seconds, List<OperationStats> operations, OperationStats total,
+                  PoolMonitor.PoolStats pool, Map<String, Long> errors) {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    record OperationStats(String name, long count, long errors, double throughput,
+                          double p50, double p99, double p999, double max) {
+
+        static OperationStats of(String name, Histogram histogram, long errors, double seconds) {
+            return new OperationStats(name, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    static LoadReport of(int users, Traffic.Results results, PoolMonitor.PoolStats pool) {
+        double seconds = results.elapsedNanos / 1e9;
+        Map<String, Long> errors = new TreeMap<>();
+        results.errors.forEach((key, count) -> errors.put(key, count.sum()));
+
+        List<OperationStats> operations = new ArrayList<>();
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(results.histograms).entrySet()) {
+            long operationErrors = errorsOf(entry.getKey(), results.errors);
+            operations.add(OperationStats.of(entry.getKey(), entry.getValue(), operationErrors, seconds));
+            all.add(entry.getValue());
+            allErrors += operationErrors;
+        }
+        return new LoadReport(users, seconds, operations, OperationStats.of("TOTAL", all, allErrors, seconds),
+                pool, errors);
+    }
+
+    private static long errorsOf(String operation, Map<String, LongAdder> errors) {
+        return errors.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(operation + " "))
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+
+    // ===================== SALIDA =====================
+
+    void print(PrintStream out) {
+        out.printf("%n%d usuarios, %.1f s medidos%n", users, seconds);
+        out.printf("%-12s %9s %7s %9s %9s %9s %9s %9s%n", "Operación", "Peticiones", "Errores", "req/s",
+                "p50 ms", "p99 ms", "p99.9 ms", "máx ms");
+        for (OperationStats operation : operations) {
+            printRow(out, operation);
+        }
+        printRow(out, total);
+        out.printf("Pool: conexión retenida %.2f ms de media, espera %.2f ms, hasta %d esperando, %d timeouts%n",
+                pool.holdMeanMs(), pool.acquireMeanMs(), pool.maxPending(), pool.timeouts());
+        out.printf("Por petición: %.2f ms con conexión retenida, %.2f ms ejecutando SQL%n",
+                pool.holdPerRequestMs(), pool.dbPerRequestMs());
+        if (!errors.isEmpty()) {
+            out.println("Errores por operación y estado: " + errors);
+        }
+    }
+
+    private static void printRow(PrintStream out, OperationStats operation) {
+        out.printf("%-12s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", operation.name(), operation.count(),
+                operation.errors(), operation.throughput(), operation.p50(), operation.p99(), operation.p999(),
+                operation.max());
+    }
+
+    void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        JSON.writeValue(file.toFile(), this);
+    }
+
+    static LoadReport read(Path file) throws IOException {
+        return JSON.readValue(file.toFile(), LoadReport.class);
+    }
+
+    /**
+     * Compara con una ejecución anterior: es regresión que una operación baje sus req/s o suba su p99
+     * más de threshold %. El p99 solo se compara con al menos 100 peticiones (si no, es ruido).
+     * Devuelve las regresiones encontradas (vacío si no hay).
+     */
+    List<String> regressionsAgainst(LoadReport baseline, double threshold, PrintStream out) {
+        List<String> regressions = new ArrayList<>();
+        List<OperationStats> current = new ArrayList<>(operations);
+        current.add(total);
+        List<OperationStats> before = new ArrayList<>(baseline.operations());
+        before.add(baseline.total());
+
+        out.printf("%nComparación con la ejecución base (umbral %.0f%%)%n", threshold);
+        out.printf("%-12s %10s %10s %8s %10s %10s %8s%n", "Operación", "req/s base", "req/s", "cambio",
+                "p99 base", "p99", "cambio");
+        for (OperationStats now : current) {
+            OperationStats then = before.stream().filter(stats -> stats.name().equals(now.name())).findFirst().orElse(null);
+            if (then == null) {
+                continue;
+            }
+            double throughputChange = change(then.throughput(), now.throughput());
+            double p99Change = change(then.p99(), now.p99());
+            out.printf("%-12s %10.1f %10.1f %+7.1f%% %10.2f %10.2f %+7.1f%%%n", now.name(), then.throughput(),
+                    now.throughput(), throughputChange, then.p99(), now.p99(), p99Change);
+            if (-throughputChange > threshold) {
+                regressions.add(now.name() + ": req/s " + String.format("%+.1f%%", throughputChange));
+            }
+            if (then.count() >= 100 && now.count() >= 100 && p99Change > threshold) {
+                regressions.add(now.name() + ": p99 " + String.format("%+.1f%%", p99Change));
+            }
+        }
+        return regressions;
+    }
+
+    private static double change(double before, double now) {
+        return before == 0 ? 0 : (now - before) / before * 100;
+    }
+}
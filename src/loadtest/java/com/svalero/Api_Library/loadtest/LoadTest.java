@@ -0,0 +1,166 @@
+package com.svalero.Api_Library.loadtest;
+
+import com.svalero.Api_Library.ApiLibraryApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prueba de carga de extremo a extremo, sin red ni servicios externos: arranca la aplicación en este
+ * mismo proceso contra una H2 en memoria, la llena con LoadTestData y lanza la mezcla de Traffic.
+ *
+ *   mvn -Ploadtest test-compile exec:exec@loadtest -Dloadtest.args="--users=32 --duration=60s"
+ *
+ * Opciones (el resto de argumentos --clave=valor se pasan a la aplicación, p. ej.
+ * --spring.threads.virtual.enabled=false o --spring.datasource.hikari.maximum-pool-size=5):
+ *   --users=16            usuarios virtuales simultáneos
+ *   --warmup=10s          calentamiento sin medir
+ *   --duration=30s        tiempo medido
+ *   --think=0ms           pausa de cada usuario entre peticiones
+ *   --mix=...             pesos de cada operación (Traffic.DEFAULT_MIX)
+ *   --books=500           libros de la BD (autores = libros / 10)
+ *   --loans-per-book=4    préstamos por libro
+ *   --result=target/loadtest-result.json
+ *   --baseline=fichero    compara con una ejecución anterior y termina con código 1 si hay regresión
+ *   --threshold=20        % de empeoramiento (req/s o p99) que se considera regresión
+ *   --ramp=1,4,16,64      en vez de una medición, una por cada número de usuarios (saturación)
+ *   --scenario=pool       saturación del pool: rampa 1,8,32,64 con lecturas del catálogo y 4 conexiones
+ *                         (cada valor se puede cambiar con su opción); enseña por petición el tiempo con
+ *                         conexión retenida frente al tiempo en SQL. Para comparar con open-in-view:
+ *                         --scenario=pool --spring.jpa.open-in-view=true
+ *
+ * El generador de carga comparte CPU con la aplicación: los números sirven para comparar
+ * configuraciones y commits en la misma máquina, no como capacidad absoluta.
+ */
+public final class LoadTest {
+
+    private static final Set<String> OPTIONS = Set.of("users", "warmup", "duration", "think", "mix", "books",
+            "loans-per-book", "result", "baseline", "threshold", "ramp", "scenario");
+
+    // --scenario=pool: listados grandes (mucho JSON por petición) contra un pool pequeño
+    private static final Map<String, String> POOL_SCENARIO = Map.of(
+            "ramp", "1,8,32,64", "mix", "books=30,book=20,search=20,categories=15,category=15");
+    private static final String POOL_SIZE = "--spring.datasource.hikari.maximum-pool-size=";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "users", "16", "warmup", "10s", "duration", "30s", "think", "0ms", "mix", Traffic.DEFAULT_MIX,
+                "books", "500", "loans-per-book", "4", "result", "target/loadtest-result.json", "threshold", "20"));
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--server.port=0",
+                "--logging.config=classpath:logback-loadtest.xml",
+                "--logging.level.org.springframework=WARN",
+                "--app.query-stats.headers=false"));
+        Map<String, String> given = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.startsWith("--") && equals > 0 ? arg.substring(2, equals) : "";
+            if (OPTIONS.contains(name)) {
+                given.put(name, arg.substring(equals + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+        if (given.containsKey("scenario")) {
+            if (!given.get("scenario").equals("pool")) {
+                throw new IllegalArgumentException("Escenario desconocido: " + given.get("scenario"));
+            }
+            options.putAll(POOL_SCENARIO);
+            if (appArgs.stream().noneMatch(arg -> arg.startsWith(POOL_SIZE))) {
+                appArgs.add(POOL_SIZE + "4");
+            }
+        }
+        options.putAll(given);
+
+        int exitCode = 0;
+        try (ConfigurableApplicationContext context = SpringApplication.run(ApiLibraryApplication.class,
+                appArgs.toArray(String[]::new))) {
+            Environment environment = context.getEnvironment();
+            URI base = URI.create("http://localhost:" + environment.getProperty("local.server.port"));
+            LoadTestData data = LoadTestData.seed(context, Integer.parseInt(options.get("books")),
+                    Integer.parseInt(options.get("loans-per-book")));
+            System.out.printf("Datos: %d categorías, %d autores, %d libros, %d préstamos%n",
+                    data.categories, data.authors, data.books, data.loans);
+            System.out.printf("Hilos virtuales: %s, pool: %s conexiones%n",
+                    environment.getProperty("spring.threads.virtual.enabled"),
+                    environment.getProperty("spring.datasource.hikari.maximum-pool-size"));
+
+            Traffic traffic = new Traffic(base, data, Traffic.parseMix(options.get("mix")), duration(options, "think"));
+            PoolMonitor poolMonitor = new PoolMonitor(context.getBean(MeterRegistry.class));
+
+            if (options.containsKey("ramp")) {
+                ramp(traffic, poolMonitor, options);
+            } else {
+                int users = Integer.parseInt(options.get("users"));
+                poolMonitor.start();
+                Traffic.Results results = traffic.run(users, duration(options, "warmup"), duration(options, "duration"));
+                LoadReport report = LoadReport.of(users, results, poolMonitor.stop());
+                report.print(System.out);
+                Path result = Path.of(options.get("result"));
+                report.write(result);
+                System.out.println("Resultado guardado en " + result);
+
+                if (options.containsKey("baseline")) {
+                    LoadReport baseline = LoadReport.read(Path.of(options.get("baseline")));
+                    List<String> regressions = report.regressionsAgainst(baseline,
+                            Double.parseDouble(options.get("threshold")), System.out);
+                    if (!regressions.isEmpty()) {
+                        System.out.println("REGRESIÓN: " + regressions);
+                        exitCode = 1;
+                    }
+                }
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    // Una medición por escalón de usuarios: dónde deja de crecer el throughput y empieza a esperar el pool
+    private static void ramp(Traffic traffic, PoolMonitor poolMonitor, Map<String, String> options) throws Exception {
+        int[] steps = Arrays.stream(options.get("ramp").split(",")).mapToInt(step -> Integer.parseInt(step.trim())).toArray();
+        Duration warmup = duration(options, "warmup");
+        Duration duration = duration(options, "duration");
+
+        List<LoadReport> reports = new ArrayList<>();
+        for (int users : steps) {
+            poolMonitor.start();
+            Traffic.Results results = traffic.run(users, warmup, duration);
+            LoadReport report = LoadReport.of(users, results, poolMonitor.stop());
+            reports.add(report);
+            System.out.printf("%d usuarios: %.1f req/s, p99 %.2f ms%n", users, report.total().throughput(),
+                    report.total().p99());
+        }
+
+        System.out.printf("%n%8s %9s %9s %9s %9s %8s %12s %11s %10s %9s %14s %11s%n", "Usuarios", "req/s", "p50 ms",
+                "p99 ms", "p99.9 ms", "Errores", "Retención ms", "Espera ms", "Esperando", "Timeouts",
+                "Retenida/pet.", "SQL/pet.");
+        for (LoadReport report : reports) {
+            LoadReport.OperationStats total = report.total();
+            PoolMonitor.PoolStats pool = report.pool();
+            System.out.printf("%8d %9.1f %9.2f %9.2f %9.2f %8d %12.2f %11.2f %10d %9d %14.2f %11.2f%n", report.users(),
+                    total.throughput(), total.p50(), total.p99(), total.p999(), total.errors(),
+                    pool.holdMeanMs(), pool.acquireMeanMs(), pool.maxPending(), pool.timeouts(),
+                    pool.holdPerRequestMs(), pool.dbPerRequestMs());
+        }
+    }
+
+    private static Duration duration(Map<String, String> options, String name) {
+        return DurationStyle.detectAndParse(options.get(name));
+    }
+}
@@ -0,0 +1,61 @@
+package com.svalero.Api_Library.loadtest;
+
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
+import com.svalero.Api_Library.seed.DataSeeder;
+import com.svalero.Api_Library.seed.SeedPlan;
+import com.svalero.Api_Library.service.AuthorGeoIndex;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Datos de la prueba de carga en la BD recién creada (ids desde 1): los genera DataSeeder (popularidad
+ * Zipf y fechas estacionales) y se añade un usuario para el login.
+ */
+final class LoadTestData {
+
+    static final String USERNAME = "loadtest";
+    static final String PASSWORD = "loadtest123";
+    static final String[] GENRES = DataSeeder.GENRES;
+
+    final int categories;
+    final int authors;
+    final int books;
+    final long loans;
+
+    private LoadTestData(int categories, int authors, int books, long loans) {
+        this.categories = categories;
+        this.authors = authors;
+        this.books = books;
+        this.loans = loans;
+    }
+
+    static LoadTestData seed(ConfigurableApplicationContext context, int books, int loansPerBook) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        LoadTestData data = new LoadTestData(GENRES.length, Math.max(1, books / 10), books, (long) books * loansPerBook);
+
+        // Id explícito (los ids son de secuencia); DataSeeder alinea después la secuencia de users
+        jdbc.update("INSERT INTO \"users\" (\"name\", \"username\", \"email\", \"password\", \"creation_date\", \"active\", \"id\") "
+                        + "VALUES (?, ?, ?, ?, ?, ?, (SELECT COALESCE(MAX(\"id\"), 0) + 1 FROM \"users\"))",
+                "Load Test", USERNAME, "loadtest@example.com", passwordEncoder.encode(PASSWORD),
+                Date.valueOf(LocalDate.of(2024, 1, 1)), true);
+        new DataSeeder(jdbc, passwordEncoder).seed(new SeedPlan(data.authors, data.categories, books,
+                Math.max(1, books / 2), data.loans, 1.0, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 12, 31),
+                42, Runtime.getRuntime().availableProcessors(), 1000, PASSWORD));
+
+        // Los datos no han pasado por los servicios: se avisa a las cachés y se rehace el índice geográfico
+        context.publishEvent(new CatalogueChangedEvent(Book.class, 0));
+        context.getBean(AuthorGeoIndex.class).rebuild();
+        return data;
+    }
+
+    /** Título de un libro existente: DataSeeder numera los títulos igual que los ids en una BD vacía. */
+    static String bookTitle(long n) {
+        return DataSeeder.bookTitle(n);
+    }
+}
@@ -0,0 +1,96 @@
+package com.svalero.Api_Library.loadtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uso del pool de conexiones durante una medición, leído de las métricas de Hikari de la propia
+ * aplicación (la prueba corre en el mismo proceso): tiempo que se retiene cada conexión, espera
+ * para conseguirla, máximo de hilos esperando y préstamos que agotaron el timeout. Por petición HTTP
+ * se compara el tiempo total con conexión retenida con el que pasan realmente las sentencias SQL
+ * (db.time.per.request de QueryStatsFilter): la diferencia es conexión ocupada sin trabajar en la BD.
+ */
+final class PoolMonitor {
+
+    /** Tiempos en ms. */
+    record PoolStats(double holdMeanMs, double acquireMeanMs, int maxPending, long timeouts,
+                     double holdPerRequestMs, double dbPerRequestMs) {
+    }
+
+    private final MeterRegistry registry;
+
+    private long usageCount;
+    private double usageMillis;
+    private long acquireCount;
+    private double acquireMillis;
+    private double timeouts;
+    private long requestCount;
+    private double dbMillis;
+    private volatile int maxPending;
+    private volatile boolean sampling;
+    private Thread sampler;
+
+    PoolMonitor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    void start() {
+        Timer usage = timer("hikaricp.connections.usage");
+        Timer acquire = timer("hikaricp.connections.acquire");
+        usageCount = usage == null ? 0 : usage.count();
+        usageMillis = usage == null ? 0 : usage.totalTime(TimeUnit.MILLISECONDS);
+        acquireCount = acquire == null ? 0 : acquire.count();
+        acquireMillis = acquire == null ? 0 : acquire.totalTime(TimeUnit.MILLISECONDS);
+        timeouts = counter();
+        Timer db = timer("db.time.per.request");
+        requestCount = db == null ? 0 : db.count();
+        dbMillis = db == null ? 0 : db.totalTime(TimeUnit.MILLISECONDS);
+        maxPending = 0;
+
+        // "pending" es un valor instantáneo: se muestrea cada 50 ms
+        sampling = true;
+        sampler = Thread.ofVirtual().name("pool-monitor").start(() -> {
+            while (sampling) {
+                Gauge pending = registry.find("hikaricp.connections.pending").gauge();
+                if (pending != null) {
+                    maxPending = Math.max(maxPending, (int) pending.value());
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    PoolStats stop() throws InterruptedException {
+        sampling = false;
+        sampler.join();
+        Timer usage = timer("hikaricp.connections.usage");
+        Timer acquire = timer("hikaricp.connections.acquire");
+        long usages = usage == null ? 0 : usage.count() - usageCount;
+        long acquires = acquire == null ? 0 : acquire.count() - acquireCount;
+        double holdMean = usages == 0 ? 0 : (usage.totalTime(TimeUnit.MILLISECONDS) - usageMillis) / usages;
+        double acquireMean = acquires == 0 ? 0 : (acquire.totalTime(TimeUnit.MILLISECONDS) - acquireMillis) / acquires;
+        Timer db = timer("db.time.per.request");
+        long requests = db == null ? 0 : db.count() - requestCount;
+        double holdPerRequest = requests == 0 || usage == null ? 0 : (usage.totalTime(TimeUnit.MILLISECONDS) - usageMillis) / requests;
+        double dbPerRequest = requests == 0 ? 0 : (db.totalTime(TimeUnit.MILLISECONDS) - dbMillis) / requests;
+        return new PoolStats(holdMean, acquireMean, maxPending, (long) (counter() - timeouts),
+                holdPerRequest, dbPerRequest);
+    }
+
+    private Timer timer(String name) {
+        return registry.find(name).timer();
+    }
+
+    private double counter() {
+        Counter counter = registry.find("hikaricp.connections.timeout").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,235 @@
+package com.svalero.Api_Library.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Usuarios virtuales que lanzan la mezcla de peticiones contra la API (modelo cerrado: cada usuario
+ * espera la respuesta, y el tiempo de pausa si lo hay, antes de la siguiente petición).
+ *
+ * Operaciones de la mezcla y su peso por defecto (--mix=login=2,books=5,...):
+ *   login       POST /auth/login
+ *   books       GET /books (listado completo)
+ *   book        GET /books/{id}
+ *   search      GET /books/genre?genre=... o /books/title?title=...
+ *   loanCreate  POST /loans
+ *   loanPatch   PATCH /loans/{id}
+ *   categories  GET /book-categories
+ *   category    GET /book-categories/{id}
+ */
+final class Traffic {
+
+    static final String DEFAULT_MIX = "login=2,books=5,book=25,search=20,loanCreate=8,loanPatch=10,categories=15,category=15";
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final URI base;
+    private final LoadTestData data;
+    private final Duration think;
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+    private final HttpClient client;
+
+    private volatile boolean running;
+    private volatile Results results;
+
+    Traffic(URI base, LoadTestData data, Map<String, Integer> mix, Duration think) {
+        this.base = base;
+        this.data = data;
+        this.think = think;
+        this.operations = mix.keySet().toArray(String[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2 || !List.of("login", "books", "book", "search", "loanCreate", "loanPatch",
+                    "categories", "category").contains(parts[0])) {
+                throw new IllegalArgumentException("Operación de la mezcla no válida: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                weights.put(parts[0], weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene ninguna operación con peso");
+        }
+        return weights;
+    }
+
+    /**
+     * Lanza users usuarios virtuales: durante warmup no se mide nada y después se mide durante
+     * duration. Devuelve las latencias y errores de la parte medida.
+     */
+    Results run(int users, Duration warmup, Duration duration) throws InterruptedException {
+        results = null;
+        running = true;
+        Thread[] threads = new Thread[users];
+        for (int i = 0; i < users; i++) {
+            threads[i] = Thread.ofVirtual().name("load-user-" + i).start(this::user);
+        }
+
+        Thread.sleep(warmup.toMillis());
+        Results measured = new Results();
+        results = measured;
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        results = null;
+        measured.elapsedNanos = System.nanoTime() - start;
+
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return measured;
+    }
+
+    private void user() {
+        String token = null;
+        while (running) {
+            String operation = pick();
+            long start = System.nanoTime();
+            int status;
+            try {
+                if (token == null || operation.equals("login")) {
+                    HttpResponse<String> response = login();
+                    status = response.statusCode();
+                    Matcher matcher = TOKEN.matcher(response.body());
+                    if (matcher.find()) {
+                        token = matcher.group(1);
+                    }
+                    operation = "login";
+                } else {
+                    status = send(operation, token);
+                }
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            record(operation, start, status);
+
+            if (!think.isZero()) {
+                try {
+                    Thread.sleep(think.toMillis());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void record(String operation, long start, int status) {
+        Results current = results;
+        if (current == null) {
+            return;
+        }
+        if (status >= 200 && status < 400) {
+            long micros = Math.min(MAX_LATENCY_MICROS, (System.nanoTime() - start) / 1_000);
+            current.histogram(operation).recordValue(micros);
+        } else {
+            current.errors.computeIfAbsent(operation + " " + (status < 0 ? "I/O" : String.valueOf(status)),
+                    key -> new LongAdder()).increment();
+        }
+    }
+
+    private String pick() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    // ===================== PETICIONES =====================
+
+    private HttpResponse<String> login() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + LoadTestData.USERNAME
+                        + "\",\"password\":\"" + LoadTestData.PASSWORD + "\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int send(String operation, String token) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest.Builder request = switch (operation) {
+            case "books" -> get("/books");
+            case "book" -> get("/books/" + (1 + random.nextInt(data.books)));
+            case "search" -> random.nextBoolean()
+                    ? get("/books/genre?genre=" + encode(LoadTestData.GENRES[random.nextInt(data.categories)]))
+                    : get("/books/title?title=" + encode(LoadTestData.bookTitle(1 + random.nextInt(data.books))));
+            case "loanCreate" -> HttpRequest.newBuilder(base.resolve("/loans"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Carga\",\"customerName\":\"Cliente "
+                            + random.nextInt(500) + "\",\"email\":\"carga@example.com\",\"loanDate\":\"2025-06-01\","
+                            + "\"quantity\":1,\"book\":{\"id\":" + (1 + random.nextInt(data.books)) + "}}"));
+            case "loanPatch" -> HttpRequest.newBuilder(base.resolve("/loans/" + (1 + random.nextLong(data.loans))))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":" + (1 + random.nextInt(5)) + "}"));
+            case "categories" -> get("/book-categories");
+            case "category" -> get("/book-categories/" + (1 + random.nextInt(data.categories)));
+            default -> throw new IllegalArgumentException(operation);
+        };
+        HttpResponse<Void> response = client.send(request
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .build(), HttpResponse.BodyHandlers.discarding());
+        return response.statusCode();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /** Latencias (µs) de las peticiones correctas y errores por operación y estado. */
+    static final class Results {
+
+        final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        long elapsedNanos;
+
+        Histogram histogram(String operation) {
+            return histograms.computeIfAbsent(operation, key -> new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.svalero.Api_Library.DTO;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+// Con constructor completo para las consultas que lo rellenan directamente (SELECT new BookDTO(...))
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class BookDTO {
     private long id;
     private String title;
@@ -0,0 +1,24 @@
+package com.svalero.Api_Library.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registra AccessLogFilter justo dentro de QueryStatsFilter: así el tiempo total incluye la
+ * seguridad y la caché de respuestas, y el contador de SQL de la petición sigue abierto al escribir
+ * la línea. Se desactiva con app.access-log.enabled=false (o subiendo el logger ACCESS a WARN).
+ */
+@Configuration
+public class AccessLogConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.access-log.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter() {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(new AccessLogFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,224 @@
+package com.svalero.Api_Library.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Log de accesos: una línea JSON por petición en el logger ACCESS (logs/access.log), p. ej.
+ *
+ *   {"ts":1760870000000,"method":"GET","route":"/books/{id}","status":200,"bytes":512,
+ *    "ms":3.214,"dbMs":1.020,"queries":2,"user":"isabel123"}
+ *
+ * route es la plantilla del endpoint (no la URL con ids) para poder agrupar; bytes son los que
+ * escribe la aplicación (antes de la compresión de Tomcat); dbMs y queries salen de QueryStats.
+ * La línea se monta en un StringBuilder reutilizado (pool acotado, los hilos virtuales no se
+ * reutilizan y un ThreadLocal no serviría) sin String.format ni objetos intermedios.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    /** Atributo de la petición con el usuario autenticado (lo pone JwtAuthenticationFilter). */
+    public static final String USER_ATTRIBUTE = AccessLogFilter.class.getName() + ".user";
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("ACCESS");
+
+    private static final int MAX_POOLED_CAPACITY = 4096;
+    private final BlockingQueue<StringBuilder> builders = new ArrayBlockingQueue<>(256);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!accessLogger.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        CountingResponse countingResponse = new CountingResponse(response);
+        int status = -1;
+        try {
+            chain.doFilter(request, countingResponse);
+            status = countingResponse.getStatus();
+        } catch (IOException | ServletException | RuntimeException e) {
+            status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            throw e;
+        } finally {
+            log(request, status, countingResponse.bytes(), System.nanoTime() - start);
+        }
+    }
+
+    private void log(HttpServletRequest request, int status, long bytes, long nanos) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Object user = request.getAttribute(USER_ATTRIBUTE);
+        QueryStats stats = QueryStats.current();
+
+        StringBuilder json = builders.poll();
+        if (json == null) {
+            json = new StringBuilder(256);
+        }
+        json.append("{\"ts\":").append(System.currentTimeMillis());
+        json.append(",\"method\":");
+        appendString(json, request.getMethod());
+        json.append(",\"route\":");
+        appendString(json, route != null ? route.toString() : request.getRequestURI());
+        json.append(",\"status\":").append(status);
+        json.append(",\"bytes\":").append(bytes);
+        json.append(",\"ms\":");
+        appendMillis(json, nanos);
+        if (stats != null) {
+            json.append(",\"dbMs\":");
+            appendMillis(json, stats.dbNanos());
+            json.append(",\"queries\":").append(stats.count());
+        }
+        json.append(",\"user\":");
+        if (user != null) {
+            appendString(json, user.toString());
+        } else {
+            json.append("null");
+        }
+        json.append('}');
+
+        // El mensaje tiene que ser un String propio: el appender asíncrono lo usa después
+        accessLogger.info(json.toString());
+
+        if (json.capacity() <= MAX_POOLED_CAPACITY) {
+            json.setLength(0);
+            builders.offer(json);
+        }
+    }
+
+    // Milisegundos con 3 decimales sin pasar por double ni String.format
+    static void appendMillis(StringBuilder json, long nanos) {
+        long micros = nanos / 1_000;
+        json.append(micros / 1_000).append('.');
+        long fraction = micros % 1_000;
+        if (fraction < 100) {
+            json.append('0');
+        }
+        if (fraction < 10) {
+            json.append('0');
+        }
+        json.append(fraction);
+    }
+
+    static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00");
+                        json.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /** Cuenta los bytes del cuerpo que escribe la aplicación. */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private CountingOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        long bytes() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return outputStream == null ? 0 : outputStream.count;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private long count;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
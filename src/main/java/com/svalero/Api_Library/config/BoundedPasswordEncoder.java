@@ -0,0 +1,48 @@
+package com.svalero.Api_Library.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * PasswordEncoder que limita cuántos hashes (BCrypt) se calculan a la vez.
+ *
+ * Con hilos virtuales un login ocupa su hilo portador durante todo el hash (~100 ms de CPU pura)
+ * y hay tantos portadores como núcleos: una ráfaga de logins dejaría sin CPU al resto de
+ * peticiones. Los que esperan al semáforo sí liberan su portador.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Semaphore permits;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int maxConcurrency) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        permits.acquireUninterruptibly();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        permits.acquireUninterruptibly();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
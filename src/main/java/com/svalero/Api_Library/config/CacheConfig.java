@@ -0,0 +1,49 @@
+package com.svalero.Api_Library.config;
+
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cachés en memoria (Caffeine, política W-TinyLFU) para las búsquedas por id más usadas.
+ * Cada caché tiene su peso máximo y su caducidad en application.properties:
+ * app.cache.{nombre}.max-weight y app.cache.{nombre}.ttl. El peso de una entrada es el número de
+ * entidades de su grafo (ver CatalogueCache), no una por entrada: un autor con cien libros y sus
+ * préstamos ocupa lo que cientos de préstamos sueltos.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+    public static final String AUTHORS = "authors";
+    public static final String BOOK_CATEGORIES = "bookCategories";
+    public static final String LOANS = "loans";
+
+    private static final List<String> CACHE_NAMES = List.of(BOOKS, AUTHORS, BOOK_CATEGORIES, LOANS);
+    private static final long DEFAULT_MAX_WEIGHT = 100_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(CACHE_NAMES.stream().map(name -> new CatalogueCache(name,
+                environment.getProperty("app.cache." + name + ".max-weight", Long.class, DEFAULT_MAX_WEIGHT),
+                environment.getProperty("app.cache." + name + ".ttl", Duration.class, DEFAULT_TTL))).toList());
+        return cacheManager;
+    }
+
+    // Las métricas cache.* de Actuator, igual que para cualquier CaffeineCache
+    @Bean
+    public CacheMeterBinderProvider<CatalogueCache> catalogueCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags);
+    }
+}
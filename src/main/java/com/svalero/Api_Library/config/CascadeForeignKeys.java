@@ -0,0 +1,63 @@
+package com.svalero.Api_Library.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claves ajenas con ON DELETE CASCADE (@OnDelete en la entidad). Hibernate las crea así en una BD nueva,
+ * pero con ddl-auto=update no cambia las que ya existen: al arrancar se rehacen las que no borran en
+ * cascada, antes de que los servicios borren con una sola sentencia contando con ellas.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class CascadeForeignKeys {
+
+    private static final Logger logger = LoggerFactory.getLogger(CascadeForeignKeys.class);
+
+    /** Tabla y columna de cada clave, y tabla a la que apunta (por su "id"). */
+    record CascadeKey(String table, String column, String referencedTable) {
+    }
+
+    static final List<CascadeKey> KEYS = List.of(new CascadeKey("loans", "book_id", "books"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CascadeForeignKeys(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignAll() {
+        KEYS.forEach(this::align);
+    }
+
+    void align(CascadeKey key) {
+        List<Map<String, Object>> constraints = jdbcTemplate.queryForList(
+                "SELECT rc.CONSTRAINT_NAME, rc.DELETE_RULE FROM INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS rc "
+                        + "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE k ON k.CONSTRAINT_SCHEMA = rc.CONSTRAINT_SCHEMA "
+                        + "AND k.CONSTRAINT_NAME = rc.CONSTRAINT_NAME WHERE k.TABLE_NAME = ? AND k.COLUMN_NAME = ?",
+                key.table(), key.column());
+        if (constraints.isEmpty()) {
+            logger.warn("Foreign key {}.{} not found: deletes from {} will not cascade",
+                    key.table(), key.column(), key.referencedTable());
+            return;
+        }
+        for (Map<String, Object> constraint : constraints) {
+            if ("CASCADE".equals(constraint.get("DELETE_RULE"))) {
+                continue;
+            }
+            String name = (String) constraint.get("CONSTRAINT_NAME");
+            jdbcTemplate.execute("ALTER TABLE \"" + key.table() + "\" DROP CONSTRAINT \"" + name + "\"");
+            jdbcTemplate.execute("ALTER TABLE \"" + key.table() + "\" ADD CONSTRAINT \"" + name + "\" FOREIGN KEY (\""
+                    + key.column() + "\") REFERENCES \"" + key.referencedTable() + "\" (\"id\") ON DELETE CASCADE");
+            logger.info("Foreign key {} on {}.{} now cascades deletes", name, key.table(), key.column());
+        }
+    }
+}
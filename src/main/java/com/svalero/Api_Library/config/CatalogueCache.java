@@ -0,0 +1,142 @@
+package com.svalero.Api_Library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.service.EntityGraphs;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché Caffeine de las entidades del catálogo, guardadas con todo su grafo ya inicializado
+ * (EntityGraphs). Sobre CaffeineCache añade tres cosas:
+ *  - peso: cada entrada pesa las entidades que alcanza su grafo, así que max-weight limita la memoria
+ *    aunque un libro arrastre a su autor, los demás libros de este y sus préstamos;
+ *  - generación, como en ResponseCache: lo que @Cacheable leyó de la BD antes de una invalidación no se
+ *    guarda después de ella (sin esto quedaría el dato viejo hasta que caducase);
+ *  - los libros de cada entrada, para que un cambio en un préstamo expulse solo las entradas cuyo
+ *    grafo contiene su libro (evictBook) en vez de vaciar la caché.
+ */
+public class CatalogueCache extends CaffeineCache {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    // Último fallo de cada hilo: @Cacheable busca, ejecuta el método y guarda en el mismo hilo
+    private final ThreadLocal<Miss> lastMiss = new ThreadLocal<>();
+
+    public CatalogueCache(String name, long maxWeight, Duration ttl) {
+        // recordStats() para que Actuator publique aciertos, fallos y expulsiones de cada caché
+        super(name, Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Object key, Object value) -> value instanceof Entry entry ? entry.weight() : 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(), false);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        long generationAtLookup = generation.get();
+        Object stored = getNativeCache().getIfPresent(key);
+        if (stored == null) {
+            lastMiss.set(new Miss(key, generationAtLookup));
+            return null;
+        }
+        return ((Entry) stored).value();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = (Entry) getNativeCache().get(key, k -> {
+            try {
+                return Entry.of(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        });
+        return (T) entry.value();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Miss miss = lastMiss.get();
+        lastMiss.remove();
+        // Sin fallo previo en este hilo (un put directo) no hay lectura que pueda haberse quedado vieja
+        long generationAtStart = miss != null && miss.key().equals(key) ? miss.generation() : generation.get();
+        if (generation.get() != generationAtStart) {
+            return;
+        }
+        Entry entry = Entry.of(value);
+        getNativeCache().put(key, entry);
+        // Si la invalidación ha llegado justo entre la comprobación y el put, se deshace
+        if (generation.get() != generationAtStart) {
+            getNativeCache().asMap().remove(key, entry);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = getNativeCache().asMap().putIfAbsent(key, Entry.of(value));
+        return existing == null ? null : toValueWrapper(((Entry) existing).value());
+    }
+
+    @Override
+    public void evict(Object key) {
+        generation.incrementAndGet();
+        getNativeCache().invalidate(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        generation.incrementAndGet();
+        return getNativeCache().asMap().remove(key) != null;
+    }
+
+    @Override
+    public void clear() {
+        generation.incrementAndGet();
+        getNativeCache().invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = !getNativeCache().asMap().isEmpty();
+        clear();
+        return notEmpty;
+    }
+
+    /** Expulsa las entradas cuyo grafo contiene el libro (el propio libro, su autor, su categoría...). */
+    public void evictBook(long bookId) {
+        generation.incrementAndGet();
+        getNativeCache().asMap().values().removeIf(stored -> ((Entry) stored).containsBook(bookId));
+    }
+
+    private record Miss(Object key, long generation) {
+    }
+
+    /** Valor guardado, con las entidades de su grafo (peso) y los ids de sus libros, ordenados. */
+    private record Entry(Object value, int weight, long[] bookIds) {
+
+        static Entry of(Object value) {
+            int[] entities = {0};
+            List<Long> books = new ArrayList<>();
+            EntityGraphs.forEachInitialized(value, entity -> {
+                entities[0]++;
+                if (entity instanceof Book book) {
+                    books.add(book.getId());
+                }
+            });
+            return new Entry(value, Math.max(1, entities[0]), books.stream().mapToLong(Long::longValue).sorted().toArray());
+        }
+
+        boolean containsBook(long bookId) {
+            return Arrays.binarySearch(bookIds, bookId) >= 0;
+        }
+    }
+}
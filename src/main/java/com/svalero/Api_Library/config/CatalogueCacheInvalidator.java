@@ -0,0 +1,82 @@
+package com.svalero.Api_Library.config;
+
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Invalida las cachés de CacheConfig cuando un servicio modifica el catálogo, tras el commit.
+ * Una lectura que cargó el dato antes del commit puede llegar a guardarlo después de invalidar:
+ * eso lo descarta CatalogueCache con su generación, no el momento en que se invalida.
+ */
+@Component
+public class CatalogueCacheInvalidator {
+
+    private static final String[] CATALOGUE = {CacheConfig.BOOKS, CacheConfig.AUTHORS, CacheConfig.BOOK_CATEGORIES};
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CatalogueCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        if (event.type() == Loan.class) {
+            // Un préstamo solo aparece en el grafo de su libro (y de lo que alcanza ese libro): si se sabe
+            // qué libros son, solo salen esas entradas; si no (un DELETE por id), todo el catálogo
+            if (event.bookIds() != null) {
+                for (String name : CATALOGUE) {
+                    event.bookIds().forEach(bookId -> evictBook(name, bookId));
+                }
+            } else {
+                clearCatalogue();
+            }
+            Cache loans = cacheManager.getCache(CacheConfig.LOANS);
+            if (loans != null) {
+                loans.evict(event.id());
+            }
+            return;
+        }
+
+        // Libros, autores y categorías se devuelven con sus relaciones (los libros del autor con sus
+        // préstamos, el autor y la categoría de cada libro...), así que un cambio en cualquiera de ellos
+        // puede afectar a entradas de las tres cachés
+        clearCatalogue();
+
+        // Los préstamos solo exponen id y título de su libro; pero borrar un autor (o un tramo de sus
+        // préstamos, ver DeleteJobs) también borra préstamos
+        if (event.type() == Book.class || event.type() == Author.class) {
+            clear(CacheConfig.LOANS);
+        }
+    }
+
+    private void clearCatalogue() {
+        for (String name : CATALOGUE) {
+            clear(name);
+        }
+    }
+
+    private void evictBook(String name, long bookId) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache instanceof CatalogueCache catalogueCache) {
+            catalogueCache.evictBook(bookId);
+        } else if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.svalero.Api_Library.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Secuencias de los ids de las entidades: "tabla_seq", de ALLOCATION_SIZE en ALLOCATION_SIZE. Hibernate usa
+ * el optimizador pooled: cada valor que saca de la secuencia le reserva el bloque de ids que acaba en él,
+ * así que pide un valor cada 50 filas y puede agrupar los INSERT en lotes (con IDENTITY necesita el id de
+ * cada fila nada más insertarla y desactiva el batching sin avisar).
+ *
+ * align() adelanta la secuencia de una tabla si el siguiente bloque se solapa con ids ya usados: pasa en BD
+ * creadas cuando los ids eran IDENTITY y después de insertar filas por JDBC con ids propios (DataSeeder).
+ * Al arrancar se alinean todas, antes de que la aplicación inserte nada.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequences {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequences.class);
+
+    /** El mismo allocationSize que los @SequenceGenerator de las entidades. */
+    public static final int ALLOCATION_SIZE = 50;
+    public static final List<String> TABLES = List.of("authors", "book_categories", "books", "loans", "users");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequences(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignAll() {
+        TABLES.forEach(this::align);
+    }
+
+    public void align(String table) {
+        String sequence = table + "_seq";
+        List<Long> next = jdbcTemplate.queryForList(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class, sequence);
+        if (next.isEmpty()) {
+            logger.warn("Sequence {} not found: ids of {} are not aligned", sequence, table);
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(\"id\"), 0) FROM \"" + table + "\"", Long.class);
+        // El siguiente bloque de Hibernate será (next - ALLOCATION_SIZE, next]
+        if (maxId != null && next.get(0) - ALLOCATION_SIZE < maxId) {
+            long restart = maxId + ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE \"" + sequence + "\" RESTART WITH " + restart);
+            logger.info("Sequence {} moved to {} (max id {})", sequence, restart, maxId);
+        }
+    }
+}
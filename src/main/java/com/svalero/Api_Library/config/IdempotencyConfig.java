@@ -0,0 +1,35 @@
+package com.svalero.Api_Library.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Set;
+
+/**
+ * Registra IdempotencyFilter detrás de la cadena de Spring Security (y de ResponseCacheFilter, que solo
+ * mira los GET): el usuario del token forma parte de la clave y una respuesta repetida sigue exigiéndolo.
+ * Rutas, tamaños y caducidad en application.properties (app.idempotency.*). @EnableScheduling es para
+ * la purga periódica de IdempotencyStore.
+ */
+@Configuration
+@EnableScheduling
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore store,
+            @Value("${app.idempotency.paths:/loans,/books}") Set<String> paths,
+            @Value("${app.idempotency.max-body-size:1MB}") DataSize maxBodySize,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(store, paths, maxBodySize, objectMapper));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        return registration;
+    }
+}
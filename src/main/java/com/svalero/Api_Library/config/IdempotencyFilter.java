@@ -0,0 +1,215 @@
+package com.svalero.Api_Library.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svalero.Api_Library.config.IdempotencyStore.Outcome;
+import com.svalero.Api_Library.config.IdempotencyStore.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Idempotency-Key en los POST de alta (app.idempotency.paths): un reintento con la misma clave recibe
+ * la respuesta original, con la cabecera Idempotent-Replayed, sin llegar al controlador ni a la BD.
+ *
+ * La clave se guarda por usuario, ruta y clave del cliente, junto con un hash del cuerpo: reutilizarla
+ * con otro cuerpo da 422, y si la original sigue en curso pasado app.idempotency.wait-timeout, 409. El
+ * cuerpo se guarda en memoria para el hash, así que por encima de app.idempotency.max-body-size es 413.
+ * Las peticiones sin la cabecera pasan sin más. Va detrás de Spring Security (ver IdempotencyConfig).
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final Set<String> paths;
+    private final int maxBodySize;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(IdempotencyStore store, Set<String> paths, DataSize maxBodySize, ObjectMapper objectMapper) {
+        this.store = store;
+        this.paths = paths;
+        this.maxBodySize = Math.toIntExact(maxBodySize.toBytes());
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !paths.contains(request.getRequestURI())
+                || request.getHeader(KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientKey = request.getHeader(KEY_HEADER);
+        if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+            error(response, HttpStatus.BAD_REQUEST, "Clave de idempotencia incorrecta",
+                    "Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+            return;
+        }
+
+        // El cuerpo se lee entero antes de nada: hace falta su hash para comparar con la petición original.
+        // Con Content-Length se rechaza sin leerlo; sin él (chunked) se corta al pasar del límite
+        byte[] body = request.getContentLengthLong() > maxBodySize ? null : request.getInputStream().readNBytes(maxBodySize + 1);
+        if (body == null || body.length > maxBodySize) {
+            error(response, HttpStatus.PAYLOAD_TOO_LARGE, "Cuerpo demasiado grande",
+                    "Con Idempotency-Key el cuerpo no puede pasar de " + maxBodySize + " bytes");
+            return;
+        }
+        String user = request.getRemoteUser() == null ? "" : request.getRemoteUser();
+        String key = sha256((user + '\n' + request.getMethod() + '\n' + request.getRequestURI() + '\n' + clientKey)
+                .getBytes(StandardCharsets.UTF_8));
+
+        Outcome outcome = store.begin(key, sha256(body));
+        switch (outcome.state()) {
+            case REPLAY -> replay(response, outcome.response());
+            case MISMATCH -> error(response, HttpStatus.UNPROCESSABLE_ENTITY, "Clave de idempotencia reutilizada",
+                    "La Idempotency-Key ya se usó con otro cuerpo");
+            case IN_PROGRESS -> error(response, HttpStatus.CONFLICT, "Petición en curso",
+                    "La petición original con esta Idempotency-Key todavía no ha terminado");
+            case STARTED -> {
+                ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+                try {
+                    chain.doFilter(new CachedBodyRequest(request, body), wrapper);
+                } catch (IOException | ServletException | RuntimeException e) {
+                    store.abandon(outcome.claim());
+                    throw e;
+                }
+                if (wrapper.getStatus() >= 500) {
+                    store.abandon(outcome.claim());
+                } else {
+                    store.complete(outcome.claim(), wrapper.getStatus(), wrapper.getContentType(),
+                            wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray());
+                }
+                wrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    // Mismo formato que GlobalExceptionHandler: aquí todavía no se ha llegado a Spring MVC
+    private void error(HttpServletResponse response, HttpStatus status, String error, String message) throws IOException {
+        Map<String, Object> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", status.value());
+        errorResponse.put("error", error);
+        errorResponse.put("message", message);
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** La petición con el cuerpo ya leído, para que el controlador lo pueda leer otra vez. */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // El cuerpo ya está entero en memoria: todo está disponible desde el principio
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() == null ? StandardCharsets.UTF_8.name() : getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
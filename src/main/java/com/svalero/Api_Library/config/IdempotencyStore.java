@@ -0,0 +1,236 @@
+package com.svalero.Api_Library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Respuestas de los POST con Idempotency-Key, para contestar a los reintentos sin volver a ejecutarlos.
+ *
+ * Dos niveles: en memoria (Caffeine, limitada en bytes y con caducidad app.idempotency.ttl) están las
+ * respuestas recientes y las peticiones en curso, y los duplicados simultáneos esperan a la primera
+ * en vez de ejecutarse. Debajo, la tabla idempotency_keys: la clave se reserva con un INSERT (que falla
+ * si otra instancia ya la tiene) y se completa con la respuesta, así que sigue valiendo después de
+ * salir de memoria o de reiniciar. Las respuestas 5xx no se guardan: la clave se libera para reintentar.
+ * Las filas caducadas se borran periódicamente (app.idempotency.purge-interval) por lotes.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public enum State { STARTED, REPLAY, MISMATCH, IN_PROGRESS }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration inProgressTimeout;
+    private final int purgeBatchSize;
+
+    // Mismo cuerpo y futuro para la petición en curso y para la respuesta ya guardada
+    private final Cache<String, Entry> entries;
+
+    @Autowired
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            @Value("${app.idempotency.max-size:16MB}") DataSize maxSize,
+                            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${app.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                            @Value("${app.idempotency.in-progress-timeout:5m}") Duration inProgressTimeout,
+                            @Value("${app.idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.inProgressTimeout = inProgressTimeout;
+        this.purgeBatchSize = purgeBatchSize;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> entry.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Reserva la clave para esta petición (STARTED: hay que ejecutarla y llamar a complete o abandon)
+     * o dice qué contestar: la respuesta guardada (REPLAY), que la clave se usó con otro cuerpo
+     * (MISMATCH) o que otra petición con la clave sigue en curso pasado wait-timeout (IN_PROGRESS).
+     */
+    public Outcome begin(String key, String fingerprint) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+            Entry existing = entries.asMap().putIfAbsent(key, mine);
+            if (existing == null) {
+                try {
+                    return claimRow(key, mine);
+                } catch (RuntimeException e) {
+                    // Sin esto la entrada se quedaría en curso para siempre: los reintentos esperarían
+                    // wait-timeout y recibirían 409 hasta que caducase
+                    entries.asMap().remove(key, mine);
+                    mine.result().complete(null);
+                    throw e;
+                }
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                return Outcome.of(State.MISMATCH);
+            }
+            StoredResponse response;
+            try {
+                response = existing.result().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                return Outcome.of(State.IN_PROGRESS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Outcome.of(State.IN_PROGRESS);
+            }
+            if (response != null) {
+                return Outcome.replay(response);
+            }
+            // La primera se abandonó (5xx): uno de los que esperaban se queda la clave y la ejecuta
+        }
+    }
+
+    /** Guarda la respuesta de la petición que reservó la clave y despierta a los duplicados que esperan. */
+    public void complete(Claim claim, int status, String contentType, String location, byte[] body) {
+        StoredResponse response = new StoredResponse(claim.entry().fingerprint(), status, contentType, location, body);
+        try {
+            jdbcTemplate.update("UPDATE \"idempotency_keys\" SET \"status\" = ?, \"content_type\" = ?, \"location\" = ?, "
+                    + "\"body\" = ? WHERE \"idempotency_key\" = ?", status, contentType, location, body, claim.key());
+        } catch (DataAccessException e) {
+            // La respuesta ya está enviada: sin la fila solo se pierde la protección entre instancias
+            logger.warn("Could not store idempotent response {}: {}", claim.key(), e.getMessage());
+        }
+        entries.put(claim.key(), new Entry(response.fingerprint(), CompletableFuture.completedFuture(response)));
+        claim.entry().result().complete(response);
+    }
+
+    /** Libera la clave sin guardar nada (la petición falló): el siguiente reintento se ejecuta de nuevo. */
+    public void abandon(Claim claim) {
+        try {
+            jdbcTemplate.update("DELETE FROM \"idempotency_keys\" WHERE \"idempotency_key\" = ?", claim.key());
+        } catch (DataAccessException e) {
+            logger.warn("Could not release idempotency key {}: {}", claim.key(), e.getMessage());
+        }
+        entries.asMap().remove(claim.key(), claim.entry());
+        claim.entry().result().complete(null);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    /**
+     * Borra las claves que ya no protegen nada (más antiguas que ttl): al arrancar y luego cada
+     * purge-interval. Por lotes de purge-batch-size, cada uno en su propia sentencia, para no bloquear
+     * la tabla ni cargar de golpe todo lo caducado desde la última pasada. Devuelve las filas borradas.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:1h}")
+    public long purgeExpired() {
+        Timestamp expired = Timestamp.from(Instant.now().minus(ttl));
+        long purged = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update("DELETE FROM \"idempotency_keys\" WHERE \"idempotency_key\" IN ("
+                    + "SELECT \"idempotency_key\" FROM \"idempotency_keys\" WHERE \"created_at\" < ? LIMIT ?)",
+                    expired, purgeBatchSize);
+            purged += batch;
+        } while (batch == purgeBatchSize);
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+        return purged;
+    }
+
+    // La clave no estaba en memoria: se reserva en la tabla o se recupera de ella
+    private Outcome claimRow(String key, Entry mine) {
+        Instant now = Instant.now();
+        try {
+            jdbcTemplate.update("INSERT INTO \"idempotency_keys\" (\"idempotency_key\", \"fingerprint\", \"created_at\") "
+                    + "VALUES (?, ?, ?)", key, mine.fingerprint(), Timestamp.from(now));
+            return Outcome.started(new Claim(key, mine));
+        } catch (DuplicateKeyException e) {
+            Row row = findRow(key);
+            if (row != null && row.response() != null && row.createdAt().isAfter(now.minus(ttl))) {
+                entries.put(key, new Entry(row.response().fingerprint(), CompletableFuture.completedFuture(row.response())));
+                mine.result().complete(row.response());
+                return row.response().fingerprint().equals(mine.fingerprint())
+                        ? Outcome.replay(row.response()) : Outcome.of(State.MISMATCH);
+            }
+            entries.asMap().remove(key, mine);
+            mine.result().complete(null);
+            // Caducada, o en curso desde hace demasiado (instancia caída): se borra y se vuelve a reservar
+            Instant staleBefore = now.minus(row != null && row.response() != null ? ttl : inProgressTimeout);
+            if (row == null || jdbcTemplate.update("DELETE FROM \"idempotency_keys\" WHERE \"idempotency_key\" = ? "
+                    + "AND \"created_at\" < ?", key, Timestamp.from(staleBefore)) > 0) {
+                return begin(key, mine.fingerprint());
+            }
+            // Otra instancia la está atendiendo ahora mismo
+            return Outcome.of(State.IN_PROGRESS);
+        }
+    }
+
+    private Row findRow(String key) {
+        List<Row> rows = jdbcTemplate.query("SELECT \"fingerprint\", \"created_at\", \"status\", \"content_type\", "
+                        + "\"location\", \"body\" FROM \"idempotency_keys\" WHERE \"idempotency_key\" = ?",
+                (rs, rowNum) -> {
+                    int status = rs.getInt("status");
+                    StoredResponse response = rs.wasNull() ? null : new StoredResponse(rs.getString("fingerprint"),
+                            status, rs.getString("content_type"), rs.getString("location"), rs.getBytes("body"));
+                    return new Row(rs.getTimestamp("created_at").toInstant(), response);
+                }, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private record Row(Instant createdAt, StoredResponse response) {
+    }
+
+    /** Cuerpo de la petición (fingerprint) y su respuesta: null en el futuro si se abandonó. */
+    record Entry(String fingerprint, CompletableFuture<StoredResponse> result) {
+
+        int weight() {
+            StoredResponse response = result.getNow(null);
+            return 64 + (response == null || response.body() == null ? 0 : response.body().length);
+        }
+    }
+
+    /** La reserva de una clave, para completarla o abandonarla. */
+    public record Claim(String key, Entry entry) {
+    }
+
+    /** Lo necesario para repetir la respuesta original. */
+    public record StoredResponse(String fingerprint, int status, String contentType, String location, byte[] body) {
+    }
+
+    public record Outcome(State state, Claim claim, StoredResponse response) {
+
+        static Outcome of(State state) {
+            return new Outcome(state, null, null);
+        }
+
+        static Outcome started(Claim claim) {
+            return new Outcome(State.STARTED, claim, null);
+        }
+
+        static Outcome replay(StoredResponse response) {
+            return new Outcome(State.REPLAY, null, response);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.svalero.Api_Library.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enlaza con su usuario los préstamos sin user_id (los de antes de la columna y los cargados por JDBC) con
+ * el mismo criterio que LoanService: el usuario con su email o, si no, el único con su nombre.
+ *
+ * Se hace con la aplicación ya sirviendo peticiones, en segundo plano y por tramos de ids de batch-size
+ * préstamos: cada tramo es un UPDATE en su propia transacción, así que nunca bloquea más que esas filas.
+ * Solo toca préstamos sin usuario (los nuevos ya llegan con él). Los que no encajan con ningún usuario se
+ * quedan sin él, y por eso tras cada tramo se apunta el último id recorrido (migration_marks): si se corta
+ * se retoma desde ahí en el siguiente arranque, y una vez terminada los siguientes solo miran los
+ * préstamos posteriores (los cargados por JDBC después), en vez de repasar todos los que no tienen usuario.
+ */
+@Component
+public class LoanUserMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanUserMigration.class);
+
+    private static final String LINK_RANGE = "UPDATE \"loans\" l SET \"user_id\" = COALESCE("
+            + "(SELECT u.\"id\" FROM \"users\" u WHERE u.\"email\" = l.\"email\"), "
+            + "(SELECT MIN(u.\"id\") FROM \"users\" u WHERE u.\"name\" = l.\"customer_name\" HAVING COUNT(*) = 1)) "
+            + "WHERE l.\"user_id\" IS NULL AND l.\"id\" >= ? AND l.\"id\" < ?";
+
+    private static final String MARK = "loan-user";
+
+    /** Préstamos del rango recorrido con y sin usuario al terminar, y tramos del rango. */
+    public record Result(long linked, long unlinked, long batches) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor taskExecutor;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public LoanUserMigration(JdbcTemplate jdbcTemplate,
+                             @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                             @Value("${app.loan-user-migration.enabled:true}") boolean enabled,
+                             @Value("${app.loan-user-migration.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            taskExecutor.execute(() -> {
+                try {
+                    migrate();
+                } catch (RuntimeException e) {
+                    logger.error("Loan user migration stopped; it resumes on the next start", e);
+                }
+            });
+        }
+    }
+
+    public Result migrate() {
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(\"id\") AS \"first\", MAX(\"id\") AS \"last\" "
+                + "FROM \"loans\" WHERE \"user_id\" IS NULL AND \"id\" > ?", lastDone());
+        if (range.get("first") == null) {
+            return new Result(0, 0, 0);
+        }
+        long first = ((Number) range.get("first")).longValue();
+        long last = ((Number) range.get("last")).longValue();
+        logger.info("Linking loans {}..{} to their users in batches of {}", first, last, batchSize);
+
+        long batches = 0;
+        for (long from = first; from <= last; from += batchSize) {
+            jdbcTemplate.update(LINK_RANGE, from, from + batchSize);
+            markDone(Math.min(from + batchSize - 1, last));
+            if (++batches % 100 == 0) {
+                logger.info("Loan user migration: up to id {} of {}", from + batchSize - 1, last);
+            }
+        }
+        long unlinked = count("WHERE \"user_id\" IS NULL AND \"id\" BETWEEN " + first + " AND " + last);
+        long linked = count("WHERE \"user_id\" IS NOT NULL AND \"id\" BETWEEN " + first + " AND " + last);
+        logger.info("Loan user migration done: {} batches, {} loans without user", batches, unlinked);
+        return new Result(linked, unlinked, batches);
+    }
+
+    private long lastDone() {
+        List<Long> done = jdbcTemplate.queryForList(
+                "SELECT \"last_id\" FROM \"migration_marks\" WHERE \"name\" = ?", Long.class, MARK);
+        return done.isEmpty() ? 0 : done.get(0);
+    }
+
+    private void markDone(long lastId) {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (jdbcTemplate.update("UPDATE \"migration_marks\" SET \"last_id\" = ?, \"updated_at\" = ? WHERE \"name\" = ?",
+                lastId, now, MARK) == 0) {
+            jdbcTemplate.update("INSERT INTO \"migration_marks\" (\"name\", \"last_id\", \"updated_at\") VALUES (?, ?, ?)",
+                    MARK, lastId, now);
+        }
+    }
+
+    private long count(String where) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"loans\" " + where, Long.class);
+    }
+}
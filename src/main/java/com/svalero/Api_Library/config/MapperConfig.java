@@ -1,11 +0,0 @@
-package com.svalero.Api_Library.config;
-
-import org.modelmapper.ModelMapper;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class MapperConfig {
-    @Bean
-    public ModelMapper modelMapper(){return new ModelMapper();}
-}
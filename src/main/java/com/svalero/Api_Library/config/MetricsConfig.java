@@ -0,0 +1,54 @@
+package com.svalero.Api_Library.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Métricas (Micrometer) por capas, exportadas en /actuator/prometheus:
+ * - http.server.requests: una serie por handler de controlador (etiqueta "handler", p. ej. LoanController#getLoansByRange)
+ * - library.service: cada método público de los servicios anotados con @Observed
+ * - spring.data.repository.invocations: cada método de repositorio (lo registra Spring Boot)
+ * - hibernate.*: estadísticas de Hibernate (consultas, cargas de entidades, caché...)
+ * Los percentiles de cada timer se configuran en application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_OBSERVATION = "library.service";
+
+    private static final String HANDLER_TAG = "handler";
+
+    // Hace que funcionen las anotaciones @Observed
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    // Añade a http.server.requests el método del controlador que atendió la petición
+    @Bean
+    public DefaultServerRequestObservationConvention handlerTaggingObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(handler(context.getCarrier()));
+            }
+        };
+    }
+
+    private static KeyValue handler(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return KeyValue.of(HANDLER_TAG, method.getBeanType().getSimpleName() + "#" + method.getMethod().getName());
+        }
+        return KeyValue.of(HANDLER_TAG, "none");
+    }
+}
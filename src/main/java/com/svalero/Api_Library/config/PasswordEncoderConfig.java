@@ -1,5 +1,6 @@
 package com.svalero.Api_Library.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +9,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordEncoderConfig {
 
+    // Por defecto deja siempre un núcleo libre para el resto de peticiones (ver BoundedPasswordEncoder)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.max-concurrency:0}") int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            maxConcurrency = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), maxConcurrency);
     }
 }
@@ -0,0 +1,66 @@
+package com.svalero.Api_Library.config;
+
+/**
+ * Sentencias SQL ejecutadas y tiempo pasado en la BD durante la petición HTTP en curso.
+ *
+ * QueryStatsFilter abre un contador por petición (hilo) y QueryStatsListener le suma cada
+ * sentencia que pasa por el DataSource. Fuera de una petición (arranque, tareas) no se cuenta nada.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int count;
+    private long nanos;
+
+    private QueryStats() {
+    }
+
+    static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Cuenta las sentencias que ejecuta action en este hilo, también fuera de una petición (tests, tareas).
+     * Si ya había un contador abierto, se le suman al terminar.
+     */
+    public static QueryStats measure(Runnable action) {
+        QueryStats outer = CURRENT.get();
+        QueryStats stats = start();
+        try {
+            action.run();
+        } finally {
+            if (outer == null) {
+                end();
+            } else {
+                CURRENT.set(outer);
+                outer.record(stats.count, stats.nanos);
+            }
+        }
+        return stats;
+    }
+
+    /** Contador de la petición en curso, o null si el hilo no está atendiendo una petición. */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    void record(int statements, long elapsedNanos) {
+        count += statements;
+        nanos += elapsedNanos;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long dbNanos() {
+        return nanos;
+    }
+}
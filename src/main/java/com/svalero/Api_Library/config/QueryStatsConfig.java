@@ -0,0 +1,58 @@
+package com.svalero.Api_Library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Envuelve el DataSource con datasource-proxy para contar las sentencias SQL de cada petición
+ * y avisar de las lentas (app.query-stats.*). Ver QueryStats y QueryStatsFilter.
+ */
+@Configuration
+public class QueryStatsConfig {
+
+    // static: los BeanPostProcessor se crean antes que el resto de beans. Los DataSource que solo delegan
+    // en otros (el de ReadOnlyDataSourceConfig) no se envuelven: sus sentencias ya se cuentan en el pool
+    @Bean
+    public static BeanPostProcessor queryStatsDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                        && !(bean instanceof DelegatingDataSource)) {
+                    Duration slowThreshold = environment.getProperty(
+                            "app.query-stats.slow-threshold", Duration.class, Duration.ofMillis(200));
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(new QueryStatsListener(slowThreshold))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Primero de todos los filtros, para contar también lo que hace la seguridad (carga del usuario del token).
+    // Las rutas de ResponseCacheFilter no se retienen aquí: ese filtro ya lo hace (ver QueryStatsFilter)
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(
+            @Value("${app.query-stats.headers:true}") boolean headers,
+            @Value("${app.response-cache.paths:/book-categories,/authors}") Set<String> responseCachePaths,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryStatsFilter> registration =
+                new FilterRegistrationBean<>(new QueryStatsFilter(headers, responseCachePaths, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
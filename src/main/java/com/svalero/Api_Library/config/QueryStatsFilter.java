@@ -0,0 +1,137 @@
+package com.svalero.Api_Library.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abre el contador de sentencias SQL de cada petición (QueryStats) y publica el resultado:
+ * métricas db.queries.per.request / db.time.per.request y, si app.query-stats.headers está activo
+ * (todo salvo el perfil prod), las cabeceras X-Query-Count y X-DB-Time (ms).
+ *
+ * Para poder poner las cabeceras al final hay que retener el cuerpo hasta entonces (las cargas
+ * lazy durante la serialización también cuentan), por eso en prod no se ponen. Los GET de
+ * app.response-cache.paths son la excepción: ResponseCacheFilter ya retiene la salida del controlador
+ * y escribe los bytes cuando no queda ninguna consulta, así que basta con poner las cabeceras justo
+ * antes de que empiece el cuerpo; un acierto se escribe tal cual, sin copiarlo a otro buffer.
+ */
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String DB_TIME_HEADER = "X-DB-Time";
+
+    private final boolean headers;
+    private final Set<String> responseCachePaths;
+    private final DistributionSummary queriesPerRequest;
+    private final Timer dbTimePerRequest;
+
+    public QueryStatsFilter(boolean headers, Set<String> responseCachePaths, MeterRegistry meterRegistry) {
+        this.headers = headers;
+        this.responseCachePaths = responseCachePaths;
+        this.queriesPerRequest = DistributionSummary.builder("db.queries.per.request")
+                .description("SQL statements executed per HTTP request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.dbTimePerRequest = Timer.builder("db.time.per.request")
+                .description("Time spent in the database per HTTP request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        try {
+            if (headers && "GET".equals(request.getMethod()) && responseCachePaths.contains(request.getRequestURI())) {
+                HeadersBeforeBodyResponse wrapper = new HeadersBeforeBodyResponse(response, stats);
+                chain.doFilter(request, wrapper);
+                // Sin cuerpo (304, o respuesta vacía) todavía no se han puesto
+                wrapper.writeHeaders();
+            } else if (headers) {
+                ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+                chain.doFilter(request, wrapper);
+                writeHeaders(wrapper, stats);
+                wrapper.copyBodyToResponse();
+            } else {
+                chain.doFilter(request, response);
+            }
+            queriesPerRequest.record(stats.count());
+            dbTimePerRequest.record(stats.dbNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            QueryStats.end();
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, QueryStats stats) {
+        response.setHeader(QUERY_COUNT_HEADER, Integer.toString(stats.count()));
+        response.setHeader(DB_TIME_HEADER, String.format(Locale.ROOT, "%.3f", stats.dbNanos() / 1_000_000.0));
+    }
+
+    /** Pone las cabeceras con lo contado hasta ese momento en cuanto se va a escribir el cuerpo. */
+    private static class HeadersBeforeBodyResponse extends HttpServletResponseWrapper {
+
+        private final QueryStats stats;
+
+        HeadersBeforeBodyResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeaders() {
+            if (!isCommitted()) {
+                QueryStatsFilter.writeHeaders((HttpServletResponse) getResponse(), stats);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.svalero.Api_Library.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Escucha cada sentencia que pasa por el DataSource: la suma al QueryStats de la petición y,
+ * si tarda más que el umbral, la escribe en el log con sus parámetros.
+ */
+public class QueryStatsListener implements QueryExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatsListener.class);
+    private static final String START = "queryStats.start";
+
+    private final long slowThresholdNanos;
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+
+    public QueryStatsListener(Duration slowThreshold) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START, Long.class);
+        long elapsed = start == null ? 0 : System.nanoTime() - start;
+
+        // Un executeBatch cuenta una vez por sentencia: es un solo viaje a la BD
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.record(queryInfoList.size(), elapsed);
+        }
+
+        if (elapsed >= slowThresholdNanos && logger.isWarnEnabled()) {
+            logger.warn("Slow query ({} ms): {}", elapsed / 1_000_000,
+                    logEntryCreator.getLogEntry(execInfo, queryInfoList, false, true, false));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.svalero.Api_Library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Conexiones de solo lectura a una réplica (app.datasource.read-only.url). Las transacciones
+ * readOnly = true de los servicios marcan la conexión como read-only antes de usarla y
+ * LazyConnectionDataSourceProxy la pide entonces al pool de la réplica; el resto va al principal.
+ * Sin réplica configurada no se crea nada y Spring Boot monta su DataSource de siempre.
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.read-only.url")
+public class ReadOnlyDataSourceConfig {
+
+    // El pool principal, con la misma configuración que montaría Spring Boot (spring.datasource.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Usuario, contraseña y driver del principal salvo que se indiquen otros; el pool va en app.datasource.read-only.hikari
+    @Bean
+    @ConfigurationProperties("app.datasource.read-only.hikari")
+    public HikariDataSource readOnlyDataSource(DataSourceProperties properties,
+                                               @Value("${app.datasource.read-only.url}") String url,
+                                               @Value("${app.datasource.read-only.username:${spring.datasource.username:}}") String username,
+                                               @Value("${app.datasource.read-only.password:${spring.datasource.password:}}") String password) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(url).username(username).password(password)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("readOnlyDataSource") DataSource readOnlyDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        return dataSource;
+    }
+}
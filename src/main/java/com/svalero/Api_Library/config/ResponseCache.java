@@ -0,0 +1,109 @@
+package com.svalero.Api_Library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas GET ya serializadas (JSON) y ya comprimidas (gzip), por ruta + parámetros.
+ *
+ * Las guarda ResponseCacheFilter y se vacía entera con cada CatalogueChangedEvent, igual que
+ * las cachés de CacheConfig. El tamaño total se limita en bytes (app.response-cache.max-size).
+ */
+@Component
+public class ResponseCache {
+
+    private final Cache<String, CachedResponse> responses;
+
+    // Cada cambio del catálogo sube la generación: lo serializado antes del cambio no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ResponseCache(@Value("${app.response-cache.max-size:32MB}") DataSize maxSize) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .recordStats()
+                .build();
+    }
+
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Guarda la respuesta solo si el catálogo no ha cambiado desde que se empezó a generar
+     * (generation() leído antes de llamar al controlador).
+     */
+    public void put(String key, CachedResponse response, long generationAtStart) {
+        if (generation.get() != generationAtStart) {
+            return;
+        }
+        responses.put(key, response);
+        // Si el cambio ha llegado justo entre la comprobación y el put, se deshace
+        if (generation.get() != generationAtStart) {
+            responses.invalidate(key);
+        }
+    }
+
+    public long size() {
+        return responses.estimatedSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        generation.incrementAndGet();
+        responses.invalidateAll();
+    }
+
+    /** Comprime con el nivel máximo: se hace una vez por versión del catálogo y se sirve miles de veces. */
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Cuerpo en claro y en gzip con las cabeceras necesarias para repetir la respuesta.
+     * etag y lastModified son los que puso el controlador (null / -1 si no había).
+     */
+    public record CachedResponse(String contentType, byte[] body, byte[] gzipBody, String etag, long lastModified) {
+
+        static CachedResponse of(String contentType, byte[] body, String etag, long lastModified) {
+            return new CachedResponse(contentType, body, gzip(body), etag, lastModified);
+        }
+
+        // Cada variante (sin comprimir y gzip) lleva su propio ETag, fuerte o débil (W/"...-gzip")
+        String gzipEtag() {
+            return etag == null ? null : etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        int weight() {
+            return body.length + gzipBody.length;
+        }
+    }
+}
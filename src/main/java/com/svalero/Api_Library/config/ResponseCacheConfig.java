@@ -0,0 +1,30 @@
+package com.svalero.Api_Library.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Set;
+
+/**
+ * Registra ResponseCacheFilter justo detrás de la cadena de Spring Security para que las
+ * respuestas cacheadas sigan exigiendo token. Rutas y tamaño máximo de cada respuesta en
+ * application.properties (app.response-cache.*).
+ */
+@Configuration
+public class ResponseCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(
+            ResponseCache responseCache,
+            @Value("${app.response-cache.paths:/book-categories,/authors}") Set<String> paths,
+            @Value("${app.response-cache.max-entry-size:4MB}") DataSize maxEntrySize) {
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(
+                new ResponseCacheFilter(responseCache, paths, maxEntrySize.toBytes()));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,164 @@
+package com.svalero.Api_Library.config;
+
+import com.svalero.Api_Library.config.ResponseCache.CachedResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+
+/**
+ * Sirve los GET de los listados más pedidos (app.response-cache.paths) desde ResponseCache.
+ *
+ * En un acierto no se llega al controlador: se responde 304 si el ETag/fecha del cliente sigue
+ * valiendo o se escriben directamente los bytes guardados (gzip si el cliente lo acepta), sin
+ * Jackson ni copias intermedias. En un fallo se deja trabajar al controlador, se guarda su
+ * respuesta JSON y se contesta con ella. Va detrás de Spring Security (ver ResponseCacheConfig),
+ * así que solo llegan aquí peticiones ya autenticadas.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private final ResponseCache responseCache;
+    private final Set<String> paths;
+    private final long maxEntryBytes;
+
+    public ResponseCacheFilter(ResponseCache responseCache, Set<String> paths, long maxEntryBytes) {
+        this.responseCache = responseCache;
+        this.paths = paths;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            write(request, response, cached);
+            return;
+        }
+
+        long generation = responseCache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || contentType == null
+                || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                || body.length > maxEntryBytes) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        cached = CachedResponse.of(contentType, body, response.getHeader(HttpHeaders.ETAG),
+                lastModified(response.getHeader(HttpHeaders.LAST_MODIFIED)));
+        responseCache.put(key, cached, generation);
+        write(request, response, cached);
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+            throws IOException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? cached.gzipEtag() : cached.etag();
+
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        if (cached.lastModified() >= 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, cached.lastModified());
+        }
+        if (notModified(request, etag, cached.lastModified())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? cached.gzipBody() : cached.body();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static long lastModified(String header) {
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(header, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    // If-None-Match manda sobre If-Modified-Since (RFC 9110, 13.2.2)
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            if (etag == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (lastModified < 0) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // Las fechas HTTP van en segundos
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (coding.equalsIgnoreCase(GZIP) || coding.equals("*")) {
+                // "gzip;q=0" significa que el cliente NO lo acepta
+                for (int i = 1; i < tokens.length; i++) {
+                    if (tokens[i].trim().matches("q=0(\\.0{0,3})?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+}
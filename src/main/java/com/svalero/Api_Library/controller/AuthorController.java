@@ -1,15 +1,25 @@
 package com.svalero.Api_Library.controller;
 
+import com.svalero.Api_Library.DTO.BookDTO;
 import com.svalero.Api_Library.domain.Author;
 import com.svalero.Api_Library.exception.AuthorNotFoundException;
 import com.svalero.Api_Library.service.AuthorService;
+import com.svalero.Api_Library.service.CatalogueVersionService;
+import com.svalero.Api_Library.service.DeleteJob;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,38 +27,46 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/authors")
+@Validated
 public class AuthorController {
 
+    static final String MAX_RADIUS_KM = "1000";
+
     private final Logger logger = LoggerFactory.getLogger(AuthorController.class);
     private final AuthorService authorService;
+    private final CatalogueVersionService catalogueVersionService;
 
     @Autowired
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, CatalogueVersionService catalogueVersionService) {
         this.authorService = authorService;
+        this.catalogueVersionService = catalogueVersionService;
     }
 
     // GET: Listar todos los autores
     @GetMapping
-    public ResponseEntity<List<Author>> getAllAuthors() {
-        logger.info("BEGIN getAllAuthors");
+    public ResponseEntity<List<Author>> getAllAuthors(WebRequest request) {
+        logger.debug("BEGIN getAllAuthors");
+        if (catalogueVersionService.checkNotModified(request)) {
+            return null;
+        }
         List<Author> authors = authorService.getAllAuthors();
-        logger.info("END getAllAuthors - Total authors fetched: {}", authors.size());
+        logger.debug("END getAllAuthors - Total authors fetched: {}", authors.size());
         return new ResponseEntity<>(authors, HttpStatus.OK);
     }
 
     // POST: Crear un nuevo autor
     @PostMapping
     public ResponseEntity<Author> addAuthor(@Valid @RequestBody Author author) {
-        logger.info("BEGIN addAuthor - Adding new author: {}", author.getName());
+        logger.debug("BEGIN addAuthor - Adding new author: {}", author.getName());
         Author newAuthor = authorService.saveAuthor(author);
-        logger.info("END addAuthor - Author added with ID: {}", newAuthor.getId());
+        logger.debug("END addAuthor - Author added with ID: {}", newAuthor.getId());
         return new ResponseEntity<>(newAuthor, HttpStatus.CREATED);
     }
 
     // GET: Buscar autores por nombre
     @GetMapping("/name")
     public ResponseEntity<List<Author>> getAuthorByName(@RequestParam String name) {
-        logger.info("Searching author by name: {}", name);
+        logger.debug("Searching author by name: {}", name);
         List<Author> authors = authorService.getAuthorByName(name);
         return new ResponseEntity<>(authors, HttpStatus.OK);
     }
@@ -56,7 +74,7 @@ public class AuthorController {
     // GET: Buscar autores por apellido
     @GetMapping("/surname")
     public ResponseEntity<List<Author>> getAuthorBySurname(@RequestParam String surname) {
-        logger.info("Searching author by surname: {}", surname);
+        logger.debug("Searching author by surname: {}", surname);
         List<Author> authors = authorService.getAuthorBySurname(surname);
         return new ResponseEntity<>(authors, HttpStatus.OK);
     }
@@ -64,7 +82,7 @@ public class AuthorController {
     // GET: Buscar autores por nacionalidad
     @GetMapping("/nationality")
     public ResponseEntity<List<Author>> getAuthorByNationality(@RequestParam String nationality) {
-        logger.info("Searching author by nationality: {}", nationality);
+        logger.debug("Searching author by nationality: {}", nationality);
         List<Author> authors = authorService.getAuthorByNationality(nationality);
         return new ResponseEntity<>(authors, HttpStatus.OK);
     }
@@ -72,16 +90,54 @@ public class AuthorController {
     // GET: Buscar autores por fecha de nacimiento
     @GetMapping("/birthday")
     public ResponseEntity<List<Author>> getAuthorByBirthday(@RequestParam LocalDate birthday) {
-        logger.info("Searching author by birthday: {}", birthday);
+        logger.debug("Searching author by birthday: {}", birthday);
         List<Author> authors = authorService.getAuthorByBirthdate(birthday);
         return new ResponseEntity<>(authors, HttpStatus.OK);
     }
 
+    // GET: Buscar autores en un radio (km) alrededor de un punto, ordenados por distancia. El radio tiene
+    // tope: con uno enorme la búsqueda recorrería casi toda la rejilla de AuthorGeoIndex en cada petición
+    @GetMapping("/near")
+    public ResponseEntity<List<Author>> getAuthorsNear(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @RequestParam @Positive @DecimalMax(MAX_RADIUS_KM) double radiusKm) {
+        logger.debug("Searching authors within {} km of ({}, {})", radiusKm, lat, lon);
+        List<Author> authors = authorService.getAuthorsNear(lat, lon, radiusKm);
+        return new ResponseEntity<>(authors, HttpStatus.OK);
+    }
+
+    // GET: Los k autores más cercanos a un punto
+    @GetMapping("/nearest")
+    public ResponseEntity<List<Author>> getNearestAuthors(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int k) {
+        logger.debug("Searching the {} nearest authors to ({}, {})", k, lat, lon);
+        List<Author> authors = authorService.getNearestAuthors(lat, lon, k);
+        return new ResponseEntity<>(authors, HttpStatus.OK);
+    }
+
+    // GET: Libros del autor, por páginas desde el último id visto (after); la siguiente en la cabecera Link
+    @GetMapping("/{id}/books")
+    public ResponseEntity<List<BookDTO>> getAuthorBooks(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "0") @Min(0) long after,
+            @RequestParam(defaultValue = KeysetPages.DEFAULT_SIZE) @Min(1) @Max(KeysetPages.MAX_SIZE) int size)
+            throws AuthorNotFoundException {
+        logger.debug("Fetching books of author {} after {}", id, after);
+        return KeysetPages.of(authorService.getBooks(id, after, size), size, BookDTO::getId);
+    }
+
     // GET: Obtener autor por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Author> getAuthorById(@PathVariable long id) throws AuthorNotFoundException {
-        logger.info("Searching author by ID: {}", id);
+    public ResponseEntity<Author> getAuthorById(@PathVariable long id, WebRequest request) throws AuthorNotFoundException {
+        logger.debug("Searching author by ID: {}", id);
+        // Primero el autor (cacheado): un id que no existe es 404 aunque el ETag del catálogo coincida
         Author author = authorService.getAuthorById(id);
+        if (catalogueVersionService.checkNotModified(request)) {
+            return null;
+        }
         return new ResponseEntity<>(author, HttpStatus.OK);
     }
 
@@ -89,7 +145,7 @@ public class AuthorController {
     @PutMapping("/{id}")
     public ResponseEntity<Author> updateAuthor(@PathVariable long id, @Valid @RequestBody Author authorDetails)
             throws AuthorNotFoundException {
-        logger.info("Updating author by ID: {}", id);
+        logger.debug("Updating author by ID: {}", id);
         Author updatedAuthor = authorService.updateAuthor(id, authorDetails);
         return new ResponseEntity<>(updatedAuthor, HttpStatus.OK);
     }
@@ -98,16 +154,18 @@ public class AuthorController {
     @PatchMapping("/{id}")
     public ResponseEntity<Author> updateAuthorPartial(@PathVariable long id, @RequestBody Map<String, Object> updates)
             throws AuthorNotFoundException {
-        logger.info("Partially updating author by ID: {}", id);
+        logger.debug("Partially updating author by ID: {}", id);
         Author updatedAuthor = authorService.updateAuthorPartial(id, updates);
         return ResponseEntity.ok(updatedAuthor);
     }
 
     // DELETE: Eliminar autor por ID
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAuthor(@PathVariable long id) throws AuthorNotFoundException {
-        logger.info("Deleting author by ID: {}", id);
-        authorService.deleteAuthor(id);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<DeleteJob> deleteAuthor(@PathVariable long id) throws AuthorNotFoundException {
+        logger.debug("Deleting author by ID: {}", id);
+        // 202 con el trabajo si se borra en segundo plano; su progreso en GET /delete-jobs/{id}
+        return authorService.deleteAuthor(id)
+                .map(job -> ResponseEntity.accepted().location(DeleteJobController.location(job)).body(job))
+                .orElseGet(() -> ResponseEntity.noContent().build());
     }
 }
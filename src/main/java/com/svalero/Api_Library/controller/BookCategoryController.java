@@ -1,15 +1,21 @@
 package com.svalero.Api_Library.controller;
 
+import com.svalero.Api_Library.DTO.BookDTO;
 import com.svalero.Api_Library.domain.BookCategory;
 import com.svalero.Api_Library.exception.BookCategoryNotFoundException;
 import com.svalero.Api_Library.service.BookCategoryService;
+import com.svalero.Api_Library.service.CatalogueVersionService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,36 +23,57 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/book-categories")
+@Validated
 public class BookCategoryController {
 
     private final Logger logger = LoggerFactory.getLogger(BookCategoryController.class);
     private final BookCategoryService service;
+    private final CatalogueVersionService catalogueVersionService;
 
     @Autowired
-    public BookCategoryController(BookCategoryService service) {
+    public BookCategoryController(BookCategoryService service, CatalogueVersionService catalogueVersionService) {
         this.service = service;
+        this.catalogueVersionService = catalogueVersionService;
     }
 
     // GET: Listar todas las categorías
     @GetMapping
-    public ResponseEntity<List<BookCategory>> getAllBookCategories() {
-        logger.info("Fetching all book categories");
+    public ResponseEntity<List<BookCategory>> getAllBookCategories(WebRequest request) {
+        logger.debug("Fetching all book categories");
+        if (catalogueVersionService.checkNotModified(request)) {
+            return null;
+        }
         List<BookCategory> categories = service.getAllBookCategories();
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
 
     // GET: Obtener categoría por ID
     @GetMapping("/{id}")
-    public ResponseEntity<BookCategory> getById(@PathVariable long id) throws BookCategoryNotFoundException {
-        logger.info("Searching category by ID: {}", id);
+    public ResponseEntity<BookCategory> getById(@PathVariable long id, WebRequest request) throws BookCategoryNotFoundException {
+        logger.debug("Searching category by ID: {}", id);
+        // Primero la categoría (cacheada): un id que no existe es 404 aunque el ETag del catálogo coincida
         BookCategory category = service.getBookCategoriesById(id);
+        if (catalogueVersionService.checkNotModified(request)) {
+            return null;
+        }
         return new ResponseEntity<>(category, HttpStatus.OK);
     }
 
+    // GET: Libros de la categoría, por páginas desde el último id visto (after); la siguiente en la cabecera Link
+    @GetMapping("/{id}/books")
+    public ResponseEntity<List<BookDTO>> getCategoryBooks(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "0") @Min(0) long after,
+            @RequestParam(defaultValue = KeysetPages.DEFAULT_SIZE) @Min(1) @Max(KeysetPages.MAX_SIZE) int size)
+            throws BookCategoryNotFoundException {
+        logger.debug("Fetching books of category {} after {}", id, after);
+        return KeysetPages.of(service.getBooks(id, after, size), size, BookDTO::getId);
+    }
+
     // GET: Buscar por nombre
     @GetMapping("/name")
     public ResponseEntity<List<BookCategory>> getByName(@RequestParam String name) {
-        logger.info("Searching category by name: {}", name);
+        logger.debug("Searching category by name: {}", name);
         List<BookCategory> categories = service.getBookCategoriesByName(name);
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
@@ -54,7 +81,7 @@ public class BookCategoryController {
     // GET: Buscar por descripción
     @GetMapping("/description")
     public ResponseEntity<List<BookCategory>> getByDescription(@RequestParam String description) {
-        logger.info("Searching category by description: {}", description);
+        logger.debug("Searching category by description: {}", description);
         List<BookCategory> categories = service.getBookCategoriesByDescription(description);
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
@@ -62,7 +89,7 @@ public class BookCategoryController {
     // GET: Buscar por estado activo/inactivo
     @GetMapping("/active")
     public ResponseEntity<List<BookCategory>> getByActive(@RequestParam(defaultValue = "true") boolean active) {
-        logger.info("Searching categories by active: {}", active);
+        logger.debug("Searching categories by active: {}", active);
         List<BookCategory> categories = service.getBookCategoriesByActive(active);
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
@@ -70,7 +97,7 @@ public class BookCategoryController {
     // GET: Buscar por fecha de creación
     @GetMapping("/creation-date")
     public ResponseEntity<List<BookCategory>> getByCreatedDate(@RequestParam LocalDate date) {
-        logger.info("Searching categories by creation date: {}", date);
+        logger.debug("Searching categories by creation date: {}", date);
         List<BookCategory> categories = service.getBookCategoriesByCreateDate(date);
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
@@ -78,7 +105,7 @@ public class BookCategoryController {
     // GET: Buscar por número exacto de libros
     @GetMapping("/number-books")
     public ResponseEntity<List<BookCategory>> getByNumberBooks(@RequestParam int numberBooks) {
-        logger.info("Searching categories with number of books: {}", numberBooks);
+        logger.debug("Searching categories with number of books: {}", numberBooks);
         List<BookCategory> categories = service.getBookCategoriesByNumberBooks(numberBooks);
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
@@ -86,7 +113,7 @@ public class BookCategoryController {
     // GET: Buscar por número mínimo de libros
     @GetMapping("/min-books")
     public ResponseEntity<List<BookCategory>> getWithMinBooks(@RequestParam int minBooks) {
-        logger.info("Searching categories with at least {} books", minBooks);
+        logger.debug("Searching categories with at least {} books", minBooks);
         List<BookCategory> categories = service.getBookCategoriesWithMinBooks(minBooks);
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
@@ -94,7 +121,7 @@ public class BookCategoryController {
     // POST: Crear nueva categoría
     @PostMapping
     public ResponseEntity<BookCategory> addCategory(@Valid @RequestBody BookCategory bookCategory) {
-        logger.info("Adding new category: {}", bookCategory.getName());
+        logger.debug("Adding new category: {}", bookCategory.getName());
         BookCategory newCategory = service.saveBookCategory(bookCategory);
         return new ResponseEntity<>(newCategory, HttpStatus.CREATED);
     }
@@ -103,7 +130,7 @@ public class BookCategoryController {
     @PutMapping("/{id}")
     public ResponseEntity<BookCategory> updateCategory(@PathVariable long id, @Valid @RequestBody BookCategory details)
             throws BookCategoryNotFoundException {
-        logger.info("Updating category ID: {}", id);
+        logger.debug("Updating category ID: {}", id);
         BookCategory updated = service.updateBookCategory(id, details);
         return new ResponseEntity<>(updated, HttpStatus.OK);
     }
@@ -112,7 +139,7 @@ public class BookCategoryController {
     @PatchMapping("/{id}")
     public ResponseEntity<BookCategory> updatePartial(@PathVariable Long id, @RequestBody Map<String, Object> updates)
             throws BookCategoryNotFoundException {
-        logger.info("Partially updating category ID: {}", id);
+        logger.debug("Partially updating category ID: {}", id);
         BookCategory updated = service.updateBookCategoryPartial(id, updates);
         return new ResponseEntity<>(updated, HttpStatus.OK);
     }
@@ -120,7 +147,7 @@ public class BookCategoryController {
     // DELETE: Eliminar por ID
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable long id) throws BookCategoryNotFoundException {
-        logger.info("Deleting category ID: {}", id);
+        logger.debug("Deleting category ID: {}", id);
         service.deleteBookCategory(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
@@ -1,15 +1,22 @@
 package com.svalero.Api_Library.controller;
 
+import com.svalero.Api_Library.DTO.LoanDTO;
 import com.svalero.Api_Library.domain.Book;
 import com.svalero.Api_Library.exception.BookNotFoundException;
 import com.svalero.Api_Library.service.BookService;
+import com.svalero.Api_Library.service.CatalogueVersionService;
+import com.svalero.Api_Library.service.DeleteJob;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
@@ -19,45 +26,67 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/books")
+@Validated
 public class BookController {
 
     private final Logger logger = LoggerFactory.getLogger(BookController.class);
     private final BookService service;
+    private final CatalogueVersionService catalogueVersionService;
 
     @Autowired
-    public BookController(BookService service) {
+    public BookController(BookService service, CatalogueVersionService catalogueVersionService) {
         this.service = service;
+        this.catalogueVersionService = catalogueVersionService;
     }
 
     // ========== GET: Consultas básicas ==========
 
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        logger.info("Fetching all books");
+    public ResponseEntity<List<Book>> getAllBooks(WebRequest request) {
+        logger.debug("Fetching all books");
+        if (catalogueVersionService.checkNotModified(request)) {
+            return null;
+        }
         return new ResponseEntity<>(service.getAllBooks(), HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable long id) throws BookNotFoundException {
-        logger.info("Fetching book by ID: {}", id);
-        return new ResponseEntity<>(service.getBookById(id), HttpStatus.OK);
+    public ResponseEntity<Book> getBookById(@PathVariable long id, WebRequest request) throws BookNotFoundException {
+        logger.debug("Fetching book by ID: {}", id);
+        // Primero el libro (cacheado): un id que no existe es 404 aunque el ETag del catálogo coincida
+        Book book = service.getBookById(id);
+        if (catalogueVersionService.checkNotModified(request)) {
+            return null;
+        }
+        return new ResponseEntity<>(book, HttpStatus.OK);
+    }
+
+    // Préstamos del libro, por páginas desde el último id visto (after); la siguiente en la cabecera Link
+    @GetMapping("/{id}/loans")
+    public ResponseEntity<List<LoanDTO>> getBookLoans(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "0") @Min(0) long after,
+            @RequestParam(defaultValue = KeysetPages.DEFAULT_SIZE) @Min(1) @Max(KeysetPages.MAX_SIZE) int size)
+            throws BookNotFoundException {
+        logger.debug("Fetching loans of book {} after {}", id, after);
+        return KeysetPages.of(service.getLoans(id, after, size), size, LoanDTO::getId);
     }
 
     @GetMapping("/title")
     public ResponseEntity<List<Book>> getBooksByTitle(@RequestParam String title) {
-        logger.info("Fetching books by title: {}", title);
+        logger.debug("Fetching books by title: {}", title);
         return new ResponseEntity<>(service.getBookByTitle(title), HttpStatus.OK);
     }
 
     @GetMapping("/genre")
     public ResponseEntity<List<Book>> getBooksByGenre(@RequestParam String genre) {
-        logger.info("Fetching books by genre: {}", genre);
+        logger.debug("Fetching books by genre: {}", genre);
         return new ResponseEntity<>(service.getBookByGenre(genre), HttpStatus.OK);
     }
 
     @GetMapping("/available")
     public ResponseEntity<List<Book>> getBooksByAvailable(@RequestParam boolean available) {
-        logger.info("Fetching books by availability: {}", available);
+        logger.debug("Fetching books by availability: {}", available);
         return new ResponseEntity<>(service.getBookByAvailability(available), HttpStatus.OK);
     }
 
@@ -68,7 +97,7 @@ public class BookController {
             @RequestParam String title,
             @RequestParam boolean available,
             @RequestParam String genre) {
-        logger.info("Fetching books by title={}, available={}, genre={}", title, available, genre);
+        logger.debug("Fetching books by title={}, available={}, genre={}", title, available, genre);
         return new ResponseEntity<>(
                 service.findBooksByTitleAndAvailableAndGenre(title, available, genre),
                 HttpStatus.OK
@@ -79,19 +108,19 @@ public class BookController {
 
     @GetMapping("/pages-greater-than")
     public ResponseEntity<List<Book>> getBooksWithPagesGreaterThan(@RequestParam int pages) {
-        logger.info("Fetching books with more than {} pages", pages);
+        logger.debug("Fetching books with more than {} pages", pages);
         return new ResponseEntity<>(service.findBooksWithPagesGreaterThan(pages), HttpStatus.OK);
     }
 
     @GetMapping("/price-less-than")
     public ResponseEntity<List<Book>> getBooksWithPriceLessThan(@RequestParam float price) {
-        logger.info("Fetching books with price less than {}", price);
+        logger.debug("Fetching books with price less than {}", price);
         return new ResponseEntity<>(service.findBooksWithPriceLessThan(price), HttpStatus.OK);
     }
 
     @GetMapping("/genre-contains")
     public ResponseEntity<List<Book>> getBooksWithGenreLike(@RequestParam String keyword) {
-        logger.info("Fetching books where genre contains '{}'", keyword);
+        logger.debug("Fetching books where genre contains '{}'", keyword);
         return new ResponseEntity<>(service.findBooksWithGenreLike(keyword), HttpStatus.OK);
     }
 
@@ -99,7 +128,7 @@ public class BookController {
 
     @PostMapping
     public ResponseEntity<Book> addBook(@Valid @RequestBody Book book) {
-        logger.info("Adding new book: {}", book.getTitle());
+        logger.debug("Adding new book: {}", book.getTitle());
         return new ResponseEntity<>(service.saveBook(book), HttpStatus.CREATED);
     }
 
@@ -108,7 +137,7 @@ public class BookController {
     @PutMapping("/{id}")
     public ResponseEntity<Book> updateBook(@PathVariable long id, @Valid @RequestBody Book book)
             throws BookNotFoundException {
-        logger.info("Updating book with ID: {}", id);
+        logger.debug("Updating book with ID: {}", id);
         return new ResponseEntity<>(service.updateBook(id, book), HttpStatus.OK);
     }
 
@@ -117,22 +146,24 @@ public class BookController {
     @PatchMapping("/{id}")
     public ResponseEntity<Book> updateBookPartial(@PathVariable long id, @RequestBody Map<String, Object> updates)
             throws BookNotFoundException {
-        logger.info("Partially updating book with ID: {}", id);
+        logger.debug("Partially updating book with ID: {}", id);
         return new ResponseEntity<>(service.updateBookPartial(id, updates), HttpStatus.OK);
     }
 
     // ========== DELETE: Eliminar libro ==========
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteBook(@PathVariable long id) throws BookNotFoundException {
-        logger.info("Deleting book with ID: {}", id);
-        service.deleteBook(id);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<DeleteJob> deleteBook(@PathVariable long id) throws BookNotFoundException {
+        logger.debug("Deleting book with ID: {}", id);
+        // 202 con el trabajo si se borra en segundo plano; su progreso en GET /delete-jobs/{id}
+        return service.deleteBook(id)
+                .map(job -> ResponseEntity.accepted().location(DeleteJobController.location(job)).body(job))
+                .orElseGet(() -> ResponseEntity.noContent().build());
     }
     // ========== CONSULTA SQL native ==========
     @GetMapping("/price-greater-than-native")
     public ResponseEntity<List<Book>> getBooksWithPriceGreaterThanNative(@RequestParam float price) {
-        logger.info("Fetching books with native SQL price > {}", price);
+        logger.debug("Fetching books with native SQL price > {}", price);
         return new ResponseEntity<>(service.findBooksWithPriceGreaterThanNative(price), HttpStatus.OK);
     }
 
@@ -140,7 +171,7 @@ public class BookController {
 
     @PostMapping("/upload")
     public ResponseEntity<String> uploadBooksFile(@RequestParam("file") MultipartFile file) {
-        logger.info("Uploading file: {}", file.getOriginalFilename());
+        logger.debug("Uploading file: {}", file.getOriginalFilename());
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
             String line;
@@ -0,0 +1,38 @@
+package com.svalero.Api_Library.controller;
+
+import com.svalero.Api_Library.exception.DeleteJobNotFoundException;
+import com.svalero.Api_Library.service.DeleteJob;
+import com.svalero.Api_Library.service.DeleteJobs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/delete-jobs")
+public class DeleteJobController {
+
+    private final Logger logger = LoggerFactory.getLogger(DeleteJobController.class);
+    private final DeleteJobs deleteJobs;
+
+    @Autowired
+    public DeleteJobController(DeleteJobs deleteJobs) {
+        this.deleteJobs = deleteJobs;
+    }
+
+    // GET: Estado y progreso de un borrado en segundo plano (DELETE /authors/{id} o /books/{id} con 202)
+    @GetMapping("/{id}")
+    public ResponseEntity<DeleteJob> getDeleteJob(@PathVariable String id) throws DeleteJobNotFoundException {
+        logger.debug("Fetching delete job: {}", id);
+        return deleteJobs.find(id)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new DeleteJobNotFoundException("Delete job not found with id: " + id));
+    }
+
+    static URI location(DeleteJob job) {
+        return URI.create("/delete-jobs/" + job.getId());
+    }
+}
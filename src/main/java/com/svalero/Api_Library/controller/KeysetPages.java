@@ -0,0 +1,40 @@
+package com.svalero.Api_Library.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Respuestas de los subrecursos paginados por keyset (/authors/{id}/books, /book-categories/{id}/books,
+ * /books/{id}/loans): el cuerpo es la página y, si viene llena, la cabecera Link rel="next" lleva a la
+ * siguiente (after = id del último elemento). Sin Link no hay más.
+ */
+final class KeysetPages {
+
+    static final String DEFAULT_SIZE = "50";
+    static final int MAX_SIZE = 500;
+
+    private KeysetPages() {
+    }
+
+    static <T> ResponseEntity<List<T>> of(List<T> page, int size, ToLongFunction<T> id) {
+        return withCursor(page, size, last -> Map.of("after", id.applyAsLong(last)));
+    }
+
+    // Para órdenes de más de una columna: cursor da los parámetros de la siguiente página a partir del último
+    static <T> ResponseEntity<List<T>> withCursor(List<T> page, int size, Function<T, Map<String, Object>> cursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == size) {
+            ServletUriComponentsBuilder next = ServletUriComponentsBuilder.fromCurrentRequest();
+            cursor.apply(page.get(page.size() - 1)).forEach(next::replaceQueryParam);
+            next.replaceQueryParam("size", size);
+            response.header(HttpHeaders.LINK, "<" + next.toUriString() + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+}
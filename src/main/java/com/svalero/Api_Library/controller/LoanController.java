@@ -33,7 +33,7 @@ public class LoanController {
     // GET: Listar todos los préstamos
     @GetMapping
     public List<LoanDTO> getAllLoans() {
-        logger.info("Fetching all loans");
+        logger.debug("Fetching all loans");
         return service.getAllLoans()
                 .stream().map(service::convertToDTO)
                 .collect(Collectors.toList());
@@ -42,7 +42,7 @@ public class LoanController {
     // GET: Buscar préstamo por ID
     @GetMapping("/{id}")
     public ResponseEntity<LoanDTO> getLoanById(@PathVariable long id) throws LoanNotFoundException {
-        logger.info("Fetching loan by ID: {}", id);
+        logger.debug("Fetching loan by ID: {}", id);
         Loan loan = service.getLoanById(id);
         return ResponseEntity.ok(service.convertToDTO(loan));
     }
@@ -50,7 +50,7 @@ public class LoanController {
     // GET: Buscar préstamos por nombre de cliente
     @GetMapping("/customer-name")
     public ResponseEntity<List<LoanDTO>> getByCustomerName(@RequestParam String customerName) {
-        logger.info("Fetching loans for customer: {}", customerName);
+        logger.debug("Fetching loans for customer: {}", customerName);
         List<LoanDTO> loanDTOs = service.getLoanByCustomerName(customerName)
                 .stream().map(service::convertToDTO)
                 .collect(Collectors.toList());
@@ -61,7 +61,7 @@ public class LoanController {
     @GetMapping("/loan-date")
     public ResponseEntity<List<LoanDTO>> getByLoanDate(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate loanDate) {
-        logger.info("Fetching loans for loan date: {}", loanDate);
+        logger.debug("Fetching loans for loan date: {}", loanDate);
         List<LoanDTO> loanDTOs = service.getLoanByLoanDate(loanDate)
                 .stream().map(service::convertToDTO)
                 .collect(Collectors.toList());
@@ -73,7 +73,7 @@ public class LoanController {
     public ResponseEntity<List<LoanDTO>> getLoansBetweenDates(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam("endDate")   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        logger.info("Fetching loans from {} to {}", startDate, endDate);
+        logger.debug("Fetching loans from {} to {}", startDate, endDate);
         List<LoanDTO> loanDTOs = service.getLoansBetweenDates(startDate, endDate)
                 .stream().map(service::convertToDTO)
                 .collect(Collectors.toList());
@@ -83,7 +83,7 @@ public class LoanController {
     // === CANTIDAD EXACTA (NO NATIVA) -> /loans/quantity/eq/{quantity}
     @GetMapping("/quantity/eq/{quantity}")
     public ResponseEntity<List<LoanDTO>> getByQuantity(@PathVariable int quantity) {
-        logger.info("Fetching loans by exact quantity: {}", quantity);
+        logger.debug("Fetching loans by exact quantity: {}", quantity);
         List<LoanDTO> loanDTOs = service.getLoanByQuantity(quantity)
                 .stream().map(service::convertToDTO)
                 .collect(Collectors.toList());
@@ -93,7 +93,7 @@ public class LoanController {
     // === CANTIDAD MAYOR QUE (SQL NATIVA) -> /loans/quantity/native/gt/{min}
     @GetMapping("/quantity/native/gt/{min}")
     public ResponseEntity<List<LoanDTO>> getLoansWithQuantityGreaterThanNative(@PathVariable int min) {
-        logger.info("Fetching loans with quantity > {} (native)", min);
+        logger.debug("Fetching loans with quantity > {} (native)", min);
         List<LoanDTO> loanDTOs = service.findLoansWithQuantityGreaterThanNative(min)
                 .stream().map(service::convertToDTO)
                 .collect(Collectors.toList());
@@ -103,7 +103,7 @@ public class LoanController {
     // POST: Crear nuevo préstamo
     @PostMapping
     public ResponseEntity<LoanDTO> addLoan(@Valid @RequestBody Loan loan) {
-        logger.info("Adding loan for customer: {}", loan.getCustomerName());
+        logger.debug("Adding loan for customer: {}", loan.getCustomerName());
         Loan newLoan = service.saveLoan(loan);
         return new ResponseEntity<>(service.convertToDTO(newLoan), HttpStatus.CREATED);
     }
@@ -113,7 +113,7 @@ public class LoanController {
     public ResponseEntity<LoanDTO> updateLoan(
             @PathVariable long id,
             @Valid @RequestBody Loan loanDetails) throws LoanNotFoundException {
-        logger.info("Updating loan ID: {}", id);
+        logger.debug("Updating loan ID: {}", id);
         Loan updatedLoan = service.updateLoan(id, loanDetails);
         return ResponseEntity.ok(service.convertToDTO(updatedLoan));
     }
@@ -123,7 +123,7 @@ public class LoanController {
     public ResponseEntity<LoanDTO> updateLoanPartial(
             @PathVariable long id,
             @RequestBody Map<String, Object> updates) {
-        logger.info("Partially updating loan ID: {}", id);
+        logger.debug("Partially updating loan ID: {}", id);
         Loan updatedLoan = service.updateLoanPartial(id, updates);
         return ResponseEntity.ok(service.convertToDTO(updatedLoan));
     }
@@ -131,7 +131,7 @@ public class LoanController {
     // DELETE: Eliminar préstamo
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteLoan(@PathVariable long id) throws LoanNotFoundException {
-        logger.info("Deleting loan ID: {}", id);
+        logger.debug("Deleting loan ID: {}", id);
         service.deleteLoan(id);
         return ResponseEntity.noContent().build();
     }
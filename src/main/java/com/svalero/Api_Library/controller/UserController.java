@@ -1,23 +1,30 @@
 package com.svalero.Api_Library.controller;
 
 
+import com.svalero.Api_Library.DTO.LoanDTO;
 import com.svalero.Api_Library.DTO.UserInDto;
 import com.svalero.Api_Library.domain.User;
 import com.svalero.Api_Library.exception.UserNotFoundException;
 import com.svalero.Api_Library.service.UserService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/users")
+@Validated
 public class UserController {
 
     private final Logger logger = LoggerFactory.getLogger(UserController.class);
@@ -32,15 +39,29 @@ public class UserController {
     // ========== GET: Listar todos los usuarios ==========
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers() {
-        logger.info("Fetching all users");
+        logger.debug("Fetching all users");
         List<User> users = service.getAllUsers();
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
+    // ========== GET: Historial de préstamos del usuario ==========
+    // Del más reciente al más antiguo, por páginas; la siguiente (beforeDate y before del último) en la cabecera Link
+    @GetMapping("/{id}/loans")
+    public ResponseEntity<List<LoanDTO>> getUserLoans(
+            @PathVariable long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeDate,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long before,
+            @RequestParam(defaultValue = KeysetPages.DEFAULT_SIZE) @Min(1) @Max(KeysetPages.MAX_SIZE) int size)
+            throws UserNotFoundException {
+        logger.debug("Fetching loans of user {} before {} / {}", id, beforeDate, before);
+        return KeysetPages.withCursor(service.getLoans(id, beforeDate, before, size), size,
+                last -> Map.of("beforeDate", last.getLoanDate(), "before", last.getId()));
+    }
+
     // ========== GET: Obtener usuario por email ==========
     @GetMapping("/email")
     public ResponseEntity<User> getByEmail(@RequestParam String email) {
-        logger.info("Searching user by email: {}", email);
+        logger.debug("Searching user by email: {}", email);
         User user = service.getUserByEmail(email);
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
@@ -48,7 +69,7 @@ public class UserController {
     // ========== GET: Obtener usuario por username ==========
     @GetMapping("/username")
     public ResponseEntity<User> getByUsername(@RequestParam String username) {
-        logger.info("Searching user by username: {}", username);
+        logger.debug("Searching user by username: {}", username);
         User user = service.getUserByUsername(username);
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
@@ -56,7 +77,7 @@ public class UserController {
     // ========== GET: Usuarios activos ==========
     @GetMapping("/active")
     public ResponseEntity<List<User>> getActiveUsers() {
-        logger.info("Fetching active users");
+        logger.debug("Fetching active users");
         List<User> users = service.getActiveUsers();
         return users.isEmpty()
                 ? new ResponseEntity<>(HttpStatus.NO_CONTENT)
@@ -66,7 +87,7 @@ public class UserController {
     // ========== POST: Crear nuevo usuario ==========
     @PostMapping
     public ResponseEntity<User> addUser(@Valid @RequestBody UserInDto dto) {
-        logger.info("Adding new user: {}", dto.getEmail());
+        logger.debug("Adding new user: {}", dto.getEmail());
         User newUser = service.saveUser(dto); // ← ahora le pasamos el DTO correcto
         return new ResponseEntity<>(newUser, HttpStatus.CREATED);
     }
@@ -76,7 +97,7 @@ public class UserController {
     public ResponseEntity<User> updateUser(@PathVariable Long id,
                                            @Valid @RequestBody User dto)
             throws UserNotFoundException {
-        logger.info("Updating user with ID: {}", id);
+        logger.debug("Updating user with ID: {}", id);
         User updatedUser = service.updateUser(id, dto);
         return new ResponseEntity<>(updatedUser, HttpStatus.OK);
     }
@@ -85,7 +106,7 @@ public class UserController {
     @PatchMapping("/{id}")
     public ResponseEntity<User> updateUserPartial(@PathVariable Long id,
                                                   @RequestBody Map<String, Object> updates) {
-        logger.info("Partially updating user with ID: {}", id);
+        logger.debug("Partially updating user with ID: {}", id);
         User updatedUser = service.updateUserPartial(id, updates);
         return new ResponseEntity<>(updatedUser, HttpStatus.OK);
     }
@@ -93,7 +114,7 @@ public class UserController {
     // ========== DELETE: Eliminar usuario ==========
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) throws UserNotFoundException {
-        logger.info("Deleting user with ID: {}", id);
+        logger.debug("Deleting user with ID: {}", id);
         service.deleteUser(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
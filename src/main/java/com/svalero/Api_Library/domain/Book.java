@@ -1,7 +1,8 @@
 package com.svalero.Api_Library.domain;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
@@ -9,20 +10,38 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name ="Book")
-@Table(name = "books")
+// Los libros de un autor o una categoría se paginan por id (keyset) con solo las columnas de BookDTO:
+// los índices llevan todas, así la consulta se resuelve sin tocar la tabla
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_books_author_keyset", columnList = "author_id, id, title, genre, available"),
+        @Index(name = "idx_books_category_keyset", columnList = "category_id, id, title, genre, available")
+})
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Book {
+    // Ids por secuencia reservados de 50 en 50 (ver IdSequences): con IDENTITY Hibernate necesita el id de
+    // cada fila al insertarla y no puede agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private long id;
     @NotBlank
     @NotNull(message = "Book name is required")
@@ -40,16 +59,56 @@ public class Book {
     @Column
     private boolean available;
 
-    @ManyToOne
+    // LAZY: con la mejora de bytecode (perfil enhance del pom) no hay proxy ni JOIN en cada carga de libro;
+    // los servicios inicializan lo que se va a serializar (EntityGraphs)
+    // Desde un libro, su categoría y su autor salen sin sus libros: si no, cada respuesta (y cada entrada
+    // de la caché) arrastraría por ellos todo el catálogo conectado
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
+    @JsonIgnoreProperties("books")
+    @ToString.Exclude
     private BookCategory category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
+    @JsonIgnoreProperties("books")
+    @ToString.Exclude
     private Author author;
 
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonManagedReference
+    @ToString.Exclude
+    @BatchSize(size = 32)
     private List<Loan> loans;
 
+    // Versión para bloqueo optimista y fecha de última modificación: base de los ETag/Last-Modified
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    // Identidad por id: equals/hashCode no recorren relaciones (no disparan cargas lazy ni recursión
+    // Book <-> Author) y sirven con proxies de Hibernate, cuya clase real se mira sin inicializarlos.
+    // Una entidad sin guardar solo es igual a sí misma. hashCode es fijo por clase para no cambiar
+    // cuando la BD asigna el id al guardar, con la entidad ya metida en un Set.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != 0 && id == ((Book) o).getId();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
@@ -1,29 +1,41 @@
 package com.svalero.Api_Library.domain;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
-import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "BookCategory")
-@Table(name = "book_categories")
+@Table(name = "book_categories", indexes = @Index(name = "idx_book_categories_updated_at", columnList = "updated_at"))
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class BookCategory {
 
+    // Ids por secuencia, como en Book
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_categories_seq")
+    @SequenceGenerator(name = "book_categories_seq", sequenceName = "book_categories_seq", allocationSize = 50)
     private long id;
 
     @NotBlank(message = "Name is required")
@@ -49,5 +61,36 @@ public class BookCategory {
     private int numberBooks;
 
     @OneToMany(mappedBy = "category")
+    @ToString.Exclude
+    @BatchSize(size = 32)
     private List<Book> books;
-}
\ No newline at end of file
+
+    // Versión para bloqueo optimista y fecha de última modificación: base de los ETag/Last-Modified
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    // Identidad por id, como en Book
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != 0 && id == ((BookCategory) o).getId();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,49 @@
+package com.svalero.Api_Library.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Respuesta guardada de un POST con cabecera Idempotency-Key (ver IdempotencyStore). Solo define la
+ * tabla: IdempotencyStore la lee y escribe con JdbcTemplate, porque reservar la clave tiene que ser
+ * un INSERT que falle si otra petición se ha adelantado.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Entity(name = "IdempotencyKey")
+// Por fecha se purgan las claves caducadas (periódicamente, por lotes)
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+public class IdempotencyKey {
+
+    // SHA-256 (hex) de usuario, método, ruta y clave del cliente
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String key;
+
+    // SHA-256 (hex) del cuerpo de la petición: la misma clave con otro cuerpo es un error del cliente
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // null mientras la petición original se está atendiendo
+    private Integer status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(length = 2048)
+    private String location;
+
+    @Lob
+    @ToString.Exclude
+    private byte[] body;
+}
@@ -1,26 +1,46 @@
 package com.svalero.Api_Library.domain;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "Loan")
-@Table(name = "loans")
+// Los préstamos de un libro se paginan por id (keyset): el índice lleva a la primera fila de la página y
+// las demás van seguidas. No incluye el resto de columnas: sería otra copia de la tabla más grande.
+// El historial de un usuario, del más reciente al más antiguo, igual por (user_id, loan_date, id)
+@Table(name = "loans", indexes = {
+        @Index(name = "idx_loans_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_loans_book_keyset", columnList = "book_id, id"),
+        @Index(name = "idx_loans_user_history", columnList = "user_id, loan_date DESC, id DESC")
+})
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Loan {
+    // Ids por secuencia, como en Book
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loans_seq")
+    @SequenceGenerator(name = "loans_seq", sequenceName = "loans_seq", allocationSize = 50)
     private long id;
     @Column(nullable = false)
     private String name;
@@ -37,9 +57,51 @@ public class Loan {
     private int quantity ;
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
-    @JsonBackReference
+    // Al borrar un libro la BD borra sus préstamos (ver CascadeForeignKeys para las BD ya creadas)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    // Solo de entrada: el alta llega como {"book": {"id": 4}} y al serializar el libro ya es el padre
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @ToString.Exclude
     private Book book;
 
-}
\ No newline at end of file
+    // Usuario del préstamo: LoanService lo busca por el email (o por el nombre si no hay dos usuarios
+    // con el mismo) y LoanUserMigration lo rellena en los préstamos antiguos. Puede faltar: clientes que
+    // no son usuarios. Al borrar el usuario el préstamo se queda, sin él
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    @JsonIgnore
+    @ToString.Exclude
+    private User user;
+
+    // Versión para bloqueo optimista y fecha de última modificación: base de los ETag/Last-Modified
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    // Identidad por id, como en Book
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != 0 && id == ((Loan) o).getId();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,33 @@
+package com.svalero.Api_Library.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Hasta dónde ha llegado una migración de datos en segundo plano (ver LoanUserMigration), para no volver
+ * a recorrer en cada arranque lo que ya terminó. Solo define la tabla: se lee y escribe con JdbcTemplate.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Entity(name = "MigrationMark")
+@Table(name = "migration_marks")
+public class MigrationMark {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Último id ya procesado: la siguiente pasada empieza después
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
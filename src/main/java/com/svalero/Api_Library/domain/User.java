@@ -4,20 +4,28 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 
 import java.time.LocalDate;
 
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "User")
-@Table(name = "users")
+// Por nombre se buscan los usuarios de los préstamos que no traen email (LoanService, LoanUserMigration)
+@Table(name = "users", indexes = @Index(name = "idx_users_name", columnList = "name"))
 public class User {
 
+    // Ids por secuencia, como en Book
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -35,6 +43,7 @@ public class User {
 
     @NotBlank(message = "Password is required")
     @Column(nullable = false)
+    @ToString.Exclude
     private String password;
 
     @NotNull(message = "Creation date is required")
@@ -45,4 +54,21 @@ public class User {
     @NotNull(message = "Active status is required")
     @Column(nullable = false)
     private Boolean active;
+
+    // Identidad por id, como en Book (toString tampoco saca la contraseña)
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((User) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
@@ -0,0 +1,12 @@
+package com.svalero.Api_Library.event;
+
+/**
+ * Evento que publica AuthorService cuando un autor se crea, cambia o se borra. Lo escucha AuthorGeoIndex
+ * tras el commit para que el índice no recoja cambios que luego se deshacen.
+ *
+ * @param id        id del autor
+ * @param latitude  nueva latitud, o null si el autor ya no tiene coordenadas (o se ha borrado)
+ * @param longitude nueva longitud, o null igual que latitude
+ */
+public record AuthorLocationChangedEvent(long id, Double latitude, Double longitude) {
+}
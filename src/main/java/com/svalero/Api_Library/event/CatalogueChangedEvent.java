@@ -0,0 +1,19 @@
+package com.svalero.Api_Library.event;
+
+import java.util.Set;
+
+/**
+ * Evento que publican los servicios cada vez que crean, modifican o borran un libro,
+ * autor, categoría o préstamo. Lo escuchan las cachés para invalidar lo que haya cambiado.
+ *
+ * @param type    clase de la entidad modificada (Book, Author, BookCategory o Loan)
+ * @param id      id de la entidad modificada
+ * @param bookIds en un préstamo, los libros afectados (el de antes y el de después si cambia);
+ *                null si no se conocen, y entonces se invalida todo el catálogo
+ */
+public record CatalogueChangedEvent(Class<?> type, long id, Set<Long> bookIds) {
+
+    public CatalogueChangedEvent(Class<?> type, long id) {
+        this(type, id, null);
+    }
+}
@@ -0,0 +1,5 @@
+package com.svalero.Api_Library.exception;
+
+public class DeleteJobNotFoundException extends ResourceNotFoundException {
+    public DeleteJobNotFoundException(String message) { super(message); }
+}
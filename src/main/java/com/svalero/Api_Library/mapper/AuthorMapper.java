@@ -0,0 +1,23 @@
+package com.svalero.Api_Library.mapper;
+
+import com.svalero.Api_Library.DTO.AuthorDTO;
+import com.svalero.Api_Library.domain.Author;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MappingConfig.class)
+public interface AuthorMapper {
+
+    AuthorDTO toDto(Author author);
+
+    // El DTO es un resumen: fecha de nacimiento, nacionalidad, coordenadas y libros quedan sin rellenar
+    @Mapping(target = "birthdate", ignore = true)
+    @Mapping(target = "active", ignore = true)
+    @Mapping(target = "nationality", ignore = true)
+    @Mapping(target = "latitude", ignore = true)
+    @Mapping(target = "longitude", ignore = true)
+    @Mapping(target = "books", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Author toEntity(AuthorDTO dto);
+}
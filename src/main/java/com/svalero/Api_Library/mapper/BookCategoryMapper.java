@@ -0,0 +1,22 @@
+package com.svalero.Api_Library.mapper;
+
+import com.svalero.Api_Library.DTO.BookCategoryDTO;
+import com.svalero.Api_Library.domain.BookCategory;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MappingConfig.class)
+public interface BookCategoryMapper {
+
+    BookCategoryDTO toDto(BookCategory category);
+
+    // El DTO es un resumen: solo id y nombre
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "active", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "numberBooks", ignore = true)
+    @Mapping(target = "books", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    BookCategory toEntity(BookCategoryDTO dto);
+}
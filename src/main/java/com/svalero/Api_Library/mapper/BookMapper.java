@@ -0,0 +1,22 @@
+package com.svalero.Api_Library.mapper;
+
+import com.svalero.Api_Library.DTO.BookDTO;
+import com.svalero.Api_Library.domain.Book;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MappingConfig.class)
+public interface BookMapper {
+
+    BookDTO toDto(Book book);
+
+    // El DTO es un resumen: relaciones, precio, páginas y control de versión quedan sin rellenar
+    @Mapping(target = "pages", ignore = true)
+    @Mapping(target = "price", ignore = true)
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "author", ignore = true)
+    @Mapping(target = "loans", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Book toEntity(BookDTO dto);
+}
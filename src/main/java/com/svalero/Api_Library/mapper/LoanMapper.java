@@ -0,0 +1,23 @@
+package com.svalero.Api_Library.mapper;
+
+import com.svalero.Api_Library.DTO.LoanDTO;
+import com.svalero.Api_Library.domain.Loan;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+// El libro del préstamo se mapea con BookMapper (null si el préstamo no tiene libro)
+@Mapper(config = MappingConfig.class, uses = BookMapper.class)
+public interface LoanMapper {
+
+    LoanDTO toDto(Loan loan);
+
+    // Préstamos de un libro (/books/{id}/loans): el libro es el mismo para todos y se pone aparte
+    @Mapping(target = "book", ignore = true)
+    LoanDTO toDtoWithoutBook(Loan loan);
+
+    // El usuario no va en el DTO: lo resuelve LoanService al guardar
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Loan toEntity(LoanDTO dto);
+}
@@ -0,0 +1,18 @@
+package com.svalero.Api_Library.mapper;
+
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.MapperConfig;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Configuración común de los mappers de MapStruct. El código de cada mapeo (getters y setters, sin
+ * reflexión) se genera al compilar en target/generated-sources/annotations como un bean de Spring.
+ * Un campo del destino sin origen ni ignore explícito es un error de compilación: si se añade un campo
+ * a una entidad o a un DTO, el mapper obliga a decidir qué hacer con él.
+ */
+@MapperConfig(componentModel = MappingConstants.ComponentModel.SPRING,
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface MappingConfig {
+}
@@ -0,0 +1,18 @@
+package com.svalero.Api_Library.mapper;
+
+import com.svalero.Api_Library.DTO.UserInDto;
+import com.svalero.Api_Library.domain.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MappingConfig.class)
+public interface UserMapper {
+
+    // Alta: el id lo pone la BD
+    @Mapping(target = "id", ignore = true)
+    User toEntity(UserInDto dto);
+
+    // La contraseña (cifrada) nunca vuelve al DTO
+    @Mapping(target = "password", ignore = true)
+    UserInDto toDto(User user);
+}
@@ -0,0 +1,11 @@
+package com.svalero.Api_Library.repository;
+
+/**
+ * Proyección ligera con solo lo que necesita el índice geográfico de autores
+ * (evito cargar la entidad completa y sus libros al arrancar).
+ */
+public interface AuthorLocation {
+    Long getId();
+    Double getLatitude();
+    Double getLongitude();
+}
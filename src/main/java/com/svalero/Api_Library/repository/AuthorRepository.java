@@ -1,7 +1,10 @@
 package com.svalero.Api_Library.repository;
 
 import com.svalero.Api_Library.domain.Author;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -18,4 +21,25 @@ public interface AuthorRepository extends CrudRepository<Author, Long> {
     List<Author> findByNationality(String nationality);
     List<Author> findByBirthdate(LocalDate birthdate);
 
+    // ================= CONSULTAS PERSONALIZADAS (JPQL) ================= //
+
+    // Solo id y coordenadas, para construir el índice geográfico
+    @Query("SELECT a.id AS id, a.latitude AS latitude, a.longitude AS longitude FROM Author a " +
+            "WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL")
+    List<AuthorLocation> findAllLocations();
+
+    // ================= BORRADO ================= //
+
+    // Los libros del autor (y con ellos sus préstamos, ON DELETE CASCADE) y después el autor
+    @Modifying
+    @Query("DELETE FROM Book b WHERE b.author.id = :id")
+    int removeBooksOf(@Param("id") long id);
+
+    @Modifying
+    @Query("DELETE FROM Author a WHERE a.id = :id")
+    int removeById(@Param("id") long id);
+
+    // Resumen de la tabla para los ETag/Last-Modified del catálogo (CatalogueVersionService)
+    @Query("SELECT new com.svalero.Api_Library.repository.TableVersion(COUNT(a), MAX(a.updatedAt)) FROM Author a")
+    TableVersion findTableVersion();
 }
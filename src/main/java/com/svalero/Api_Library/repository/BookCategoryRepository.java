@@ -1,7 +1,10 @@
 package com.svalero.Api_Library.repository;
 
 import com.svalero.Api_Library.domain.BookCategory;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -18,4 +21,14 @@ public interface BookCategoryRepository extends CrudRepository<BookCategory, Lon
     List<BookCategory> findByCreatedDate(LocalDate createdDate);
     List<BookCategory> findByNumberBooks(int numberBooks);
     List<BookCategory> findByNumberBooksGreaterThan(int numberBooks);
+
+    // ================= BORRADO ================= //
+
+    @Modifying
+    @Query("DELETE FROM BookCategory c WHERE c.id = :id")
+    int removeById(@Param("id") long id);
+
+    // Resumen de la tabla para los ETag/Last-Modified del catálogo (CatalogueVersionService)
+    @Query("SELECT new com.svalero.Api_Library.repository.TableVersion(COUNT(c), MAX(c.updatedAt)) FROM BookCategory c")
+    TableVersion findTableVersion();
 }
@@ -1,12 +1,17 @@
 package com.svalero.Api_Library.repository;
 
+import com.svalero.Api_Library.DTO.BookDTO;
 import com.svalero.Api_Library.domain.Book;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookRepository extends CrudRepository<Book, Long> {
@@ -14,6 +19,12 @@ public interface BookRepository extends CrudRepository<Book, Long> {
     // ================= BÚSQUEDAS BÁSICAS ================= //
 
     List<Book> findAll();
+
+    // El detalle de un libro se serializa con su autor y su categoría: se traen en la misma consulta
+    @Override
+    @EntityGraph(attributePaths = {"author", "category"})
+    Optional<Book> findById(Long id);
+
     List<Book> findByTitle(String title);
     List<Book> findByGenre(String genre);
     List<Book> findByPages(int page);
@@ -38,10 +49,38 @@ public interface BookRepository extends CrudRepository<Book, Long> {
             @Param("genre") String genre
     );
 
+    // ================= SUBRECURSOS (KEYSET) ================= //
+    // Páginas de libros ordenadas por id desde el último id visto (after): se busca en el índice en vez de
+    // saltar OFFSET filas, así que cualquier página cuesta lo mismo. Solo las columnas de BookDTO, que
+    // cubren idx_books_author_keyset / idx_books_category_keyset. El ORDER BY empieza por el padre (fijo)
+    // para coincidir con el índice: así H2 lee la página ya ordenada en vez de ordenar todos los hijos
+
+    @Query("SELECT new com.svalero.Api_Library.DTO.BookDTO(b.id, b.title, b.genre, b.available) FROM Book b "
+            + "WHERE b.author.id = :authorId AND b.id > :after ORDER BY b.author.id, b.id")
+    List<BookDTO> findPageByAuthor(@Param("authorId") long authorId, @Param("after") long after, Limit limit);
+
+    @Query("SELECT new com.svalero.Api_Library.DTO.BookDTO(b.id, b.title, b.genre, b.available) FROM Book b "
+            + "WHERE b.category.id = :categoryId AND b.id > :after ORDER BY b.category.id, b.id")
+    List<BookDTO> findPageByCategory(@Param("categoryId") long categoryId, @Param("after") long after, Limit limit);
+
+    @Query("SELECT new com.svalero.Api_Library.DTO.BookDTO(b.id, b.title, b.genre, b.available) FROM Book b "
+            + "WHERE b.id = :id")
+    Optional<BookDTO> findSummaryById(@Param("id") long id);
+
     // ================= CONSULTAS SQL NATIVAS ================= //
 
     @Query(value = "SELECT * FROM Book WHERE price > :price", nativeQuery = true)
     List<Book> findBooksWithPriceGreaterThanNative(@Param("price") float price);
 
+    // ================= BORRADO ================= //
+
+    // Una sola sentencia, sin cargar el libro ni sus préstamos (los borra la BD: ON DELETE CASCADE).
+    // Devuelve las filas borradas: 0 si no existía
+    @Modifying
+    @Query("DELETE FROM Book b WHERE b.id = :id")
+    int removeById(@Param("id") long id);
 
+    // Resumen de la tabla para los ETag/Last-Modified del catálogo (CatalogueVersionService)
+    @Query("SELECT new com.svalero.Api_Library.repository.TableVersion(COUNT(b), MAX(b.updatedAt)) FROM Book b")
+    TableVersion findTableVersion();
 }
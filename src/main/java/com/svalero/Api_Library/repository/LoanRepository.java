@@ -1,6 +1,10 @@
 package com.svalero.Api_Library.repository;
 
 import com.svalero.Api_Library.domain.Loan;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -9,20 +13,46 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LoanRepository extends CrudRepository<Loan, Long> {
 
     // ================= BÚSQUEDAS BÁSICAS ================= //
     //Metodos para buscar
+    // El libro es LAZY pero LoanDTO lo lleva: se trae con el préstamo en la misma consulta
+    @EntityGraph(attributePaths = "book")
     List<Loan> findAll();
+    @Override
+    @EntityGraph(attributePaths = "book")
+    Optional<Loan> findById(Long id);
+    @EntityGraph(attributePaths = "book")
     List<Loan> findByCustomerName(String customerName);
+    @EntityGraph(attributePaths = "book")
     List<Loan> findByLoanDate(LocalDate loanDate);
+    @EntityGraph(attributePaths = "book")
     List<Loan> findByQuantity(int quantity);
+    @EntityGraph(attributePaths = "book")
     List<Loan> findByLoanDateBetween(LocalDate startDate, LocalDate endDate);
 
 
 
+    // ================= SUBRECURSOS (KEYSET) ================= //
+    // Página de préstamos de un libro desde el último id visto (idx_loans_book_keyset), sin su libro.
+    // Ordenada también por el libro para leerla del índice ya ordenada, como en BookRepository
+    @Query("SELECT l FROM Loan l WHERE l.book.id = :bookId AND l.id > :after ORDER BY l.book.id, l.id")
+    List<Loan> findPageByBook(@Param("bookId") long bookId, @Param("after") long after, Limit limit);
+
+    // Historial de un usuario, del más reciente al más antiguo, desde el último préstamo visto (fecha e id)
+    // con idx_loans_user_history. loanDate <= :beforeDate repite la condición para que la búsqueda en el
+    // índice empiece en la página y no en el préstamo más reciente, y el ORDER BY lleva user_id (fijo) para
+    // que coincida con el índice y H2 lea la página ya ordenada en vez de ordenar todo el historial
+    @EntityGraph(attributePaths = "book")
+    @Query("SELECT l FROM Loan l WHERE l.user.id = :userId AND l.loanDate <= :beforeDate "
+            + "AND (l.loanDate < :beforeDate OR l.id < :before) ORDER BY l.user.id, l.loanDate DESC, l.id DESC")
+    List<Loan> findHistoryPage(@Param("userId") long userId, @Param("beforeDate") LocalDate beforeDate,
+                               @Param("before") long before, Limit limit);
+
     // ================= CONSULTAS SQL NATIVAS ================= //
     @Query(value = "SELECT * FROM loans WHERE quantity >= :quantity", nativeQuery = true)
     List<Loan> findLoansWithQuantityGreaterThan(@Param("quantity") int quantity);
@@ -30,4 +60,39 @@ public interface LoanRepository extends CrudRepository<Loan, Long> {
     @Query(value = "SELECT * FROM loans l WHERE l.quantity > :min", nativeQuery = true)
     List<Loan> findLoansWithQuantityGreaterThanNative(@Param("min") int min);
 
+    // ================= BORRADO ================= //
+
+    @Modifying
+    @Query("DELETE FROM Loan l WHERE l.id = :id")
+    int removeById(@Param("id") long id);
+
+    // Préstamos de un subárbol, contando como mucho hasta limit: basta para decidir si el borrado va en
+    // segundo plano (DeleteJobs) sin recorrer todos los préstamos de un autor con millones. En SQL porque
+    // HQL solo admite LIMIT detrás de un ORDER BY, y ordenar obligaría a leerlos todos
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM \"loans\" l JOIN \"books\" b ON b.\"id\" = l.\"book_id\" "
+            + "WHERE b.\"author_id\" = :authorId LIMIT :limit) probe", nativeQuery = true)
+    long countByAuthorUpTo(@Param("authorId") long authorId, @Param("limit") long limit);
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM \"loans\" l WHERE l.\"book_id\" = :bookId LIMIT :limit) probe",
+            nativeQuery = true)
+    long countByBookUpTo(@Param("bookId") long bookId, @Param("limit") long limit);
+
+    // El recuento completo lo hace el propio trabajo, ya en segundo plano, para el progreso. Después los
+    // borra por tramos de ids, cada tramo en su transacción
+    @Query("SELECT COUNT(l) FROM Loan l WHERE l.book.author.id = :authorId")
+    long countByAuthor(@Param("authorId") long authorId);
+    @Query("SELECT COUNT(l) FROM Loan l WHERE l.book.id = :bookId")
+    long countByBook(@Param("bookId") long bookId);
+    @Query("SELECT l.id FROM Loan l WHERE l.book.author.id = :authorId")
+    List<Long> findIdsByAuthor(@Param("authorId") long authorId, Pageable pageable);
+    @Query("SELECT l.id FROM Loan l WHERE l.book.id = :bookId")
+    List<Long> findIdsByBook(@Param("bookId") long bookId, Pageable pageable);
+
+    // ids no puede ir vacío (IN () no es SQL válido)
+    @Modifying
+    @Query("DELETE FROM Loan l WHERE l.id IN :ids")
+    int removeAllById(@Param("ids") List<Long> ids);
+
+    // Resumen de la tabla para los ETag/Last-Modified del catálogo (CatalogueVersionService)
+    @Query("SELECT new com.svalero.Api_Library.repository.TableVersion(COUNT(l), MAX(l.updatedAt)) FROM Loan l")
+    TableVersion findTableVersion();
 }
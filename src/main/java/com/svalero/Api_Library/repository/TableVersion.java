@@ -0,0 +1,11 @@
+package com.svalero.Api_Library.repository;
+
+import java.time.Instant;
+
+/**
+ * Resumen barato de una tabla para saber si ha cambiado sin leer sus filas:
+ * las altas y bajas cambian el número de filas y las modificaciones la fecha más reciente
+ * (MAX sobre la columna updated_at indexada).
+ */
+public record TableVersion(long rows, Instant lastModified) {
+}
@@ -1,8 +1,10 @@
 package com.svalero.Api_Library.repository;
 
 import com.svalero.Api_Library.domain.User;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,11 +19,19 @@ public interface UserRepository extends CrudRepository<User, Long> {
     User findByEmail(String email);
     Optional<User> findByUsername(String username);
     List<User> findByActiveTrue();
+    // Usuarios con un nombre, como mucho dos: al usuario de un préstamo solo se llega por nombre si es único
+    List<User> findTop2ByName(String name);
 
     // ================= CONSULTAS SQL NATIVAS ================= //
     @Query(value = "SELECT * FROM users WHERE LOWER(name) LIKE LOWER(CONCAT('%', :keyword, '%'))", nativeQuery = true)
     List<User> findUsersByNameContainingNative(String keyword);
 
+    // ================= BORRADO ================= //
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int removeById(@Param("id") long id);
+
 
 
 
@@ -1,28 +1,69 @@
 package com.svalero.Api_Library.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
 
 @Configuration
 public class SecurityConfig {
 
+    public static final String METRICS_ROLE = "METRICS";
+
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Actuator (todo menos /actuator/health) tiene su propia cadena: HTTP Basic con un usuario aparte, con el rol
+    // METRICS, que es lo que sabe mandar Prometheus (basic_auth en el scrape_config). No pasa por los usuarios de
+    // la BD ni por el JWT: un usuario de la API no puede leer /actuator/metrics ni vaciar las cachés con
+    // DELETE /actuator/caches. Sin app.metrics.password nadie puede usar esos endpoints
+    @Bean
+    @Order(1)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder,
+                                                  @Value("${app.metrics.username:prometheus}") String username,
+                                                  @Value("${app.metrics.password:}") String password) throws Exception {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(password.isBlank()
+                ? new InMemoryUserDetailsManager()
+                : new InMemoryUserDetailsManager(User.withUsername(username)
+                        .password(passwordEncoder.encode(password))
+                        .roles(METRICS_ROLE)
+                        .build()));
+
+        http.securityMatcher(new AndRequestMatcher(new AntPathRequestMatcher("/actuator/**"),
+                        new NegatedRequestMatcher(new AntPathRequestMatcher("/actuator/health/**"))))
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole(METRICS_ROLE))
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authenticationManager(new ProviderManager(provider));
+
+        return http.build();
+    }
+
    @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(new AntPathRequestMatcher("/auth/**")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/h2-console/**")).permitAll()
+                        .requestMatchers(new AntPathRequestMatcher("/actuator/health/**")).permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
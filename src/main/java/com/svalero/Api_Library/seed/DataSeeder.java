@@ -0,0 +1,339 @@
+package com.svalero.Api_Library.seed;
+
+import com.svalero.Api_Library.config.IdSequences;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+/**
+ * Generador de datos sintéticos: categorías, autores, libros, usuarios y préstamos insertados por JDBC
+ * en lotes, sin pasar por la API ni por Hibernate, para tener volúmenes realistas (millones de préstamos)
+ * en las pruebas de rendimiento.
+ *
+ * Los datos no son uniformes: la popularidad de libros, autores y lectores sigue una ley de Zipf
+ * (unos pocos libros acaparan la mayoría de los préstamos) y las fechas de préstamo tienen
+ * estacionalidad (SeasonalDates). Añade filas a las que ya haya: los nombres únicos (título, categoría,
+ * usuario, email) se numeran a partir del id más alto de cada tabla, y los ids también: se insertan
+ * explícitos y luego se adelanta la secuencia de la tabla (IdSequences).
+ *
+ * Las filas se generan por tramos de CHUNK_SIZE, cada uno con su propio generador aleatorio derivado de
+ * la semilla, y los tramos se insertan en paralelo (plan.threads() conexiones a la vez).
+ */
+public class DataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    public static final String[] GENRES = {"Novela", "Ensayo", "Poesía", "Teatro", "Historia", "Ciencia", "Infantil", "Cómic"};
+
+    private static final String[] FIRST_NAMES = {"María", "Carmen", "Ana", "Laura", "Lucía", "Isabel", "Elena", "Paula",
+            "Marta", "Sara", "José", "Antonio", "Manuel", "Francisco", "David", "Juan", "Javier", "Daniel", "Carlos", "Miguel"};
+    private static final String[] SURNAMES = {"García", "Rodríguez", "González", "Fernández", "López", "Martínez",
+            "Sánchez", "Pérez", "Gómez", "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Muñoz", "Álvarez",
+            "Romero", "Alonso", "Navarro"};
+    private static final String[] TITLE_NOUNS = {"La sombra", "El jardín", "La ciudad", "El silencio", "La casa",
+            "El viaje", "La memoria", "El invierno", "La isla", "El camino", "La noche", "El río"};
+    private static final String[] TITLE_COMPLEMENTS = {"del viento", "de los olvidados", "sin nombre", "de papel",
+            "del norte", "de la niebla", "perdida", "de cristal", "del último verano", "de las horas"};
+
+    // Nacionalidades de los autores: peso y coordenadas aproximadas de donde viven (con un margen de ±3º)
+    private static final Nationality[] NATIONALITIES = {
+            new Nationality("ES", 0.45, 40.4, -3.7), new Nationality("MX", 0.12, 19.4, -99.1),
+            new Nationality("AR", 0.10, -34.6, -58.4), new Nationality("US", 0.08, 40.7, -74.0),
+            new Nationality("CO", 0.07, 4.7, -74.1), new Nationality("FR", 0.06, 48.9, 2.35),
+            new Nationality("GB", 0.06, 51.5, -0.1), new Nationality("IT", 0.06, 41.9, 12.5)};
+
+    static final int CHUNK_SIZE = 50_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final IdSequences idSequences;
+
+    public DataSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.idSequences = new IdSequences(jdbcTemplate);
+    }
+
+    public record Result(int authors, int categories, int books, int users, long loans, Duration elapsed) {
+    }
+
+    /** Título del libro número n: los genera así el seeder y así se pueden buscar. */
+    public static String bookTitle(long n) {
+        return TITLE_NOUNS[(int) (n % TITLE_NOUNS.length)] + " "
+                + TITLE_COMPLEMENTS[(int) (n / TITLE_NOUNS.length % TITLE_COMPLEMENTS.length)] + " " + n;
+    }
+
+    /** Nombre del usuario número n (y de los préstamos a su nombre). */
+    public static String personName(long n) {
+        return FIRST_NAMES[(int) (n % FIRST_NAMES.length)] + " "
+                + SURNAMES[(int) (n / FIRST_NAMES.length % SURNAMES.length)] + " "
+                + SURNAMES[(int) (n / FIRST_NAMES.length / SURNAMES.length % SURNAMES.length)];
+    }
+
+    public Result seed(SeedPlan plan) {
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(plan.randomSeed());
+        try (ExecutorService executor = Executors.newFixedThreadPool(plan.threads())) {
+            Categories categories = seedCategories(plan);
+            long[] authorIds = seedAuthors(plan, executor);
+            long[] bookIds = seedBooks(plan, executor, categories, shuffled(authorIds, random.split()));
+            long firstUser = seedUsers(plan, executor);
+            seedLoans(plan, executor, shuffled(bookIds, random.split()), firstUser,
+                    shuffled(plan.users(), random.split()));
+        }
+        return new Result(plan.authors(), plan.categories(), plan.books(), plan.users(), plan.loans(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // ===================== TABLAS =====================
+
+    // Pocas filas y en un solo tramo: los ids quedan en el mismo orden que los géneros
+    private Categories seedCategories(SeedPlan plan) {
+        long first = maxId("book_categories");
+        String[] genres = new String[plan.categories()];
+        insert(null, plan, "book_categories", first, "INSERT INTO \"book_categories\" (\"name\", \"description\", \"active\", "
+                + "\"creation_date\", \"number_books\", \"id\") VALUES (?, ?, ?, ?, ?, ?)", plan.categories(), (ps, i, random) -> {
+            long n = first + i;
+            String genre = GENRES[(int) (n % GENRES.length)];
+            genres[(int) i] = genre;
+            // Sobre una BD con datos se numeran todas para no chocar con las categorías existentes
+            String name = first == 0 && n < GENRES.length ? genre : genre + " " + (n + 1);
+            ps.setString(1, name);
+            ps.setString(2, "Libros de " + name.toLowerCase());
+            ps.setBoolean(3, true);
+            ps.setDate(4, Date.valueOf(plan.loansFrom().minusDays(random.nextInt(365))));
+            ps.setInt(5, 0);
+        });
+        return new Categories(ids(first, plan.categories()), genres);
+    }
+
+    private long[] seedAuthors(SeedPlan plan, ExecutorService executor) {
+        long first = maxId("authors");
+        insert(executor, plan, "authors", first, "INSERT INTO \"authors\" (\"name\", \"surname\", \"birthdate\", \"active\", "
+                + "\"nationality\", \"latitude\", \"longitude\", \"id\") VALUES (?, ?, ?, ?, ?, ?, ?, ?)", plan.authors(), (ps, i, random) -> {
+            Nationality nationality = nationality(random);
+            ps.setString(1, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+            ps.setString(2, SURNAMES[random.nextInt(SURNAMES.length)] + " " + SURNAMES[random.nextInt(SURNAMES.length)]);
+            ps.setDate(3, Date.valueOf(LocalDate.of(1850, 1, 1).plusDays(random.nextInt(55_000))));
+            ps.setBoolean(4, random.nextDouble() < 0.95);
+            ps.setString(5, nationality.code());
+            // Uno de cada diez sin coordenadas
+            if (random.nextDouble() < 0.1) {
+                ps.setNull(6, Types.DOUBLE);
+                ps.setNull(7, Types.DOUBLE);
+            } else {
+                ps.setDouble(6, nationality.latitude() + random.nextDouble(-3, 3));
+                ps.setDouble(7, nationality.longitude() + random.nextDouble(-3, 3));
+            }
+        });
+        return ids(first, plan.authors());
+    }
+
+    private long[] seedBooks(SeedPlan plan, ExecutorService executor, Categories categories, long[] popularAuthors) {
+        long first = maxId("books");
+        long[] categoryIds = categories.ids();
+        ZipfSampler authors = new ZipfSampler(popularAuthors.length, plan.zipfExponent());
+        ZipfSampler popularCategories = new ZipfSampler(categoryIds.length, plan.zipfExponent());
+        insert(executor, plan, "books", first, "INSERT INTO \"books\" (\"title\", \"genre\", \"pages\", \"price\", \"available\", "
+                + "\"category_id\", \"author_id\", \"id\") VALUES (?, ?, ?, ?, ?, ?, ?, ?)", plan.books(), (ps, i, random) -> {
+            int category = popularCategories.next(random);
+            int pages = 60 + (int) Math.abs(random.nextGaussian() * 250);
+            ps.setString(1, bookTitle(first + i + 1));
+            ps.setString(2, categories.genres()[category]);
+            ps.setInt(3, pages);
+            ps.setDouble(4, Math.round((6 + pages / 25.0 + random.nextDouble(10)) * 100) / 100.0);
+            ps.setBoolean(5, random.nextDouble() < 0.85);
+            ps.setLong(6, categoryIds[category]);
+            ps.setLong(7, popularAuthors[authors.next(random)]);
+        });
+        jdbcTemplate.update("UPDATE \"book_categories\" c SET \"number_books\" = "
+                + "(SELECT COUNT(*) FROM \"books\" b WHERE b.\"category_id\" = c.\"id\") WHERE c.\"id\" >= ?", categoryIds[0]);
+        return ids(first, plan.books());
+    }
+
+    private long seedUsers(SeedPlan plan, ExecutorService executor) {
+        long first = maxId("users");
+        String password = passwordEncoder.encode(plan.userPassword());
+        LocalDate oldest = plan.loansFrom().minusYears(2);
+        int days = (int) (plan.loansTo().toEpochDay() - oldest.toEpochDay()) + 1;
+        insert(executor, plan, "users", first, "INSERT INTO \"users\" (\"name\", \"username\", \"email\", \"password\", "
+                + "\"creation_date\", \"active\", \"id\") VALUES (?, ?, ?, ?, ?, ?, ?)", plan.users(), (ps, i, random) -> {
+            long n = first + i + 1;
+            ps.setString(1, personName(n));
+            ps.setString(2, "lector" + n);
+            ps.setString(3, "lector" + n + "@example.com");
+            ps.setString(4, password);
+            ps.setDate(5, Date.valueOf(oldest.plusDays(random.nextInt(days))));
+            ps.setBoolean(6, random.nextDouble() < 0.95);
+        });
+        return first;
+    }
+
+    private void seedLoans(SeedPlan plan, ExecutorService executor, long[] popularBooks, long firstUser, int[] popularUsers) {
+        long first = maxId("loans");
+        ZipfSampler books = new ZipfSampler(popularBooks.length, plan.zipfExponent());
+        ZipfSampler users = new ZipfSampler(popularUsers.length, plan.zipfExponent());
+        SeasonalDates dates = new SeasonalDates(plan.loansFrom(), plan.loansTo());
+        insert(executor, plan, "loans", first, "INSERT INTO \"loans\" (\"name\", \"customer_name\", \"email\", \"loan_date\", "
+                + "\"quantity\", \"book_id\", \"user_id\", \"id\") VALUES (?, ?, ?, ?, ?, ?, ?, ?)", plan.loans(), (ps, i, random) -> {
+            long user = firstUser + popularUsers[users.next(random)] + 1;
+            double quantity = random.nextDouble();
+            ps.setString(1, "Préstamo " + (first + i + 1));
+            ps.setString(2, personName(user));
+            ps.setString(3, "lector" + user + "@example.com");
+            ps.setDate(4, Date.valueOf(dates.next(random)));
+            ps.setInt(5, quantity < 0.85 ? 1 : quantity < 0.95 ? 2 : 3);
+            ps.setLong(6, popularBooks[books.next(random)]);
+            ps.setLong(7, user);
+        });
+    }
+
+    // ===================== INSERCIÓN =====================
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, long row, SplittableRandom random) throws SQLException;
+    }
+
+    /**
+     * Inserta count filas por tramos de CHUNK_SIZE, en paralelo si hay executor. Cada tramo usa un generador
+     * derivado de la semilla, la tabla y el número de tramo: los datos no dependen del número de hilos.
+     * El id es el último parámetro de la sentencia: las filas se numeran desde afterId + 1 y al terminar se
+     * adelanta la secuencia de la tabla para que Hibernate siga a partir de ellas.
+     */
+    private void insert(ExecutorService executor, SeedPlan plan, String table, long afterId, String sql, long count,
+                        RowWriter writer) {
+        long start = System.nanoTime();
+        int idParameter = (int) sql.chars().filter(c -> c == '?').count();
+        RowWriter withId = (ps, row, random) -> {
+            writer.write(ps, row, random);
+            ps.setLong(idParameter, afterId + row + 1);
+        };
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (long from = 0; from < count; from += CHUNK_SIZE) {
+            long chunkFrom = from;
+            long chunkTo = Math.min(count, from + CHUNK_SIZE);
+            SplittableRandom random = new SplittableRandom(plan.randomSeed()
+                    ^ (table.hashCode() * 0xBF58476D1CE4E5B9L) ^ ((chunkFrom / CHUNK_SIZE + 1) * 0x9E3779B97F4A7C15L));
+            chunks.add(() -> {
+                insertChunk(sql, chunkFrom, chunkTo, plan.batchSize(), random, withId);
+                return null;
+            });
+        }
+        try {
+            if (executor == null) {
+                for (Callable<Void> chunk : chunks) {
+                    chunk.call();
+                }
+            } else {
+                for (Future<Void> future : executor.invokeAll(chunks)) {
+                    future.get();
+                }
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seeding interrupted", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        idSequences.align(table);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Seeded {}: {} rows in {} s ({} rows/s)", table, count,
+                String.format("%.1f", seconds), Math.round(count / Math.max(seconds, 1e-3)));
+    }
+
+    private void insertChunk(String sql, long from, long to, int batchSize, SplittableRandom random, RowWriter writer) {
+        for (long batchFrom = from; batchFrom < to; batchFrom += batchSize) {
+            long first = batchFrom;
+            int size = (int) Math.min(batchSize, to - batchFrom);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    writer.write(ps, first + i, random);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    // ===================== AUXILIARES =====================
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(\"id\"), 0) FROM \"" + table + "\"", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private static long[] ids(long after, int count) {
+        return LongStream.rangeClosed(after + 1, after + count).toArray();
+    }
+
+    private static Nationality nationality(SplittableRandom random) {
+        double value = random.nextDouble();
+        for (Nationality nationality : NATIONALITIES) {
+            value -= nationality.weight();
+            if (value < 0) {
+                return nationality;
+            }
+        }
+        return NATIONALITIES[0];
+    }
+
+    // Orden aleatorio de popularidad: el más popular no tiene por qué ser el id más bajo
+    private static long[] shuffled(long[] ids, SplittableRandom random) {
+        long[] copy = ids.clone();
+        for (int i = copy.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = copy[i];
+            copy[i] = copy[j];
+            copy[j] = swap;
+        }
+        return copy;
+    }
+
+    private static int[] shuffled(int n, SplittableRandom random) {
+        int[] positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = positions[i];
+            positions[i] = positions[j];
+            positions[j] = swap;
+        }
+        return positions;
+    }
+
+    // Ids de las categorías insertadas y el género de cada una, en el mismo orden
+    private record Categories(long[] ids, String[] genres) {
+    }
+
+    private record Nationality(String code, double weight, double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.svalero.Api_Library.seed;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Fechas de préstamo entre dos días con la estacionalidad de una biblioteca: más préstamos en verano
+ * y Navidad, menos en febrero, casi ninguno en domingo, y una tendencia creciente (un 30% más al final
+ * del periodo que al principio). Inmutable: se comparte entre hilos.
+ */
+public final class SeasonalDates {
+
+    // Peso de cada mes (enero..diciembre) y de cada día de la semana (lunes..domingo)
+    private static final double[] MONTH_WEIGHTS = {0.9, 0.75, 0.9, 1.0, 0.95, 1.05, 1.4, 1.5, 1.0, 0.9, 0.9, 1.25};
+    private static final double[] DAY_OF_WEEK_WEIGHTS = {1.0, 1.0, 1.0, 1.0, 1.1, 1.3, 0.3};
+    private static final double TREND = 0.3;
+
+    private final long firstDay;
+    private final double[] cumulative;
+    private final double total;
+
+    public SeasonalDates(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        firstDay = from.toEpochDay();
+        int days = (int) (to.toEpochDay() - firstDay) + 1;
+        cumulative = new double[days];
+        double sum = 0;
+        for (int day = 0; day < days; day++) {
+            sum += weight(from.plusDays(day), days == 1 ? 0 : (double) day / (days - 1));
+            cumulative[day] = sum;
+        }
+        total = sum;
+    }
+
+    static double weight(LocalDate date, double progress) {
+        return MONTH_WEIGHTS[date.getMonthValue() - 1]
+                * DAY_OF_WEEK_WEIGHTS[date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue()]
+                * (1 + TREND * progress);
+    }
+
+    public LocalDate next(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+        index = Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+        return LocalDate.ofEpochDay(firstDay + index);
+    }
+}
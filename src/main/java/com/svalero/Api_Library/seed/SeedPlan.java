@@ -0,0 +1,29 @@
+package com.svalero.Api_Library.seed;
+
+import java.time.LocalDate;
+
+/**
+ * Cuántas filas genera DataSeeder de cada tabla y con qué forma.
+ *
+ * @param zipfExponent sesgo de la popularidad (libros por préstamos, autores por libros, lectores por préstamos):
+ *                     0 es uniforme, 1 es la ley de Zipf clásica
+ * @param loansFrom    primer día de los préstamos generados
+ * @param loansTo      último día de los préstamos generados
+ * @param randomSeed   misma semilla y mismos volúmenes dan los mismos datos
+ * @param threads      conexiones que insertan a la vez
+ * @param batchSize    filas por lote JDBC
+ * @param userPassword contraseña de todos los usuarios generados (se cifra una sola vez)
+ */
+public record SeedPlan(int authors, int categories, int books, int users, long loans,
+                       double zipfExponent, LocalDate loansFrom, LocalDate loansTo,
+                       long randomSeed, int threads, int batchSize, String userPassword) {
+
+    public SeedPlan {
+        if (authors <= 0 || categories <= 0 || books <= 0 || users <= 0 || loans < 0) {
+            throw new IllegalArgumentException("authors, categories, books and users must be > 0 and loans >= 0");
+        }
+        if (threads <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("threads and batchSize must be > 0");
+        }
+    }
+}
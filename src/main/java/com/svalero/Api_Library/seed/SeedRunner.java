@@ -0,0 +1,72 @@
+package com.svalero.Api_Library.seed;
+
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Perfil "seed": al arrancar llena la BD con DataSeeder según app.seed.* (application-seed.properties)
+ * y cierra la aplicación (salvo app.seed.exit=false):
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=seed -Dspring-boot.run.arguments=--app.seed.loans=10000000
+ */
+@Component
+@Profile("seed")
+public class SeedRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeedRunner.class);
+
+    private final DataSeeder dataSeeder;
+    private final ConfigurableApplicationContext context;
+    private final SeedPlan plan;
+    private final boolean exit;
+
+    @Autowired
+    public SeedRunner(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, ConfigurableApplicationContext context,
+                      @Value("${app.seed.authors:20000}") int authors,
+                      @Value("${app.seed.categories:40}") int categories,
+                      @Value("${app.seed.books:200000}") int books,
+                      @Value("${app.seed.users:50000}") int users,
+                      @Value("${app.seed.loans:1000000}") long loans,
+                      @Value("${app.seed.zipf-exponent:1.0}") double zipfExponent,
+                      @Value("${app.seed.years:3}") int years,
+                      @Value("${app.seed.random-seed:42}") long randomSeed,
+                      @Value("${app.seed.threads:0}") int threads,
+                      @Value("${app.seed.batch-size:5000}") int batchSize,
+                      @Value("${app.seed.user-password:password123}") String userPassword,
+                      @Value("${app.seed.exit:true}") boolean exit) {
+        this.dataSeeder = new DataSeeder(jdbcTemplate, passwordEncoder);
+        this.context = context;
+        this.exit = exit;
+        LocalDate today = LocalDate.now();
+        this.plan = new SeedPlan(authors, categories, books, users, loans, zipfExponent, today.minusYears(years), today,
+                randomSeed, threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), batchSize, userPassword);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        logger.info("Seeding {} authors, {} categories, {} books, {} users and {} loans with {} threads",
+                plan.authors(), plan.categories(), plan.books(), plan.users(), plan.loans(), plan.threads());
+        DataSeeder.Result result = dataSeeder.seed(plan);
+        // Los datos no han pasado por los servicios: se avisa a las cachés como tras cualquier cambio del catálogo
+        context.publishEvent(new CatalogueChangedEvent(Book.class, 0));
+        logger.info("Seeded {} authors, {} categories, {} books, {} users and {} loans in {} s",
+                result.authors(), result.categories(), result.books(), result.users(), result.loans(),
+                result.elapsed().toSeconds());
+        if (exit) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
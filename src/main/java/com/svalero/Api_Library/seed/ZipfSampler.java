@@ -0,0 +1,40 @@
+package com.svalero.Api_Library.seed;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Muestreo de posiciones 0..n-1 con distribución de Zipf: la posición k sale con peso 1/(k+1)^s.
+ * Con s = 1 y 100.000 libros, el 1% más popular se lleva en torno al 60% de los préstamos.
+ *
+ * Guarda la función de distribución acumulada (un double por posición) y cada muestra es una
+ * búsqueda binaria, así que es inmutable y se puede compartir entre hilos.
+ */
+public final class ZipfSampler {
+
+    private final double[] cumulative;
+    private final double total;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        total = sum;
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    /** Posición muestreada: 0 es la más popular. */
+    public int next(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+}
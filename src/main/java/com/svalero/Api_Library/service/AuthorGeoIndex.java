@@ -0,0 +1,212 @@
+package com.svalero.Api_Library.service;
+
+import com.svalero.Api_Library.event.AuthorLocationChangedEvent;
+import com.svalero.Api_Library.repository.AuthorLocation;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice geográfico en memoria de los autores (rejilla de celdas lat/lon, al estilo geohash).
+ *
+ * Cada autor con coordenadas se guarda en la celda de 0.25º que le corresponde, así una búsqueda
+ * por radio solo calcula la distancia (haversine) de los autores de las celdas que tocan el área
+ * buscada en lugar de recorrer todos. Se construye al arrancar desde AuthorRepository y se mantiene
+ * al día con los AuthorLocationChangedEvent de AuthorService, aplicados solo cuando la transacción
+ * se confirma: un alta o cambio que se deshace (p.ej. por bloqueo optimista) no llega al índice.
+ */
+@Component
+public class AuthorGeoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorGeoIndex.class);
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    // Media circunferencia: ningún punto de la Tierra está más lejos que esto
+    static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+
+    private static final double CELL_DEGREES = 0.25;
+    private static final int LAT_CELLS = (int) Math.ceil(180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) Math.ceil(360 / CELL_DEGREES);
+    private static final double CELL_KM = Math.toRadians(CELL_DEGREES) * EARTH_RADIUS_KM;
+
+    private final AuthorRepository authorRepository;
+
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AuthorGeoIndex(AuthorRepository authorRepository) {
+        this.authorRepository = authorRepository;
+    }
+
+    // Carga inicial del índice con las coordenadas de todos los autores (cuando la BD ya está lista)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        points.clear();
+        cells.clear();
+        for (AuthorLocation location : authorRepository.findAllLocations()) {
+            put(location.getId(), location.getLatitude(), location.getLongitude());
+        }
+        logger.info("Author geo index built with {} authors", points.size());
+    }
+
+    // ===================== MANTENIMIENTO =====================
+
+    // Tras el commit (o en el momento, si no hay transacción)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(AuthorLocationChangedEvent event) {
+        if (event.latitude() == null || event.longitude() == null) {
+            remove(event.id());
+        } else {
+            put(event.id(), event.latitude(), event.longitude());
+        }
+    }
+
+    public void remove(long id) {
+        points.computeIfPresent(id, (key, old) -> {
+            removeFromCell(old.cell(), key);
+            return null;
+        });
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    private void put(long id, double latitude, double longitude) {
+        Point point = new Point(latitude, longitude, cellOf(latitude, longitude));
+        points.compute(id, (key, old) -> {
+            if (old != null && old.cell() != point.cell()) {
+                removeFromCell(old.cell(), key);
+            }
+            cells.computeIfAbsent(point.cell(), cell -> ConcurrentHashMap.newKeySet()).add(key);
+            return point;
+        });
+    }
+
+    private void removeFromCell(long cell, long id) {
+        cells.computeIfPresent(cell, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // ===================== CONSULTAS =====================
+
+    /** Ids de los autores a menos de radiusKm del punto, del más cercano al más lejano. */
+    public List<Long> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        return search(latitude, longitude, radiusKm).stream().map(Match::id).toList();
+    }
+
+    /**
+     * Ids de los k autores más cercanos al punto. Se busca en un radio que se va duplicando:
+     * en cuanto hay k resultados dentro del radio, cualquier autor de fuera está más lejos.
+     * k no pasa del número de autores del índice: si no, el radio crecería hasta recorrer la rejilla entera.
+     */
+    public List<Long> findNearest(double latitude, double longitude, int k) {
+        k = Math.min(k, points.size());
+        if (k <= 0) {
+            return List.of();
+        }
+        double radiusKm = CELL_KM;
+        while (true) {
+            List<Match> matches = search(latitude, longitude, radiusKm);
+            if (matches.size() >= k || radiusKm >= MAX_DISTANCE_KM) {
+                return matches.stream().limit(k).map(Match::id).toList();
+            }
+            radiusKm = Math.min(radiusKm * 2, MAX_DISTANCE_KM);
+        }
+    }
+
+    private List<Match> search(double latitude, double longitude, double radiusKm) {
+        List<Match> matches = new ArrayList<>();
+        double radiusDegrees = Math.toDegrees(Math.min(radiusKm, MAX_DISTANCE_KM) / EARTH_RADIUS_KM);
+        double minLat = latitude - radiusDegrees;
+        double maxLat = latitude + radiusDegrees;
+
+        // Si el círculo contiene un polo hay que mirar todas las longitudes
+        int lonCellsEachSide = LON_CELLS;
+        if (minLat > -90 && maxLat < 90) {
+            double sinRatio = Math.sin(Math.toRadians(radiusDegrees)) / Math.cos(Math.toRadians(latitude));
+            double lonDelta = Math.toDegrees(Math.asin(Math.min(1, sinRatio)));
+            lonCellsEachSide = (int) Math.ceil(lonDelta / CELL_DEGREES) + 1;
+        }
+
+        int fromLat = latIndex(Math.max(minLat, -90));
+        int toLat = latIndex(Math.min(maxLat, 90));
+        int centerLon = lonIndex(longitude);
+        int fromLon = centerLon - lonCellsEachSide;
+        int toLon = centerLon + lonCellsEachSide;
+        if (toLon - fromLon + 1 >= LON_CELLS) {
+            fromLon = 0;
+            toLon = LON_CELLS - 1;
+        }
+
+        for (int latCell = fromLat; latCell <= toLat; latCell++) {
+            for (int lon = fromLon; lon <= toLon; lon++) {
+                Set<Long> ids = cells.get(cellKey(latCell, Math.floorMod(lon, LON_CELLS)));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Point point = points.get(id);
+                    if (point == null) {
+                        continue;
+                    }
+                    double distance = haversineKm(latitude, longitude, point.latitude(), point.longitude());
+                    if (distance <= radiusKm) {
+                        matches.add(new Match(id, distance));
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        return matches;
+    }
+
+    // ===================== GEOMETRÍA =====================
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static long cellOf(double latitude, double longitude) {
+        return cellKey(latIndex(latitude), lonIndex(longitude));
+    }
+
+    private static long cellKey(int latIndex, int lonIndex) {
+        return (long) latIndex * LON_CELLS + lonIndex;
+    }
+
+    private static int latIndex(double latitude) {
+        int index = (int) Math.floor((latitude + 90) / CELL_DEGREES);
+        return Math.max(0, Math.min(index, LAT_CELLS - 1));
+    }
+
+    private static int lonIndex(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private record Point(double latitude, double longitude, long cell) {
+    }
+
+    private record Match(long id, double distanceKm) {
+    }
+}
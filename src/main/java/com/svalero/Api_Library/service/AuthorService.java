@@ -1,73 +1,173 @@
 package com.svalero.Api_Library.service;
 
+import com.svalero.Api_Library.DTO.BookDTO;
+import com.svalero.Api_Library.config.CacheConfig;
+import com.svalero.Api_Library.config.MetricsConfig;
 import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.event.AuthorLocationChangedEvent;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
 import com.svalero.Api_Library.exception.AuthorNotFoundException;
 import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final AuthorGeoIndex authorGeoIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoanRepository loanRepository;
+    private final DeleteJobs deleteJobs;
+    private final BookRepository bookRepository;
 
     @Autowired
-    public AuthorService(AuthorRepository authorRepository) {
+    public AuthorService(AuthorRepository authorRepository, AuthorGeoIndex authorGeoIndex,
+                         ApplicationEventPublisher eventPublisher, LoanRepository loanRepository,
+                         DeleteJobs deleteJobs, BookRepository bookRepository) {
         this.authorRepository = authorRepository;
+        this.authorGeoIndex = authorGeoIndex;
+        this.eventPublisher = eventPublisher;
+        this.loanRepository = loanRepository;
+        this.deleteJobs = deleteJobs;
+        this.bookRepository = bookRepository;
     }
 
 
     //Para obtener todos los autores
+    @Transactional(readOnly = true)
     public List<Author> getAllAuthors() {
-        return authorRepository.findAll();
+        return EntityGraphs.initializeAll(authorRepository.findAll());
     }
 
        //para obtener autores por nombre
+    @Transactional(readOnly = true)
     public List<Author> getAuthorByName(String name) {
-        return authorRepository.findByName(name);
+        return EntityGraphs.initializeAll(authorRepository.findByName(name));
     }
 
     //Para obtener autores por apellido (surname)
+    @Transactional(readOnly = true)
     public List<Author> getAuthorBySurname(String surname) {
-        return authorRepository.findBySurname(surname);
+        return EntityGraphs.initializeAll(authorRepository.findBySurname(surname));
     }
 
     //Para obtener autores por nacionalidad (nationality)
+    @Transactional(readOnly = true)
     public List<Author> getAuthorByNationality(String nationality) {
-        return authorRepository.findByNationality(nationality);
+        return EntityGraphs.initializeAll(authorRepository.findByNationality(nationality));
     }
 
     //para obtener autores por fecha de nacimiento (birthdate)
+    @Transactional(readOnly = true)
     public List<Author> getAuthorByBirthdate(LocalDate birthdate) {
-        return authorRepository.findByBirthdate(birthdate);
+        return EntityGraphs.initializeAll(authorRepository.findByBirthdate(birthdate));
     }
 
-    //para obtener un autor por id
+    //para obtener los libros de un autor, una página (keyset) desde el último id visto, sin cargar el autor.
+    //Solo si la página sale vacía se mira si el autor existe (404)
+    @Transactional(readOnly = true)
+    public List<BookDTO> getBooks(long id, long after, int size) throws AuthorNotFoundException {
+        List<BookDTO> books = bookRepository.findPageByAuthor(id, after, Limit.of(size));
+        if (books.isEmpty() && !authorRepository.existsById(id)) {
+            throw new AuthorNotFoundException("Author not found with id: " + id);
+        }
+        return books;
+    }
+
+    //para obtener un autor por id (cacheado, con el grafo ya inicializado)
+    @Cacheable(CacheConfig.AUTHORS)
+    @Transactional(readOnly = true)
     public Author getAuthorById(long id) throws AuthorNotFoundException {
-        return authorRepository.findById(id)
-                .orElseThrow(() ->new RuntimeException("Book Category not found with id: "+ id));
+        return EntityGraphs.initialize(authorRepository.findById(id)
+                .orElseThrow(() -> new AuthorNotFoundException("Author not found with id: " + id)));
+    }
+
+    //Para obtener los autores a menos de radiusKm de un punto, del más cercano al más lejano
+    @Transactional(readOnly = true)
+    public List<Author> getAuthorsNear(double latitude, double longitude, double radiusKm) {
+        return findAllInOrder(authorGeoIndex.findWithinRadius(latitude, longitude, radiusKm));
+    }
+
+    //Para obtener los k autores más cercanos a un punto
+    @Transactional(readOnly = true)
+    public List<Author> getNearestAuthors(double latitude, double longitude, int k) {
+        return findAllInOrder(authorGeoIndex.findNearest(latitude, longitude, k));
+    }
+
+    //Carga los autores y respeta el orden por distancia que devuelve el índice
+    private List<Author> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Author> authorsById = new HashMap<>();
+        authorRepository.findAllById(ids).forEach(author -> authorsById.put(author.getId(), author));
+        return EntityGraphs.initializeAll(ids.stream().map(authorsById::get).filter(Objects::nonNull).toList());
     }
 
     //Para guardar un nuevo autor
     public Author saveAuthor(Author author) {
-        return authorRepository.save(author);
+        Author savedAuthor = authorRepository.save(author);
+        publishLocation(savedAuthor);
+        publishChange(savedAuthor.getId());
+        return savedAuthor;
     }
 
     //Para eliminar un author por id
-    public void deleteAuthor(long id) throws AuthorNotFoundException {
-        if (!authorRepository.existsById(id)){
+    // Sin cargar nada: se cuentan los préstamos del autor (solo hasta el umbral de DeleteJobs) y, si son
+    // pocos, dos DELETE en esta transacción, los libros del autor (sus préstamos los borra la BD) y el autor.
+    // Tres sentencias tenga los libros que tenga. Si no se borra el autor no existía; la transacción se
+    // deshace y no queda nada a medias. Con muchos préstamos se borran en segundo plano por tramos y se
+    // devuelve el trabajo (DeleteJobs): si tiene préstamos el autor existe. Cada tramo avisa a las cachés
+    @Transactional
+    public Optional<DeleteJob> deleteAuthor(long id) throws AuthorNotFoundException {
+        Optional<DeleteJob> running = deleteJobs.running("author", id);
+        if (running.isPresent()) {
+            return running;
+        }
+        if (deleteJobs.inBackground(loanRepository.countByAuthorUpTo(id, deleteJobs.probeLimit()))) {
+            return Optional.of(deleteJobs.start("author", id, () -> loanRepository.countByAuthor(id), () -> {
+                List<Long> ids = loanRepository.findIdsByAuthor(id, deleteJobs.chunk());
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                int deleted = loanRepository.removeAllById(ids);
+                publishChange(id);
+                return deleted;
+            }, () -> removeAuthor(id)));
+        }
+        removeAuthor(id);
+        return Optional.empty();
+    }
+
+    private void removeAuthor(long id) {
+        authorRepository.removeBooksOf(id);
+        if (authorRepository.removeById(id) == 0) {
             throw new AuthorNotFoundException("Author not found with id: " + id);
         }
-        authorRepository.deleteById(id);
+        eventPublisher.publishEvent(new AuthorLocationChangedEvent(id, null, null));
+        publishChange(id);
     }
 
     //Para actualizar un autor por id
+    @Transactional
     public Author updateAuthor(long id, Author authorDetails) throws AuthorNotFoundException {
         Author existingAuthor = authorRepository.findById(id)
                 .orElseThrow(() -> new AuthorNotFoundException("Author not found with id: " + id));
@@ -81,26 +181,40 @@ public class AuthorService {
         existingAuthor.setLatitude(authorDetails.getLatitude());
         existingAuthor.setLongitude(authorDetails.getLongitude());
 
-        return authorRepository.save(existingAuthor);
+        Author savedAuthor = authorRepository.save(existingAuthor);
+        publishLocation(savedAuthor);
+        publishChange(id);
+        return EntityGraphs.initialize(savedAuthor);
     }
 
+    @Transactional
     public Author updateAuthorPartial(long id, Map<String,Object> updates){
         Author author = authorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Author not found with id: " + id));
 
 
         updates.forEach((key, value) ->{
-            Field field = ReflectionUtils.findField(Author.class, key);
+            Field field = PatchFields.writable(Author.class, key);
             if (field != null) {
-                field.setAccessible(true);
                 ReflectionUtils.setField(field, author, value);
             }
         });
 
+        Author savedAuthor = authorRepository.save(author);
+        publishLocation(savedAuthor);
+        publishChange(id);
+        return EntityGraphs.initialize(savedAuthor);
+    }
 
+    // Avisa a AuthorGeoIndex de las coordenadas del autor; las aplica tras el commit
+    private void publishLocation(Author author) {
+        eventPublisher.publishEvent(
+                new AuthorLocationChangedEvent(author.getId(), author.getLatitude(), author.getLongitude()));
+    }
 
-        return authorRepository.save(author);
-
+    // Avisa a las cachés de que el autor ha cambiado
+    private void publishChange(long id) {
+        eventPublisher.publishEvent(new CatalogueChangedEvent(Author.class, id));
     }
 
 }
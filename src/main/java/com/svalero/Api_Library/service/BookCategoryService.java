@@ -1,12 +1,22 @@
 package com.svalero.Api_Library.service;
 
+import com.svalero.Api_Library.DTO.BookDTO;
+import com.svalero.Api_Library.config.CacheConfig;
+import com.svalero.Api_Library.config.MetricsConfig;
 import com.svalero.Api_Library.domain.Author;
 import com.svalero.Api_Library.domain.Book;
 import com.svalero.Api_Library.domain.BookCategory;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
 import com.svalero.Api_Library.exception.BookCategoryNotFoundException;
 import com.svalero.Api_Library.repository.BookCategoryRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
@@ -16,70 +26,99 @@ import java.util.List;
 import java.util.Map;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 public class BookCategoryService {
     private final BookCategoryRepository bookCategoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookRepository bookRepository;
 
     @Autowired
-    public BookCategoryService(BookCategoryRepository bookCategoryRepository) {
+    public BookCategoryService(BookCategoryRepository bookCategoryRepository, ApplicationEventPublisher eventPublisher,
+                               BookRepository bookRepository) {
         this.bookCategoryRepository = bookCategoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.bookRepository = bookRepository;
     }
 
     //para obtener todas las categorias
+    @Transactional(readOnly = true)
     public List<BookCategory> getAllBookCategories() {
-        return bookCategoryRepository.findAll();
+        return EntityGraphs.initializeAll(bookCategoryRepository.findAll());
     }
 
-    //para obtener las categorias de libros por id
+    //para obtener las categorias de libros por id (cacheado, con el grafo ya inicializado)
+    @Cacheable(CacheConfig.BOOK_CATEGORIES)
+    @Transactional(readOnly = true)
     public BookCategory getBookCategoriesById(Long id) throws BookCategoryNotFoundException {
-        return bookCategoryRepository.findById(id)
-                .orElseThrow(() ->new RuntimeException("Book Category not found with id: "+ id));
+        return EntityGraphs.initialize(bookCategoryRepository.findById(id)
+                .orElseThrow(() -> new BookCategoryNotFoundException("Book Category not found with id: " + id)));
+
+    }
 
+    //para obtener los libros de una categoría, una página (keyset) desde el último id visto, como en AuthorService
+    @Transactional(readOnly = true)
+    public List<BookDTO> getBooks(long id, long after, int size) throws BookCategoryNotFoundException {
+        List<BookDTO> books = bookRepository.findPageByCategory(id, after, Limit.of(size));
+        if (books.isEmpty() && !bookCategoryRepository.existsById(id)) {
+            throw new BookCategoryNotFoundException("Book Category not found with id: " + id);
+        }
+        return books;
     }
 
     //Para obtener las categorias por nombre
+    @Transactional(readOnly = true)
     public List<BookCategory> getBookCategoriesByName(String name) throws BookCategoryNotFoundException {
-        return bookCategoryRepository.findByName(name);
+        return EntityGraphs.initializeAll(bookCategoryRepository.findByName(name));
     }
 
     //Para obtener las categorias de libros por descripción
+    @Transactional(readOnly = true)
     public List<BookCategory> getBookCategoriesByDescription(String description) throws BookCategoryNotFoundException {
-        return bookCategoryRepository.findByDescription(description);
+        return EntityGraphs.initializeAll(bookCategoryRepository.findByDescription(description));
     }
 
     //para obtener las categorias de libros activas
+    @Transactional(readOnly = true)
     public List<BookCategory> getBookCategoriesByActive(Boolean active) throws BookCategoryNotFoundException {
-        return bookCategoryRepository.findByActive(active);
+        return EntityGraphs.initializeAll(bookCategoryRepository.findByActive(active));
     }
 
     //Para obtener la fecha de creación de la categoria del libro
+    @Transactional(readOnly = true)
     public List<BookCategory> getBookCategoriesByCreateDate(LocalDate createDate) throws BookCategoryNotFoundException {
-        return bookCategoryRepository.findByCreatedDate(createDate);
+        return EntityGraphs.initializeAll(bookCategoryRepository.findByCreatedDate(createDate));
     }
 
     //para obtener el numero de libros
+    @Transactional(readOnly = true)
     public List<BookCategory> getBookCategoriesByNumberBooks(int numberBooks) throws BookCategoryNotFoundException {
-        return bookCategoryRepository.findByNumberBooks(numberBooks);
+        return EntityGraphs.initializeAll(bookCategoryRepository.findByNumberBooks(numberBooks));
     }
 
     //para buscar categorias por número mínimo de libros
+    @Transactional(readOnly = true)
     public List<BookCategory> getBookCategoriesWithMinBooks(int minBooks) throws BookCategoryNotFoundException {
-        return bookCategoryRepository.findByNumberBooksGreaterThan(minBooks);
+        return EntityGraphs.initializeAll(bookCategoryRepository.findByNumberBooksGreaterThan(minBooks));
     }
 
     //para guardar una categoria de libro
     public BookCategory saveBookCategory(BookCategory bookCategory) throws BookCategoryNotFoundException {
-        return bookCategoryRepository.save(bookCategory);
+        BookCategory savedBookCategory = bookCategoryRepository.save(bookCategory);
+        publishChange(savedBookCategory.getId());
+        return savedBookCategory;
     }
 
     //Para eliminar una BookCategory por id
+    @Transactional
     public void deleteBookCategory(long id) throws BookCategoryNotFoundException {
-        if (!bookCategoryRepository.existsById(id)){
+        if (bookCategoryRepository.removeById(id) == 0) {
             throw new BookCategoryNotFoundException("Book Category not found with id: "+ id);
         }
-        bookCategoryRepository.deleteById(id);
+        publishChange(id);
     }
 
     //Para actualizar la categoria por id
+    @Transactional
     public BookCategory updateBookCategory(long id, BookCategory bookCategoryDetails) throws BookCategoryNotFoundException {
         BookCategory existingBookCategory = bookCategoryRepository.findById(id)
                 .orElseThrow(() ->new RuntimeException("Book Category not found with id: "+ id));
@@ -91,22 +130,31 @@ public class BookCategoryService {
         existingBookCategory.setCreatedDate(bookCategoryDetails.getCreatedDate());
         existingBookCategory.setNumberBooks(bookCategoryDetails.getNumberBooks());
 
-        return bookCategoryRepository.save(existingBookCategory);
+        BookCategory savedBookCategory = bookCategoryRepository.save(existingBookCategory);
+        publishChange(id);
+        return EntityGraphs.initialize(savedBookCategory);
     }
 
+    @Transactional
     public BookCategory updateBookCategoryPartial(long id, Map<String, Object> updates) {
         BookCategory bookCategory = bookCategoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book Category not found with id: " + id));
 
         updates.forEach((key, value) -> {
-            Field field = ReflectionUtils.findField(BookCategory.class, key);
+            Field field = PatchFields.writable(BookCategory.class, key);
             if (field != null) {
-                field.setAccessible(true);
                 ReflectionUtils.setField(field, bookCategory, value);
             }
         });
 
-        return bookCategoryRepository.save(bookCategory);
+        BookCategory savedBookCategory = bookCategoryRepository.save(bookCategory);
+        publishChange(id);
+        return EntityGraphs.initialize(savedBookCategory);
+    }
+
+    // Avisa a las cachés de que la categoría ha cambiado
+    private void publishChange(long id) {
+        eventPublisher.publishEvent(new CatalogueChangedEvent(BookCategory.class, id));
     }
 
 
@@ -1,65 +1,120 @@
 package com.svalero.Api_Library.service;
 
+import com.svalero.Api_Library.DTO.BookDTO;
+import com.svalero.Api_Library.DTO.LoanDTO;
+import com.svalero.Api_Library.config.CacheConfig;
+import com.svalero.Api_Library.config.MetricsConfig;
 import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
 import com.svalero.Api_Library.exception.BookNotFoundException;
+import com.svalero.Api_Library.mapper.LoanMapper;
 import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoanRepository loanRepository;
+    private final DeleteJobs deleteJobs;
+    private final LoanMapper loanMapper;
 
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, ApplicationEventPublisher eventPublisher,
+                       LoanRepository loanRepository, DeleteJobs deleteJobs, LoanMapper loanMapper) {
         this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.loanRepository = loanRepository;
+        this.deleteJobs = deleteJobs;
+        this.loanMapper = loanMapper;
     }
 
     // ===================== LECTURA (READ) =====================
+    // Transacciones de solo lectura: Hibernate no hace flush (FlushMode.MANUAL) ni guarda copia de las
+    // entidades para detectar cambios, y la conexión va marcada como read-only (a la réplica si la hay,
+    // ver ReadOnlyDataSourceConfig). El grafo que serializa Jackson se carga aquí, dentro de la transacción.
 
+    @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+        return EntityGraphs.initializeAll(bookRepository.findAll());
     }
 
+    // Cacheado: el grafo se inicializa entero antes de guardarlo para poder serializarlo sin sesión
+    @Cacheable(CacheConfig.BOOKS)
+    @Transactional(readOnly = true)
     public Book getBookById(long id) throws BookNotFoundException {
-        return bookRepository.findById(id)
+        return EntityGraphs.initialize(bookRepository.findById(id)
+                .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + id)));
+    }
+
+    // Préstamos de un libro, una página (keyset) desde el último id visto. El resumen del libro sale de una
+    // consulta aparte (y con ella el 404) y se pone en todos: los préstamos se leen sin su libro
+    @Transactional(readOnly = true)
+    public List<LoanDTO> getLoans(long id, long after, int size) throws BookNotFoundException {
+        BookDTO book = bookRepository.findSummaryById(id)
                 .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + id));
+        return loanRepository.findPageByBook(id, after, Limit.of(size)).stream()
+                .map(loan -> {
+                    LoanDTO dto = loanMapper.toDtoWithoutBook(loan);
+                    dto.setBook(book);
+                    return dto;
+                })
+                .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBookByTitle(String title) {
-        return bookRepository.findByTitle(title);
+        return EntityGraphs.initializeAll(bookRepository.findByTitle(title));
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBookByGenre(String genre) {
-        return bookRepository.findByGenre(genre);
+        return EntityGraphs.initializeAll(bookRepository.findByGenre(genre));
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBookByPages(int pages) {
-        return bookRepository.findByPages(pages);
+        return EntityGraphs.initializeAll(bookRepository.findByPages(pages));
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBookByPrice(double price) {
-        return bookRepository.findByPrice(price);
+        return EntityGraphs.initializeAll(bookRepository.findByPrice(price));
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBookByAvailability(boolean availability) {
-        return bookRepository.findByAvailable(availability);
+        return EntityGraphs.initializeAll(bookRepository.findByAvailable(availability));
     }
 
     // ===================== CREACIÓN (CREATE) =====================
 
     public Book saveBook(Book book) {
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        publishChange(savedBook.getId());
+        return savedBook;
     }
 
     // ===================== ACTUALIZACIÓN COMPLETA (UPDATE) =====================
+    // Como en las lecturas, el libro se devuelve con su grafo ya cargado: sin open-in-view no hay sesión
+    // (ni conexión) mientras Jackson escribe la respuesta
 
+    @Transactional
     public Book updateBook(Long id, Book bookDetails) throws BookNotFoundException {
         Book existingBook = bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + id));
@@ -70,57 +125,95 @@ public class BookService {
         existingBook.setPrice(bookDetails.getPrice());
         existingBook.setAvailable(bookDetails.isAvailable());
 
-        return bookRepository.save(existingBook);
+        Book savedBook = bookRepository.save(existingBook);
+        publishChange(id);
+        return EntityGraphs.initialize(savedBook);
     }
 
     // ===================== ACTUALIZACIÓN PARCIAL (PATCH) =====================
 
+    @Transactional
     public Book updateBookPartial(Long id, Map<String, Object> updates) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
 
         updates.forEach((key, value) -> {
-            Field field = ReflectionUtils.findField(Book.class, key);
+            Field field = PatchFields.writable(Book.class, key);
             if (field != null) {
-                field.setAccessible(true);
                 ReflectionUtils.setField(field, book, value);
             }
         });
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        publishChange(id);
+        return EntityGraphs.initialize(savedBook);
     }
 
     // ===================== ELIMINACIÓN (DELETE) =====================
 
-    public void deleteBook(Long id) throws BookNotFoundException {
-        if (!bookRepository.existsById(id)) {
+    // Un DELETE condicionado al id: si no borra ninguna fila el libro no existía (404). Antes eran
+    // existsById + deleteById, que además carga el libro y borra sus préstamos de uno en uno.
+    // Un libro con muchos préstamos se borra en segundo plano por tramos (como en AuthorService)
+    @Transactional
+    public Optional<DeleteJob> deleteBook(Long id) throws BookNotFoundException {
+        Optional<DeleteJob> running = deleteJobs.running("book", id);
+        if (running.isPresent()) {
+            return running;
+        }
+        if (deleteJobs.inBackground(loanRepository.countByBookUpTo(id, deleteJobs.probeLimit()))) {
+            return Optional.of(deleteJobs.start("book", id, () -> loanRepository.countByBook(id), () -> {
+                List<Long> ids = loanRepository.findIdsByBook(id, deleteJobs.chunk());
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                int deleted = loanRepository.removeAllById(ids);
+                publishChange(id);
+                return deleted;
+            }, () -> removeBook(id)));
+        }
+        removeBook(id);
+        return Optional.empty();
+    }
+
+    private void removeBook(Long id) {
+        if (bookRepository.removeById(id) == 0) {
             throw new BookNotFoundException("Book not found with id: " + id);
         }
-        bookRepository.deleteById(id);
+        publishChange(id);
     }
 
     // ===================== CONSULTAS JPQL =====================
 
+    @Transactional(readOnly = true)
     public List<Book> findBooksWithPagesGreaterThan(int pages) {
-        return bookRepository.findBooksWithPagesGreaterThan(pages);
+        return EntityGraphs.initializeAll(bookRepository.findBooksWithPagesGreaterThan(pages));
     }
 
+    @Transactional(readOnly = true)
     public List<Book> findBooksWithPriceLessThan(float price) {
-        return bookRepository.findBooksWithPriceLessThan(price);
+        return EntityGraphs.initializeAll(bookRepository.findBooksWithPriceLessThan(price));
     }
 
+    @Transactional(readOnly = true)
     public List<Book> findBooksWithGenreLike(String keyword) {
-        return bookRepository.findBooksWithGenreLike(keyword);
+        return EntityGraphs.initializeAll(bookRepository.findBooksWithGenreLike(keyword));
     }
 
+    @Transactional(readOnly = true)
     public List<Book> findBooksByTitleAndAvailableAndGenre(String title, boolean available, String genre) {
-        return bookRepository.findBooksByTitleAndAvailableAndGenre(title, available, genre);
+        return EntityGraphs.initializeAll(bookRepository.findBooksByTitleAndAvailableAndGenre(title, available, genre));
     }
 
     // ===================== CONSULTAS SQL =====================
 
+    @Transactional(readOnly = true)
     public List<Book> findBooksWithPriceGreaterThanNative(float price) {
-        return bookRepository.findBooksWithPriceGreaterThanNative(price);
+        return EntityGraphs.initializeAll(bookRepository.findBooksWithPriceGreaterThanNative(price));
+    }
+
+    // Avisa a las cachés de que el libro ha cambiado
+    private void publishChange(long id) {
+        eventPublisher.publishEvent(new CatalogueChangedEvent(Book.class, id));
     }
 
 
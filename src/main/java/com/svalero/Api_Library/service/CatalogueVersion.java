@@ -0,0 +1,9 @@
+package com.svalero.Api_Library.service;
+
+import java.time.Instant;
+
+/**
+ * Versión del catálogo tal como se anuncia en las cabeceras ETag y Last-Modified.
+ */
+public record CatalogueVersion(String etag, Instant lastModified) {
+}
@@ -0,0 +1,106 @@
+package com.svalero.Api_Library.service;
+
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookCategoryRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.repository.TableVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versión agregada del catálogo para las peticiones condicionales (If-None-Match / If-Modified-Since).
+ *
+ * Los GET de libros, autores y categorías devuelven el grafo completo (un libro lleva su autor, su
+ * categoría y sus préstamos), así que la @Version de una sola entidad no basta: cualquier cambio en
+ * las cuatro tablas puede cambiar cualquier respuesta. La versión sale de un COUNT/MAX(updated_at)
+ * por tabla y se guarda en memoria hasta el siguiente CatalogueChangedEvent, de modo que un cliente
+ * con el ETag al día recibe un 304 sin consultar filas ni serializar nada.
+ */
+@Service
+public class CatalogueVersionService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final BookCategoryRepository bookCategoryRepository;
+    private final LoanRepository loanRepository;
+
+    // Cada cambio sube la generación: una versión calculada con una generación anterior no se reutiliza
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // Los borrados no dejan rastro en updated_at, así que se apunta el momento del último cambio.
+    // Arranca con la hora de inicio por si hubo cambios que esta instancia no llegó a ver.
+    private volatile Instant lastChange = Instant.now();
+
+    @Autowired
+    public CatalogueVersionService(BookRepository bookRepository, AuthorRepository authorRepository,
+                                   BookCategoryRepository bookCategoryRepository, LoanRepository loanRepository) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.bookCategoryRepository = bookCategoryRepository;
+        this.loanRepository = loanRepository;
+    }
+
+    public CatalogueVersion current() {
+        long currentGeneration = generation.get();
+        Snapshot cached = snapshot.get();
+        if (cached != null && cached.generation() == currentGeneration) {
+            return cached.version();
+        }
+        CatalogueVersion version = load();
+        snapshot.set(new Snapshot(currentGeneration, version));
+        return version;
+    }
+
+    /**
+     * Comprueba las cabeceras condicionales de la petición contra la versión actual del catálogo.
+     * Si devuelve true la respuesta ya está marcada como 304 y el controlador no debe generar cuerpo;
+     * si no, deja puestas las cabeceras ETag y Last-Modified para la respuesta normal.
+     */
+    public boolean checkNotModified(WebRequest request) {
+        CatalogueVersion version = current();
+        return request.checkNotModified(version.etag(), version.lastModified().toEpochMilli());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        lastChange = Instant.now();
+        generation.incrementAndGet();
+    }
+
+    private CatalogueVersion load() {
+        List<TableVersion> tables = List.of(
+                bookRepository.findTableVersion(),
+                authorRepository.findTableVersion(),
+                bookCategoryRepository.findTableVersion(),
+                loanRepository.findTableVersion());
+
+        // El ETag solo depende del contenido de las tablas, así sobrevive a los reinicios. Es débil (W/):
+        // identifica la versión del catálogo, no unos bytes concretos, y Tomcat no comprime (gzip) las
+        // respuestas con un ETag fuerte
+        StringBuilder key = new StringBuilder();
+        Instant lastModified = lastChange;
+        for (TableVersion table : tables) {
+            key.append(table.rows()).append(':').append(table.lastModified()).append(';');
+            if (table.lastModified() != null && table.lastModified().isAfter(lastModified)) {
+                lastModified = table.lastModified();
+            }
+        }
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return new CatalogueVersion(etag, lastModified);
+    }
+
+    private record Snapshot(long generation, CatalogueVersion version) {
+    }
+}
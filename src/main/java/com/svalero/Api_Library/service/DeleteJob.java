@@ -0,0 +1,107 @@
+package com.svalero.Api_Library.service;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Borrado en segundo plano de un autor o un libro con muchos préstamos (DeleteJobs): estado y progreso,
+ * tal como lo devuelve GET /delete-jobs/{id}. total es el número de préstamos al empezar: lo cuenta el
+ * propio trabajo, así que es null hasta entonces.
+ */
+public class DeleteJob {
+
+    public enum State { RUNNING, DONE, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String target;
+    private final long targetId;
+    private volatile Long total;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong deleted = new AtomicLong();
+    private volatile int chunks;
+    private volatile int statements;
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    DeleteJob(String target, long targetId) {
+        this.target = target;
+        this.targetId = targetId;
+    }
+
+    void counted(long total) {
+        this.total = total;
+    }
+
+    void chunkDeleted(int rows) {
+        deleted.addAndGet(rows);
+        chunks++;
+    }
+
+    void finished(int statements) {
+        this.statements = statements;
+        finishedAt = Instant.now();
+        state = State.DONE;
+    }
+
+    void failed(Exception e) {
+        error = e.getMessage();
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public long getTargetId() {
+        return targetId;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public long getDeleted() {
+        return deleted.get();
+    }
+
+    /** Fracción de los préstamos ya borrados, de 0 a 1. */
+    public double getProgress() {
+        Long loans = total;
+        if (state == State.DONE || loans != null && loans == 0) {
+            return 1.0;
+        }
+        return loans == null ? 0.0 : Math.min(1.0, (double) deleted.get() / loans);
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    /** Sentencias SQL del trabajo completo; se conoce al terminar. */
+    public int getStatements() {
+        return statements;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
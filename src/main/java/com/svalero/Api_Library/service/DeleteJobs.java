@@ -0,0 +1,127 @@
+package com.svalero.Api_Library.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.svalero.Api_Library.config.QueryStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Borrados de subárboles grandes (un autor o un libro con más de app.delete.background-threshold
+ * préstamos) en segundo plano: los préstamos por tramos de app.delete.chunk-size, cada tramo en su
+ * propia transacción para no bloquear la tabla durante minutos, y al final el resto del subárbol.
+ * Los trabajos se guardan un día para consultar su progreso (GET /delete-jobs/{id}). Mientras uno
+ * está en marcha, otro DELETE del mismo autor o libro recibe ese mismo trabajo en vez de lanzar otro.
+ */
+@Component
+public class DeleteJobs {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeleteJobs.class);
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate transaction;
+    private final long backgroundThreshold;
+    private final int chunkSize;
+    private final Cache<String, DeleteJob> jobs = Caffeine.newBuilder().expireAfterWrite(RETENTION).build();
+    // Trabajos en marcha por destino ("author:7"), para no lanzar dos sobre el mismo subárbol
+    private final Map<String, DeleteJob> running = new ConcurrentHashMap<>();
+
+    public DeleteJobs(@Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${app.delete.background-threshold:10000}") long backgroundThreshold,
+                      @Value("${app.delete.chunk-size:5000}") int chunkSize) {
+        this.taskExecutor = taskExecutor;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.backgroundThreshold = backgroundThreshold;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Hasta cuántos préstamos hay que contar para decidir con inBackground (uno más que el umbral). */
+    public long probeLimit() {
+        return backgroundThreshold + 1;
+    }
+
+    /** Si un subárbol con tantos préstamos se borra en segundo plano. */
+    public boolean inBackground(long loans) {
+        return loans > backgroundThreshold;
+    }
+
+    /** El trabajo que está borrando ese autor o libro, si hay alguno en marcha. */
+    public Optional<DeleteJob> running(String target, long targetId) {
+        return Optional.ofNullable(running.get(key(target, targetId)));
+    }
+
+    /** Primer tramo de ids a borrar: los anteriores ya no están. */
+    public Pageable chunk() {
+        return PageRequest.ofSize(chunkSize);
+    }
+
+    /**
+     * Lanza el borrado, o devuelve el que ya está en marcha para ese destino. countLoans cuenta los préstamos
+     * (para el progreso); deleteChunk borra un tramo y devuelve cuántos, y mientras borre un tramo completo
+     * se repite. Después finish borra lo que queda del subárbol. Cada uno va en su transacción.
+     */
+    public DeleteJob start(String target, long targetId, LongSupplier countLoans, IntSupplier deleteChunk,
+                           Runnable finish) {
+        DeleteJob created = new DeleteJob(target, targetId);
+        DeleteJob job = running.putIfAbsent(key(target, targetId), created);
+        if (job != null) {
+            logger.info("{} {} is already being deleted: job {}", target, targetId, job.getId());
+            return job;
+        }
+        jobs.put(created.getId(), created);
+        logger.info("Deleting {} {} in background: job {}", target, targetId, created.getId());
+        try {
+            taskExecutor.execute(() -> run(created, countLoans, deleteChunk, finish));
+        } catch (RuntimeException e) {
+            running.remove(key(target, targetId), created);
+            throw e;
+        }
+        return created;
+    }
+
+    public Optional<DeleteJob> find(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    private void run(DeleteJob job, LongSupplier countLoans, IntSupplier deleteChunk, Runnable finish) {
+        try {
+            QueryStats stats = QueryStats.measure(() -> {
+                job.counted(transaction.execute(status -> countLoans.getAsLong()));
+                int deleted;
+                do {
+                    deleted = transaction.execute(status -> deleteChunk.getAsInt());
+                    job.chunkDeleted(deleted);
+                } while (deleted == chunkSize);
+                transaction.executeWithoutResult(status -> finish.run());
+            });
+            job.finished(stats.count());
+            logger.info("Delete job {} done: {} loans in {} chunks", job.getId(), job.getDeleted(), job.getChunks());
+        } catch (RuntimeException e) {
+            logger.error("Delete job {} failed after {} loans", job.getId(), job.getDeleted(), e);
+            job.failed(e);
+        } finally {
+            running.remove(key(job.getTarget(), job.getTargetId()), job);
+        }
+    }
+
+    private static String key(String target, long targetId) {
+        return target + ":" + targetId;
+    }
+}
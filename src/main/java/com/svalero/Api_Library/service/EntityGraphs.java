@@ -0,0 +1,157 @@
+package com.svalero.Api_Library.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Entity;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+import org.hibernate.Hibernate;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Inicializa dentro de la transacción las asociaciones que Jackson va a recorrer al serializar una
+ * entidad, y solo esas. Así la entidad se puede cachear o devolver fuera de la sesión sin que salte un
+ * LazyInitializationException, sin cargar de paso el resto del catálogo conectado a ella.
+ *
+ * Se siguen las mismas anotaciones que Jackson: no se entra en las asociaciones con @JsonIgnore o solo
+ * de entrada (WRITE_ONLY), ni en las propiedades que la asociación por la que se llega excluye con
+ * @JsonIgnoreProperties (p.ej. los libros del autor de un libro).
+ *
+ * forEachInitialized recorre ese mismo grafo ya inicializado, sin cargar nada: CatalogueCache lo usa
+ * para pesar cada entrada y saber qué libros contiene.
+ */
+public final class EntityGraphs {
+
+    // Getters de las asociaciones de cada entidad (se calculan una vez por clase)
+    private static final Map<Class<?>, List<Association>> ASSOCIATIONS = new ConcurrentHashMap<>();
+
+    private EntityGraphs() {
+    }
+
+    static <T> T initialize(T root) {
+        if (root != null) {
+            walk(List.of(root), true, entity -> {
+            });
+        }
+        return root;
+    }
+
+    // Un solo recorrido para toda la lista: las entidades que comparten (el autor de varios libros,
+    // su categoría...) se visitan una vez, no una por cada raíz
+    static <T> List<T> initializeAll(List<T> roots) {
+        walk(roots, true, entity -> {
+        });
+        return roots;
+    }
+
+    /** Llama a action con cada entidad del grafo (una vez cada una), sin inicializar asociaciones lazy. */
+    public static void forEachInitialized(Object root, Consumer<Object> action) {
+        if (root != null) {
+            walk(List.of(root), false, action);
+        }
+    }
+
+    private static void walk(List<?> roots, boolean initialize, Consumer<Object> action) {
+        // Asociaciones ya recorridas de cada entidad: se puede llegar a ella otra vez por un camino que
+        // excluye menos propiedades, y entonces hay que recorrer las que faltan
+        Map<Object, Set<String>> walked = new IdentityHashMap<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        roots.forEach(root -> pending.push(new Node(root, Set.of())));
+
+        while (!pending.isEmpty()) {
+            Node next = pending.pop();
+            if (!initialize && !Hibernate.isInitialized(next.entity())) {
+                continue;
+            }
+            Object entity = Hibernate.unproxy(next.entity());
+            if (entity == null) {
+                continue;
+            }
+            Set<String> done = walked.get(entity);
+            if (done == null) {
+                done = new HashSet<>();
+                walked.put(entity, done);
+                action.accept(entity);
+            }
+            for (Association association : associationsOf(entity.getClass())) {
+                if (next.ignored().contains(association.name()) || !done.add(association.name())) {
+                    continue;
+                }
+                // Con la mejora de bytecode el getter de un atributo lazy sin cargar lo cargaría
+                if (!initialize && !Hibernate.isPropertyInitialized(entity, association.name())) {
+                    continue;
+                }
+                Object value = ReflectionUtils.invokeMethod(association.getter(), entity);
+                if (value == null) {
+                    continue;
+                }
+                if (initialize) {
+                    Hibernate.initialize(value);
+                } else if (!Hibernate.isInitialized(value)) {
+                    continue;
+                }
+                if (value instanceof Collection<?> children) {
+                    children.forEach(child -> pending.push(new Node(child, association.ignored())));
+                } else {
+                    pending.push(new Node(value, association.ignored()));
+                }
+            }
+        }
+    }
+
+    private static List<Association> associationsOf(Class<?> type) {
+        return ASSOCIATIONS.computeIfAbsent(type, key -> {
+            List<Association> getters = new ArrayList<>();
+            if (!key.isAnnotationPresent(Entity.class)) {
+                return getters;
+            }
+            for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(key)) {
+                Field field = ReflectionUtils.findField(key, property.getName());
+                if (field != null && property.getReadMethod() != null && isAssociation(field) && isSerialized(field)) {
+                    JsonIgnoreProperties ignore = field.getAnnotation(JsonIgnoreProperties.class);
+                    getters.add(new Association(property.getName(), property.getReadMethod(),
+                            ignore == null ? Set.of() : Set.of(ignore.value())));
+                }
+            }
+            return getters;
+        });
+    }
+
+    private static boolean isAssociation(Field field) {
+        return field.isAnnotationPresent(OneToMany.class) || field.isAnnotationPresent(ManyToOne.class)
+                || field.isAnnotationPresent(OneToOne.class) || field.isAnnotationPresent(ManyToMany.class);
+    }
+
+    private static boolean isSerialized(Field field) {
+        JsonIgnore ignore = field.getAnnotation(JsonIgnore.class);
+        JsonProperty property = field.getAnnotation(JsonProperty.class);
+        return (ignore == null || !ignore.value())
+                && (property == null || property.access() != JsonProperty.Access.WRITE_ONLY);
+    }
+
+    /** Getter de una asociación y las propiedades que Jackson no escribe de lo que hay al otro lado. */
+    private record Association(String name, Method getter, Set<String> ignored) {
+    }
+
+    private record Node(Object entity, Set<String> ignored) {
+    }
+}
@@ -1,28 +1,48 @@
 package com.svalero.Api_Library.service;
 
-import com.svalero.Api_Library.DTO.BookDTO;
 import com.svalero.Api_Library.DTO.LoanDTO;
+import com.svalero.Api_Library.config.CacheConfig;
+import com.svalero.Api_Library.config.MetricsConfig;
+import com.svalero.Api_Library.domain.Book;
 import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.domain.User;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
 import com.svalero.Api_Library.exception.LoanNotFoundException;
+import com.svalero.Api_Library.mapper.LoanMapper;
 import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.repository.UserRepository;
+import io.micrometer.observation.annotation.Observed;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 public class LoanService {
 
     private final LoanRepository loanRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoanMapper loanMapper;
+    private final UserRepository userRepository;
 
     @Autowired
-    public LoanService(LoanRepository loanRepository) {
+    public LoanService(LoanRepository loanRepository, ApplicationEventPublisher eventPublisher, LoanMapper loanMapper,
+                       UserRepository userRepository) {
         this.loanRepository = loanRepository;
+        this.eventPublisher = eventPublisher;
+        this.loanMapper = loanMapper;
+        this.userRepository = userRepository;
     }
 
     // =========================
@@ -30,11 +50,14 @@ public class LoanService {
     // =========================
 
     /** Lista todos los préstamos. */
+    @Transactional(readOnly = true)
     public List<Loan> getAllLoans() {
         return loanRepository.findAll();
     }
 
-    /** Devuelve un préstamo por ID o lanza excepción si no existe. */
+    /** Devuelve un préstamo por ID o lanza excepción si no existe (cacheado). */
+    @Cacheable(CacheConfig.LOANS)
+    @Transactional(readOnly = true)
     public Loan getLoanById(long id) throws LoanNotFoundException {
         return loanRepository.findById(id)
                 .orElseThrow(() -> new LoanNotFoundException("Loan not found with id: " + id));
@@ -43,16 +66,19 @@ public class LoanService {
     /** Crea/guarda un nuevo préstamo. */
     @Transactional //indica que un metodo o clase debe ejecutarse dentro de una transaccion de bdd.
     public Loan saveLoan(Loan loan) {
-        return loanRepository.save(loan);
+        resolveUser(loan);
+        Loan savedLoan = loanRepository.save(loan);
+        publishChange(savedLoan.getId(), bookIds(null, savedLoan.getBook()));
+        return savedLoan;
     }
 
-    /** Elimina un préstamo por ID, validando que exista. */
+    /** Elimina un préstamo por ID con un solo DELETE; si no borra ninguna fila, no existía. */
     @Transactional
     public void deleteLoan(long id) throws LoanNotFoundException {
-        if (!loanRepository.existsById(id)) {
+        if (loanRepository.removeById(id) == 0) {
             throw new LoanNotFoundException("Loan not found with id: " + id);
         }
-        loanRepository.deleteById(id);
+        publishChange(id);
     }
 
     /** Reemplaza por completo un préstamo existente (PUT). */
@@ -60,6 +86,7 @@ public class LoanService {
     public Loan updateLoan(long id, Loan loanDetails) throws LoanNotFoundException {
         // Si no existe, esto lanza LoanNotFoundException
         Loan existingLoan = getLoanById(id);
+        Book previousBook = existingLoan.getBook();
 
         // aquí copio campo a campo lo que sí permito actualizar.
         existingLoan.setName(loanDetails.getName());
@@ -68,8 +95,11 @@ public class LoanService {
         existingLoan.setLoanDate(loanDetails.getLoanDate());
         existingLoan.setQuantity(loanDetails.getQuantity());
         existingLoan.setBook(loanDetails.getBook()); // OJO: se espera un Book válido con ID existente
+        resolveUser(existingLoan);
 
-        return loanRepository.save(existingLoan);
+        Loan savedLoan = loanRepository.save(existingLoan);
+        publishChange(id, bookIds(previousBook, savedLoan.getBook()));
+        return savedLoan;
     }
 
     /** Actualización parcial (PATCH) con mapa de campos. */
@@ -112,10 +142,8 @@ public class LoanService {
             }
 
             // Para el resto de campos simples (name, customerName, email, etc.) tiro de reflexión
-            Field field = ReflectionUtils.findField(Loan.class, key);
+            Field field = PatchFields.writable(Loan.class, key);
             if (field != null) {
-                field.setAccessible(true);
-
                 // Conversión muy básica para Strings numéricos → int/long si el field lo requiere
                 Class<?> type = field.getType();
                 Object coerced = value;
@@ -137,7 +165,27 @@ public class LoanService {
             }
         }
 
-        return loanRepository.save(loan);
+        if (updates.containsKey("customerName") || updates.containsKey("email")) {
+            resolveUser(loan);
+        }
+
+        Loan savedLoan = loanRepository.save(loan);
+        publishChange(id, bookIds(null, savedLoan.getBook()));
+        return savedLoan;
+    }
+
+    /**
+     * Enlaza el préstamo con su usuario: el que tiene su email (es único) o, sin email o sin usuario con
+     * ese email, el único usuario con su nombre. Si no hay ninguno (o hay varios con el nombre) queda sin
+     * usuario. Mismo criterio que LoanUserMigration para los préstamos anteriores a la columna user_id.
+     */
+    private void resolveUser(Loan loan) {
+        User user = loan.getEmail() == null ? null : userRepository.findByEmail(loan.getEmail());
+        if (user == null && loan.getCustomerName() != null) {
+            List<User> named = userRepository.findTop2ByName(loan.getCustomerName());
+            user = named.size() == 1 ? named.get(0) : null;
+        }
+        loan.setUser(user);
     }
 
     // =========================
@@ -145,28 +193,58 @@ public class LoanService {
     // =========================
 
     /** Busca por nombre de cliente. */
+    @Transactional(readOnly = true)
     public List<Loan> getLoanByCustomerName(String customerName) {
         return loanRepository.findByCustomerName(customerName);
     }
 
     /** Busca por fecha exacta. */
+    @Transactional(readOnly = true)
     public List<Loan> getLoanByLoanDate(LocalDate loanDate) {
         return loanRepository.findByLoanDate(loanDate);
     }
 
     /** Busca entre dos fechas (inclusive). */
+    @Transactional(readOnly = true)
     public List<Loan> getLoansBetweenDates(LocalDate startDate, LocalDate endDate) {
         return loanRepository.findByLoanDateBetween(startDate, endDate);
     }
 
     /** Busca por cantidad EXACTA. */
+    @Transactional(readOnly = true)
     public List<Loan> getLoanByQuantity(int quantity) {
         return loanRepository.findByQuantity(quantity);
     }
 
     /** Busca por cantidad MAYOR QUE usando SQL nativa (coincide con el endpoint /quantity/native/gt/{min}). */
+    @Transactional(readOnly = true)
     public List<Loan> findLoansWithQuantityGreaterThanNative(int min) {
-        return loanRepository.findLoansWithQuantityGreaterThanNative(min);
+        // La consulta nativa no admite EntityGraph: los libros se cargan aquí, por lotes
+        List<Loan> loans = loanRepository.findLoansWithQuantityGreaterThanNative(min);
+        loans.forEach(loan -> Hibernate.initialize(loan.getBook()));
+        return loans;
+    }
+
+    /** Avisa a las cachés de que el préstamo ha cambiado (sin saber su libro: se invalida todo el catálogo). */
+    private void publishChange(long id) {
+        eventPublisher.publishEvent(new CatalogueChangedEvent(Loan.class, id));
+    }
+
+    /** Avisa a las cachés de que el préstamo ha cambiado; solo salen las entradas con esos libros. */
+    private void publishChange(long id, Set<Long> bookIds) {
+        eventPublisher.publishEvent(new CatalogueChangedEvent(Loan.class, id, bookIds));
+    }
+
+    // Ids del libro anterior y el actual (sin cargarlos: el id de una referencia lazy no hace consulta)
+    private static Set<Long> bookIds(Book before, Book after) {
+        Set<Long> ids = new HashSet<>();
+        if (before != null) {
+            ids.add(before.getId());
+        }
+        if (after != null) {
+            ids.add(after.getId());
+        }
+        return ids;
     }
 
     // =========================
@@ -175,28 +253,9 @@ public class LoanService {
 
     /**
      * Convierto Loan a LoanDTO para no devolver todo el objeto (evito ciclos y JSON enormes).
-     * Aquí solo saco lo que quiero exponer por API.
+     * Aquí solo saco lo que quiero exponer por API. El mapeo lo genera MapStruct (LoanMapper).
      */
     public LoanDTO convertToDTO(Loan loan) {
-        LoanDTO dto = new LoanDTO();
-
-        dto.setId(loan.getId());
-        dto.setName(loan.getName());
-        dto.setCustomerName(loan.getCustomerName());
-        dto.setEmail(loan.getEmail());
-        dto.setLoanDate(loan.getLoanDate());
-        dto.setQuantity(loan.getQuantity());
-
-        // DTO anidado para el libro relacionado (null-safe por si no hay libro asignado)
-        if (loan.getBook() != null) {
-            BookDTO bookDTO = new BookDTO();
-            bookDTO.setId(loan.getBook().getId());
-            bookDTO.setTitle(loan.getBook().getTitle());
-            dto.setBook(bookDTO);
-        } else {
-            dto.setBook(null);
-        }
-
-        return dto;
+        return loanMapper.toDto(loan);
     }
 }
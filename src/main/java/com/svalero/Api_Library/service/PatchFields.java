@@ -0,0 +1,37 @@
+package com.svalero.Api_Library.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * Campos que un PATCH puede tocar por reflexión. Quedan fuera el id y los que lleva Hibernate
+ * (version de @Version y updated_at de @UpdateTimestamp): escribirlos a mano saltaría el bloqueo
+ * optimista y falsearía los ETag/Last-Modified. Es lo mismo que hace Jackson en POST y PUT con los
+ * campos READ_ONLY, que también se ignoran aquí.
+ */
+public final class PatchFields {
+
+    private PatchFields() {
+    }
+
+    /** El campo accesible, o null si no existe o no se puede modificar (la clave se ignora). */
+    public static Field writable(Class<?> type, String name) {
+        Field field = ReflectionUtils.findField(type, name);
+        if (field == null || field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(Version.class)
+                || field.isAnnotationPresent(UpdateTimestamp.class) || isReadOnly(field)) {
+            return null;
+        }
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static boolean isReadOnly(Field field) {
+        JsonProperty property = field.getAnnotation(JsonProperty.class);
+        return property != null && property.access() == JsonProperty.Access.READ_ONLY;
+    }
+}
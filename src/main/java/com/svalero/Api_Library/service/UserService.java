@@ -1,15 +1,23 @@
 package com.svalero.Api_Library.service;
 
+import com.svalero.Api_Library.DTO.LoanDTO;
 import com.svalero.Api_Library.DTO.UserInDto;
+import com.svalero.Api_Library.config.MetricsConfig;
+import com.svalero.Api_Library.domain.Loan;
 import com.svalero.Api_Library.domain.User;
 import com.svalero.Api_Library.exception.UserNotFoundException;
+import com.svalero.Api_Library.mapper.LoanMapper;
+import com.svalero.Api_Library.mapper.UserMapper;
+import com.svalero.Api_Library.repository.LoanRepository;
 import com.svalero.Api_Library.repository.UserRepository;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
-import org.modelmapper.ModelMapper;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
@@ -17,35 +25,48 @@ import java.util.List;
 import java.util.Map;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 public class UserService {
     private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final LoanRepository loanRepository;
+    private final LoanMapper loanMapper;
+
+    // Primera página del historial: antes de cualquier préstamo
+    private static final LocalDate HISTORY_START = LocalDate.of(9999, 12, 31);
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, LoanRepository loanRepository,
+                       LoanMapper loanMapper) {
         this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.loanRepository = loanRepository;
+        this.loanMapper = loanMapper;
     }
     @Autowired
     private PasswordEncoder passwordEncoder;
-    @Autowired
-    private ModelMapper modelMapper;
 
     //para obtener todos los usuarios
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
     //para obtener usuario por email
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
     //para obtener usuarios por nombre de usuario
+    @Transactional(readOnly = true)
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
     //para obtener los usuarios activos
+    @Transactional(readOnly = true)
     public List<User> getActiveUsers() {
         return userRepository.findByActiveTrue();
     }
@@ -53,7 +74,7 @@ public class UserService {
     //para guardar un nuevo usuario
     public User saveUser(UserInDto user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        User newUser = modelMapper.map(user, User.class);
+        User newUser = userMapper.toEntity(user);
         return userRepository.save(newUser);
     }
 
@@ -76,10 +97,9 @@ public class UserService {
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
 
         updates.forEach((key, value) -> {
-            Field field = ReflectionUtils.findField(User.class, key);
+            Field field = PatchFields.writable(User.class, key);
             if (field == null) return;
 
-            field.setAccessible(true);
             Object toSet = value;
             Class<?> type = field.getType();
 
@@ -103,14 +123,27 @@ public class UserService {
     }
 
     // para eliminar un usuario por id
+    @Transactional
     public void deleteUser(long id) throws UserNotFoundException {
-        if (!userRepository.existsById(id)) {
+        if (userRepository.removeById(id) == 0) {
+            throw new UserNotFoundException("User not found with id: " + id);
+        }
+    }
+
+    // para obtener el historial de préstamos de un usuario, una página (keyset) del más reciente hacia atrás
+    // desde el último préstamo visto (beforeDate, before). Solo si sale vacía se mira si el usuario existe
+    @Transactional(readOnly = true)
+    public List<LoanDTO> getLoans(long id, LocalDate beforeDate, long before, int size) throws UserNotFoundException {
+        List<Loan> loans = loanRepository.findHistoryPage(id, beforeDate == null ? HISTORY_START : beforeDate,
+                before, Limit.of(size));
+        if (loans.isEmpty() && !userRepository.existsById(id)) {
             throw new UserNotFoundException("User not found with id: " + id);
         }
-        userRepository.deleteById(id);
+        return loans.stream().map(loanMapper::toDto).toList();
     }
 
     // ===================== CONSULTAS SQL =====================
+    @Transactional(readOnly = true)
     public List<User> findUsersByNameContaining(String keyword) {
         return userRepository.findUsersByNameContainingNative(keyword);
     }
@@ -0,0 +1,91 @@
+package com.svalero.Api_Library.tools;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Contadores de un endpoint en los logs: llamadas, errores y llamadas por minuto.
+ *
+ * Los minutos se guardan codificados como yyyyMMddHHmm (hora local del log), que es lo que sale
+ * directamente de los dígitos de la traza sin crear fechas.
+ */
+public final class EndpointStats {
+
+    private long calls;
+    private long errors;
+    private final Map<Long, long[]> perMinute = new HashMap<>();
+
+    // Las líneas de un mismo endpoint suelen venir seguidas dentro del mismo minuto
+    private long lastMinute = -1;
+    private long[] lastCounter;
+
+    void record(long minute, boolean error) {
+        calls++;
+        if (error) {
+            errors++;
+        }
+        if (minute != lastMinute) {
+            lastCounter = perMinute.computeIfAbsent(minute, key -> new long[1]);
+            lastMinute = minute;
+        }
+        lastCounter[0]++;
+    }
+
+    void merge(EndpointStats other) {
+        calls += other.calls;
+        errors += other.errors;
+        other.perMinute.forEach((minute, count) ->
+                perMinute.computeIfAbsent(minute, key -> new long[1])[0] += count[0]);
+        lastMinute = -1;
+    }
+
+    public long calls() {
+        return calls;
+    }
+
+    public long errors() {
+        return errors;
+    }
+
+    /** Llamadas por minuto, en orden cronológico. */
+    public SortedMap<LocalDateTime, Long> perMinute() {
+        SortedMap<LocalDateTime, Long> histogram = new TreeMap<>();
+        perMinute.forEach((minute, count) -> histogram.put(toDateTime(minute), count[0]));
+        return histogram;
+    }
+
+    /** Minuto con más llamadas (el primero si hay empate), o null si no hay ninguna. */
+    public LocalDateTime peakMinute() {
+        long peak = -1;
+        long peakCalls = 0;
+        for (Map.Entry<Long, long[]> entry : perMinute.entrySet()) {
+            long count = entry.getValue()[0];
+            if (count > peakCalls || (count == peakCalls && entry.getKey() < peak)) {
+                peak = entry.getKey();
+                peakCalls = count;
+            }
+        }
+        return peak < 0 ? null : toDateTime(peak);
+    }
+
+    public long peakCalls() {
+        long peakCalls = 0;
+        for (long[] count : perMinute.values()) {
+            peakCalls = Math.max(peakCalls, count[0]);
+        }
+        return peakCalls;
+    }
+
+    static long minuteKey(LocalDateTime dateTime) {
+        return (((dateTime.getYear() * 100L + dateTime.getMonthValue()) * 100 + dateTime.getDayOfMonth()) * 100
+                + dateTime.getHour()) * 100 + dateTime.getMinute();
+    }
+
+    private static LocalDateTime toDateTime(long minute) {
+        return LocalDateTime.of((int) (minute / 100_000_000), (int) (minute / 1_000_000 % 100),
+                (int) (minute / 10_000 % 100), (int) (minute / 100 % 100), (int) (minute % 100));
+    }
+}
@@ -0,0 +1,199 @@
+package com.svalero.Api_Library.tools;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Informe de endpoints a partir de los logs rotados (logs/Api-Library-AAAA-MM-DD.log y
+ * logs/access.log): llamadas, errores, minuto pico y, opcionalmente, histograma por minuto.
+ *
+ *   mvn -q compile
+ *   java -cp target/classes com.svalero.Api_Library.tools.LogAnalyzer [opciones] [ficheros o directorios]
+ *
+ *   --top=N          endpoints a mostrar (20)
+ *   --minutes        histograma por minuto de cada endpoint mostrado
+ *   --filter=TEXTO   en los logs de texto, solo loggers/métodos que contengan TEXTO ("Controller"; vacío = todos)
+ *   --threads=N      hilos de análisis (uno por núcleo)
+ *
+ * Cada fichero se mapea en memoria (mmap) en trozos de 64 MB alineados a línea y los trozos de todos
+ * los ficheros se analizan en paralelo; cada trozo acumula en sus propios contadores y al final se
+ * suman, así que no hay sincronización mientras se lee. Sin dependencias: no arranca Spring.
+ */
+public final class LogAnalyzer {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+    // Lo que se mapea de más tras cada trozo para terminar su última línea
+    private static final int MAX_LINE = 1024 * 1024;
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final String loggerFilter;
+    private final int chunkSize;
+    private final int threads;
+    private final ZoneId zone;
+
+    public LogAnalyzer(String loggerFilter, int chunkSize, int threads, ZoneId zone) {
+        this.loggerFilter = loggerFilter;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+        this.zone = zone;
+    }
+
+    /** Resultado: endpoints ordenados de más a menos llamadas, y volumen analizado. */
+    public record Report(Map<String, EndpointStats> endpoints, int files, long bytes, long lines, long elapsedNanos) {
+    }
+
+    public Report analyze(List<Path> paths) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<Path> files = expand(paths);
+        long bytes = 0;
+        List<Future<LogChunkParser>> chunks = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (Path file : files) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    long size = channel.size();
+                    bytes += size;
+                    // El mapeo sigue siendo válido después de cerrar el canal
+                    for (long from = 0; from < size; from += chunkSize) {
+                        long mapFrom = Math.max(0, from - 1);
+                        long mapTo = Math.min(size, from + chunkSize + MAX_LINE);
+                        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, mapFrom, mapTo - mapFrom);
+                        int end = (int) (Math.min(size, from + chunkSize) - mapFrom);
+                        boolean skipFirstLine = from > 0;
+                        chunks.add(executor.submit(() -> {
+                            LogChunkParser parser = new LogChunkParser(loggerFilter, zone);
+                            parser.parse(chunk, end, skipFirstLine);
+                            return parser;
+                        }));
+                    }
+                }
+            }
+
+            Map<String, EndpointStats> merged = new HashMap<>();
+            long lines = 0;
+            for (Future<LogChunkParser> chunk : chunks) {
+                LogChunkParser parser = get(chunk);
+                lines += parser.lines();
+                parser.result().forEach((endpoint, stats) -> merged.merge(endpoint, stats, (a, b) -> {
+                    a.merge(b);
+                    return a;
+                }));
+            }
+
+            Map<String, EndpointStats> sorted = new LinkedHashMap<>();
+            merged.entrySet().stream()
+                    .sorted(Map.Entry.<String, EndpointStats>comparingByValue(
+                            Comparator.comparingLong(EndpointStats::calls).reversed())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+            return new Report(sorted, files.size(), bytes, lines, System.nanoTime() - start);
+        }
+    }
+
+    private static LogChunkParser get(Future<LogChunkParser> chunk) throws IOException, InterruptedException {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException("Error analizando el log", e.getCause());
+        }
+    }
+
+    // Los directorios se sustituyen por sus ficheros .log
+    private static List<Path> expand(List<Path> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    children.filter(child -> child.getFileName().toString().endsWith(".log"))
+                            .filter(Files::isRegularFile)
+                            .sorted()
+                            .forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        return files;
+    }
+
+    // ===================== INFORME =====================
+
+    public static void print(Report report, PrintStream out, int top, boolean minutes) {
+        double seconds = report.elapsedNanos() / 1e9;
+        out.printf("%d ficheros, %.1f MB, %d líneas en %.3f s (%.0f MB/s)%n%n", report.files(),
+                report.bytes() / 1e6, report.lines(), seconds, report.bytes() / 1e6 / Math.max(seconds, 1e-9));
+        out.printf("%-50s %10s %8s %9s  %s%n", "Endpoint", "Llamadas", "Errores", "Pico/min", "Minuto pico");
+
+        List<Map.Entry<String, EndpointStats>> shown = report.endpoints().entrySet().stream().limit(top).toList();
+        for (Map.Entry<String, EndpointStats> entry : shown) {
+            EndpointStats stats = entry.getValue();
+            LocalDateTime peak = stats.peakMinute();
+            out.printf("%-50s %10d %8d %9d  %s%n", entry.getKey(), stats.calls(), stats.errors(),
+                    stats.peakCalls(), peak == null ? "-" : MINUTE.format(peak));
+        }
+
+        if (minutes) {
+            for (Map.Entry<String, EndpointStats> entry : shown) {
+                EndpointStats stats = entry.getValue();
+                out.printf("%n%s%n", entry.getKey());
+                long scale = Math.max(1, (stats.peakCalls() + 59) / 60);
+                stats.perMinute().forEach((minute, count) ->
+                        out.printf("  %s %6d %s%n", MINUTE.format(minute), count, "#".repeat((int) ((count + scale - 1) / scale))));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int top = 20;
+        boolean minutes = false;
+        String filter = "Controller";
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> paths = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--top=")) {
+                top = Integer.parseInt(arg.substring("--top=".length()));
+            } else if (arg.equals("--minutes")) {
+                minutes = true;
+            } else if (arg.startsWith("--filter=")) {
+                filter = arg.substring("--filter=".length());
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--")) {
+                System.err.println("Opción desconocida: " + arg);
+                System.exit(2);
+            } else {
+                paths.add(Path.of(arg));
+            }
+        }
+        if (paths.isEmpty()) {
+            paths.add(Path.of("logs"));
+        }
+
+        LogAnalyzer analyzer = new LogAnalyzer(filter, DEFAULT_CHUNK_SIZE, threads, ZoneId.systemDefault());
+        print(analyzer.analyze(paths), System.out, top, minutes);
+    }
+}
@@ -0,0 +1,312 @@
+package com.svalero.Api_Library.tools;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recorre un trozo de un log (un ByteBuffer mapeado) y acumula las llamadas por endpoint.
+ *
+ * Trabaja sobre los bytes: solo lee la cabecera de cada línea y no crea Strings salvo la primera
+ * vez que ve un endpoint. Entiende los tres formatos que ha tenido la aplicación:
+ *
+ *   %d %p %C{1} {%M} [%t] %m    2025-09-09 20:23:09,320 INFO c.s.A.c.BookController {getAllBooks} [exec-7] ...
+ *   %d %p %logger{0} [%t] %m    2025-10-19 13:07:14,156 WARN GlobalExceptionHandler [main] ...
+ *   access.log (JSON)           {"ts":1760870000000,"method":"GET","route":"/books/{id}","status":200,...}
+ *
+ * En los dos primeros el endpoint es Clase#método (o solo Clase si no hay método) y un error es una
+ * línea ERROR; en el JSON es "MÉTODO ruta" y un error es un estado 5xx. Las líneas que no empiezan
+ * por fecha ni por '{' (trazas de excepciones, banner...) se ignoran.
+ */
+final class LogChunkParser {
+
+    private static final byte[] TS_FIELD = "\"ts\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] METHOD_FIELD = "\"method\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ROUTE_FIELD = "\"route\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STATUS_FIELD = "\"status\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERROR_LEVEL = "ERROR".getBytes(StandardCharsets.US_ASCII);
+
+    // Marca de los endpoints que no pasan el filtro, para no volver a evaluarlos
+    private static final EndpointStats SKIPPED = new EndpointStats();
+
+    private final String loggerFilter;
+    private final ZoneId zone;
+
+    private ByteBuffer buffer;
+    private final Map<Key, EndpointStats> endpoints = new HashMap<>();
+    private final Key probe = new Key(new byte[256], 0);
+    private long lines;
+
+    // Conversión de ts (epoch) a minuto local, cacheada porque las líneas vienen en orden
+    private long lastEpochMinute = Long.MIN_VALUE;
+    private long lastMinuteKey;
+
+    LogChunkParser(String loggerFilter, ZoneId zone) {
+        this.loggerFilter = loggerFilter;
+        this.zone = zone;
+    }
+
+    /**
+     * Procesa las líneas que empiezan antes de la posición end. Si skipFirstLine, la primera línea
+     * (incompleta) pertenece al trozo anterior y se salta hasta el primer salto de línea.
+     */
+    void parse(ByteBuffer chunk, int end, boolean skipFirstLine) {
+        buffer = chunk;
+        int limit = chunk.limit();
+        int position = 0;
+        if (skipFirstLine) {
+            position = indexOf((byte) '\n', 0, limit) + 1;
+            if (position == 0) {
+                return;
+            }
+        }
+        while (position < end && position < limit) {
+            int lineEnd = indexOf((byte) '\n', position, limit);
+            if (lineEnd < 0) {
+                lineEnd = limit;
+            }
+            parseLine(position, lineEnd);
+            lines++;
+            position = lineEnd + 1;
+        }
+    }
+
+    long lines() {
+        return lines;
+    }
+
+    Map<String, EndpointStats> result() {
+        Map<String, EndpointStats> result = new HashMap<>();
+        endpoints.forEach((key, stats) -> {
+            if (stats != SKIPPED) {
+                result.merge(key.toString(), stats, (a, b) -> {
+                    a.merge(b);
+                    return a;
+                });
+            }
+        });
+        return result;
+    }
+
+    // ===================== LÍNEAS =====================
+
+    private void parseLine(int start, int end) {
+        if (end - start > 0 && buffer.get(start) == '{') {
+            parseJsonLine(start, end);
+        } else if (end - start >= 24 && isTimestamp(start)) {
+            parseTextLine(start, end);
+        }
+    }
+
+    private boolean isTimestamp(int start) {
+        return buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-' && buffer.get(start + 10) == ' '
+                && buffer.get(start + 13) == ':' && isDigit(start) && isDigit(start + 15);
+    }
+
+    private void parseTextLine(int start, int end) {
+        long minute = digits(start, 4) * 100_000_000L + digits(start + 5, 2) * 1_000_000L
+                + digits(start + 8, 2) * 10_000L + digits(start + 11, 2) * 100L + digits(start + 14, 2);
+
+        // Fecha con milisegundos (23 caracteres), nivel y logger separados por espacios
+        int levelStart = start + 24;
+        int levelEnd = indexOf((byte) ' ', levelStart, end);
+        if (levelEnd < 0) {
+            return;
+        }
+        boolean error = matches(ERROR_LEVEL, levelStart, levelEnd);
+        int loggerStart = levelEnd + 1;
+        int loggerEnd = indexOf((byte) ' ', loggerStart, end);
+        if (loggerEnd < 0) {
+            return;
+        }
+        // Solo el nombre simple de la clase: c.s.A.c.BookController -> BookController
+        int simpleName = loggerStart;
+        for (int i = loggerStart; i < loggerEnd; i++) {
+            if (buffer.get(i) == '.') {
+                simpleName = i + 1;
+            }
+        }
+
+        probe.length = 0;
+        probe.append(buffer, simpleName, loggerEnd);
+        if (loggerEnd + 1 < end && buffer.get(loggerEnd + 1) == '{') {
+            int methodEnd = indexOf((byte) '}', loggerEnd + 2, end);
+            if (methodEnd > 0) {
+                probe.append((byte) '#');
+                probe.append(buffer, loggerEnd + 2, methodEnd);
+            }
+        }
+        record(minute, error, true);
+    }
+
+    private void parseJsonLine(int start, int end) {
+        int ts = find(TS_FIELD, start, end);
+        int method = find(METHOD_FIELD, start, end);
+        int route = find(ROUTE_FIELD, start, end);
+        int status = find(STATUS_FIELD, start, end);
+        if (ts < 0 || method < 0 || route < 0 || status < 0) {
+            return;
+        }
+
+        long epochMinute = Math.floorDiv(number(ts, end), 60_000L);
+        if (epochMinute != lastEpochMinute) {
+            LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * 60), zone);
+            lastMinuteKey = EndpointStats.minuteKey(dateTime);
+            lastEpochMinute = epochMinute;
+        }
+
+        probe.length = 0;
+        probe.append(buffer, method, stringEnd(method, end));
+        probe.append((byte) ' ');
+        probe.append(buffer, route, stringEnd(route, end));
+        record(lastMinuteKey, number(status, end) >= 500, false);
+    }
+
+    private void record(long minute, boolean error, boolean filtered) {
+        probe.rehash();
+        EndpointStats stats = endpoints.get(probe);
+        if (stats == null) {
+            Key key = probe.copy();
+            stats = filtered && !key.toString().contains(loggerFilter) ? SKIPPED : new EndpointStats();
+            endpoints.put(key, stats);
+        }
+        if (stats != SKIPPED) {
+            stats.record(minute, error);
+        }
+    }
+
+    // ===================== BYTES =====================
+
+    private int indexOf(byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Posición justo detrás del patrón, o -1
+    private int find(byte[] pattern, int from, int to) {
+        outer:
+        for (int i = from; i <= to - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i + pattern.length;
+        }
+        return -1;
+    }
+
+    private boolean matches(byte[] pattern, int from, int to) {
+        if (to - from != pattern.length) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            if (buffer.get(from + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Fin de un string JSON (la comilla de cierre), saltando los caracteres escapados
+    private int stringEnd(int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private long number(int from, int to) {
+        long value = 0;
+        for (int i = from; i < to && isDigit(i); i++) {
+            value = value * 10 + (buffer.get(i) - '0');
+        }
+        return value;
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            value = value * 10 + (buffer.get(i) - '0');
+        }
+        return value;
+    }
+
+    private boolean isDigit(int index) {
+        byte b = buffer.get(index);
+        return b >= '0' && b <= '9';
+    }
+
+    /** Clave del mapa de endpoints: bytes del nombre, sin crear un String por línea. */
+    private static final class Key {
+
+        private byte[] bytes;
+        private int length;
+        private int hash;
+
+        Key(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        void append(byte value) {
+            ensureCapacity(length + 1);
+            bytes[length++] = value;
+        }
+
+        void append(ByteBuffer buffer, int from, int to) {
+            ensureCapacity(length + to - from);
+            buffer.get(from, bytes, length, to - from);
+            length += to - from;
+        }
+
+        void rehash() {
+            int h = 1;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + bytes[i];
+            }
+            hash = h;
+        }
+
+        Key copy() {
+            Key key = new Key(Arrays.copyOf(bytes, length), length);
+            key.hash = hash;
+            return key;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(bytes, 0, length, key.bytes, 0, key.length);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
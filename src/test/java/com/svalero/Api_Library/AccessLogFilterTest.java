@@ -0,0 +1,105 @@
+package com.svalero.Api_Library;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svalero.Api_Library.config.AccessLogFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests del log de accesos en JSON (sin Spring: se lee lo que llega al logger ACCESS).
+ */
+class AccessLogFilterTest {
+
+    private final AccessLogFilter filter = new AccessLogFilter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("ACCESS");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    private JsonNode lastLine() throws Exception {
+        assertThat(appender.list).hasSize(1);
+        return objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+    }
+
+    @Test
+    @DisplayName("Escribe una línea JSON con la plantilla de la ruta, estado, bytes y usuario")
+    void logsRouteStatusBytesAndUser() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books/7");
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/books/{id}");
+            req.setAttribute(AccessLogFilter.USER_ATTRIBUTE, "isabel123");
+            HttpServletResponse httpResponse = (HttpServletResponse) res;
+            httpResponse.setStatus(201);
+            httpResponse.setCharacterEncoding("UTF-8");
+            res.getWriter().write("{\"title\":\"Señor\"}");
+        };
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+
+        JsonNode line = lastLine();
+        assertThat(line.get("method").asText()).isEqualTo("GET");
+        assertThat(line.get("route").asText()).isEqualTo("/books/{id}");
+        assertThat(line.get("status").asInt()).isEqualTo(201);
+        assertThat(line.get("bytes").asLong())
+                .isEqualTo("{\"title\":\"Señor\"}".getBytes(StandardCharsets.UTF_8).length);
+        assertThat(line.get("ms").asDouble()).isGreaterThanOrEqualTo(0);
+        assertThat(line.get("user").asText()).isEqualTo("isabel123");
+        // Fuera de QueryStatsFilter no hay contador de SQL
+        assertThat(line.has("queries")).isFalse();
+        assertThat(response.getContentAsString()).isEqualTo("{\"title\":\"Señor\"}");
+    }
+
+    @Test
+    @DisplayName("Sin plantilla usa la URI (escapada) y sin usuario escribe null")
+    void fallsBackToEscapedUri() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/no\"existe\\");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) ->
+                ((HttpServletResponse) res).setStatus(404));
+
+        JsonNode line = lastLine();
+        assertThat(line.get("route").asText()).isEqualTo("/no\"existe\\");
+        assertThat(line.get("status").asInt()).isEqualTo(404);
+        assertThat(line.get("bytes").asLong()).isZero();
+        assertThat(line.get("user").isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Si la petición falla con una excepción se registra como 500")
+    void logsExceptionsAs500() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/books/1");
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> { throw new IllegalStateException("boom"); }));
+
+        assertThat(lastLine().get("status").asInt()).isEqualTo(500);
+    }
+}
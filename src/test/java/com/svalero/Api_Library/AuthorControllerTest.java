@@ -7,6 +7,7 @@ import com.svalero.Api_Library.exception.AuthorNotFoundException;
 import com.svalero.Api_Library.security.JwtAuthenticationFilter;
 import com.svalero.Api_Library.security.JwtRequestFilter;
 import com.svalero.Api_Library.service.AuthorService;
+import com.svalero.Api_Library.service.CatalogueVersionService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,10 +17,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -45,6 +48,10 @@ class AuthorControllerTest {
     @MockBean
     AuthorService authorService;
 
+    // Versión del catálogo para los GET condicionales (por defecto: nunca "not modified")
+    @MockBean
+    CatalogueVersionService catalogueVersionService;
+
     // Por si algún bean de seguridad se cuela
     @MockBean
     JwtRequestFilter jwtRequestFilter;
@@ -179,6 +186,68 @@ class AuthorControllerTest {
         verifyNoMoreInteractions(authorService);
     }
 
+    // =============== GET: búsquedas geográficas ==============
+
+    @Test
+    @DisplayName("GET /authors/near?lat=..&lon=..&radiusKm=.. -> 200 OK")
+    void getAuthorsNear_Returns200() throws Exception {
+        when(authorService.getAuthorsNear(40.4, -3.7, 50.0)).thenReturn(List.of(
+                a(1, "Frank", "Herbert", "USA", LocalDate.parse("1920-10-08"))
+        ));
+
+        mockMvc.perform(get("/authors/near")
+                        .queryParam("lat", "40.4")
+                        .queryParam("lon", "-3.7")
+                        .queryParam("radiusKm", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Frank"));
+
+        verify(authorService).getAuthorsNear(40.4, -3.7, 50.0);
+        verifyNoMoreInteractions(authorService);
+    }
+
+    @Test
+    @DisplayName("GET /authors/near -> 400 si la latitud está fuera de rango")
+    void getAuthorsNear_Returns400_WhenLatitudeOutOfRange() throws Exception {
+        mockMvc.perform(get("/authors/near")
+                        .queryParam("lat", "120")
+                        .queryParam("lon", "-3.7")
+                        .queryParam("radiusKm", "50"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(authorService);
+    }
+
+    @Test
+    @DisplayName("GET /authors/near -> 400 si el radio pasa del máximo")
+    void getAuthorsNear_Returns400_WhenRadiusTooLarge() throws Exception {
+        mockMvc.perform(get("/authors/near")
+                        .queryParam("lat", "40.4")
+                        .queryParam("lon", "-3.7")
+                        .queryParam("radiusKm", "20000"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(authorService);
+    }
+
+    @Test
+    @DisplayName("GET /authors/nearest?lat=..&lon=..&k=.. -> 200 OK")
+    void getNearestAuthors_Returns200() throws Exception {
+        when(authorService.getNearestAuthors(40.4, -3.7, 3)).thenReturn(List.of(
+                a(2, "William", "Gibson", "Canada", LocalDate.parse("1948-03-17"))
+        ));
+
+        mockMvc.perform(get("/authors/nearest")
+                        .queryParam("lat", "40.4")
+                        .queryParam("lon", "-3.7")
+                        .queryParam("k", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].surname").value("Gibson"));
+
+        verify(authorService).getNearestAuthors(40.4, -3.7, 3);
+        verifyNoMoreInteractions(authorService);
+    }
+
     // =============== GET: por id ==============
 
     @Test
@@ -209,6 +278,21 @@ class AuthorControllerTest {
         verifyNoMoreInteractions(authorService);
     }
 
+    @Test
+    @DisplayName("GET /authors/{id} -> 404 si no existe aunque el If-None-Match coincida")
+    void getById_Returns404_WhenNotFound_EvenIfNotModified() throws Exception {
+        when(catalogueVersionService.checkNotModified(any()))
+                .thenAnswer(inv -> inv.<WebRequest>getArgument(0)
+                        .checkNotModified("\"v1\"", 0));
+        when(authorService.getAuthorById(999L))
+                .thenThrow(new AuthorNotFoundException("not found"));
+
+        mockMvc.perform(get("/authors/{id}", 999L).header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotFound());
+
+        verify(catalogueVersionService, never()).checkNotModified(any());
+    }
+
     // =============== PUT: actualización completa ==============
 
     @Test
@@ -295,7 +379,7 @@ class AuthorControllerTest {
     @Test
     @DisplayName("DELETE /authors/{id} -> 204 No Content")
     void deleteAuthor_Returns204() throws Exception {
-        doNothing().when(authorService).deleteAuthor(1L);
+        when(authorService.deleteAuthor(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(delete("/authors/{id}", 1L))
                 .andExpect(status().isNoContent());
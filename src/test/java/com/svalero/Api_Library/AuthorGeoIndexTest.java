@@ -0,0 +1,96 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.event.AuthorLocationChangedEvent;
+import com.svalero.Api_Library.repository.AuthorLocation;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.service.AuthorGeoIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests del índice geográfico de autores (sin BD: el repositorio solo aporta las coordenadas iniciales).
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthorGeoIndexTest {
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    private AuthorGeoIndex index;
+
+    private AuthorLocation location(long id, double latitude, double longitude) {
+        return new AuthorLocation() {
+            public Long getId() { return id; }
+            public Double getLatitude() { return latitude; }
+            public Double getLongitude() { return longitude; }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(authorRepository.findAllLocations()).thenReturn(List.of(
+                location(1, 40.4168, -3.7038),   // Madrid
+                location(2, 39.8628, -4.0273),   // Toledo (~68 km)
+                location(3, 41.3874, 2.1686),    // Barcelona (~505 km)
+                location(4, 51.5072, -0.1276)    // Londres (~1260 km)
+        ));
+        index = new AuthorGeoIndex(authorRepository);
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("findWithinRadius devuelve solo los autores dentro del radio, ordenados por distancia")
+    void findWithinRadius_filtersAndSorts() {
+        assertThat(index.findWithinRadius(40.4168, -3.7038, 100)).containsExactly(1L, 2L);
+        assertThat(index.findWithinRadius(40.4168, -3.7038, 600)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("findNearest devuelve los k más cercanos aunque estén lejos")
+    void findNearest_expandsUntilK() {
+        assertThat(index.findNearest(51.0, 0.0, 2)).containsExactly(4L, 3L);
+        assertThat(index.findNearest(51.0, 0.0, 10)).containsExactly(4L, 3L, 1L, 2L);
+    }
+
+    @Test
+    @DisplayName("La búsqueda cruza el antimeridiano")
+    void findWithinRadius_wrapsLongitude() {
+        index.onLocationChanged(new AuthorLocationChangedEvent(5, 0.0, 179.9));
+
+        assertThat(index.findWithinRadius(0.0, -179.9, 50)).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Un evento con coordenadas recoloca al autor, sin ellas o remove lo saca del índice")
+    void locationChangedAndRemove_keepIndexInSync() {
+        index.onLocationChanged(new AuthorLocationChangedEvent(3, 40.42, -3.70));
+        assertThat(index.findWithinRadius(40.4168, -3.7038, 10)).containsExactlyInAnyOrder(1L, 3L);
+
+        index.onLocationChanged(new AuthorLocationChangedEvent(3, null, null));
+        assertThat(index.findWithinRadius(40.4168, -3.7038, 10)).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.findWithinRadius(40.4168, -3.7038, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Los AuthorLocationChangedEvent (tras el commit) recolocan o sacan al autor")
+    void onLocationChanged_appliesEvent() {
+        index.onLocationChanged(new AuthorLocationChangedEvent(5, 40.42, -3.70));
+        assertThat(index.findNearest(40.4168, -3.7038, 2)).containsExactly(1L, 5L);
+
+        index.onLocationChanged(new AuthorLocationChangedEvent(5, null, null));
+        index.onLocationChanged(new AuthorLocationChangedEvent(1, null, null));
+        assertThat(index.findNearest(40.4168, -3.7038, 1_000)).containsExactly(2L, 3L, 4L);
+    }
+}
@@ -1,16 +1,23 @@
 package com.svalero.Api_Library;
 
 import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.event.AuthorLocationChangedEvent;
 import com.svalero.Api_Library.exception.AuthorNotFoundException;
 import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.service.AuthorGeoIndex;
 import com.svalero.Api_Library.service.AuthorService;
+import com.svalero.Api_Library.service.DeleteJob;
+import com.svalero.Api_Library.service.DeleteJobs;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +25,9 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,12 +36,24 @@ class AuthorServiceTests {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AuthorGeoIndex authorGeoIndex;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private DeleteJobs deleteJobs;
+
     @InjectMocks
     private AuthorService authorService;
 
     private Author sampleAuthor() {
         // Orden EXACTO según tu entidad:
-        // id, name, surname, birthdate, active, nationality, latitude, longitude, books
+        // id, name, surname, birthdate, active, nationality, latitude, longitude, books, version, updatedAt
         return new Author(
                 1L,
                 "Isaac",
@@ -41,6 +63,8 @@ class AuthorServiceTests {
                 "Russian-American",
                 40.0,
                 -3.0,
+                null,
+                0L,
                 null
         );
     }
@@ -122,15 +146,43 @@ class AuthorServiceTests {
     }
 
     @Test
-    @DisplayName("getAuthorById lanza RuntimeException si no existe (como en tu servicio)")
+    @DisplayName("getAuthorById lanza AuthorNotFoundException si no existe (404)")
     void getById_notFound() {
         when(authorRepository.findById(99L)).thenReturn(Optional.empty());
 
-        assertThrows(RuntimeException.class, () -> authorService.getAuthorById(99L));
+        assertThrows(AuthorNotFoundException.class, () -> authorService.getAuthorById(99L));
         verify(authorRepository).findById(99L);
         verifyNoMoreInteractions(authorRepository);
     }
 
+    // ================== GEO ==================
+    @Test
+    @DisplayName("getAuthorsNear devuelve autores en el orden del índice")
+    void getAuthorsNear_keepsIndexOrder() {
+        var near = sampleAuthor();
+        var far = sampleAuthor();
+        far.setId(2L);
+        when(authorGeoIndex.findWithinRadius(40.0, -3.0, 100.0)).thenReturn(List.of(2L, 1L));
+        when(authorRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(near, far));
+
+        var result = authorService.getAuthorsNear(40.0, -3.0, 100.0);
+
+        assertThat(result).extracting(Author::getId).containsExactly(2L, 1L);
+        verify(authorRepository).findAllById(List.of(2L, 1L));
+        verifyNoMoreInteractions(authorRepository);
+    }
+
+    @Test
+    @DisplayName("getNearestAuthors no consulta la BD si el índice no devuelve nada")
+    void getNearestAuthors_empty() {
+        when(authorGeoIndex.findNearest(40.0, -3.0, 5)).thenReturn(List.of());
+
+        var result = authorService.getNearestAuthors(40.0, -3.0, 5);
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(authorRepository);
+    }
+
     // ================== SAVE ==================
     @Test
     @DisplayName("saveAuthor guarda y devuelve autor")
@@ -142,6 +194,8 @@ class AuthorServiceTests {
 
         assertThat(saved.getName()).isEqualTo("Isaac");
         verify(authorRepository).save(author);
+        verify(eventPublisher).publishEvent(new AuthorLocationChangedEvent(1L, 40.0, -3.0));
+        verifyNoInteractions(authorGeoIndex);
         verifyNoMoreInteractions(authorRepository);
     }
 
@@ -149,23 +203,56 @@ class AuthorServiceTests {
     @Test
     @DisplayName("deleteAuthor borra si existe")
     void delete_ok() throws AuthorNotFoundException {
-        when(authorRepository.existsById(1L)).thenReturn(true);
+        when(authorRepository.removeById(1L)).thenReturn(1);
 
-        authorService.deleteAuthor(1L);
+        assertThat(authorService.deleteAuthor(1L)).isEmpty();
 
-        verify(authorRepository).existsById(1L);
-        verify(authorRepository).deleteById(1L);
+        verify(loanRepository).countByAuthorUpTo(1L, 0L);
+        verify(authorRepository).removeBooksOf(1L);
+        verify(authorRepository).removeById(1L);
+        verify(eventPublisher).publishEvent(new AuthorLocationChangedEvent(1L, null, null));
+        verifyNoInteractions(authorGeoIndex);
         verifyNoMoreInteractions(authorRepository);
+        verify(deleteJobs, never()).start(anyString(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("deleteAuthor con muchos préstamos lanza un borrado en segundo plano")
+    void delete_inBackground() throws AuthorNotFoundException {
+        DeleteJob job = mock(DeleteJob.class);
+        when(deleteJobs.probeLimit()).thenReturn(10_001L);
+        when(loanRepository.countByAuthorUpTo(1L, 10_001L)).thenReturn(10_001L);
+        when(deleteJobs.inBackground(10_001L)).thenReturn(true);
+        when(deleteJobs.start(eq("author"), eq(1L), any(), any(), any())).thenReturn(job);
+
+        assertThat(authorService.deleteAuthor(1L)).contains(job);
+
+        // El autor lo borra el trabajo al terminar con los préstamos; el recuento completo también es suyo
+        verifyNoInteractions(authorRepository, authorGeoIndex, eventPublisher);
+        verify(loanRepository, never()).countByAuthor(anyLong());
+    }
+
+    @Test
+    @DisplayName("deleteAuthor mientras ya se está borrando devuelve ese trabajo")
+    void delete_alreadyRunning() throws AuthorNotFoundException {
+        DeleteJob job = mock(DeleteJob.class);
+        when(deleteJobs.running("author", 1L)).thenReturn(Optional.of(job));
+
+        assertThat(authorService.deleteAuthor(1L)).contains(job);
+
+        verifyNoInteractions(loanRepository, authorRepository, eventPublisher);
+        verify(deleteJobs, never()).start(anyString(), anyLong(), any(), any(), any());
     }
 
     @Test
     @DisplayName("deleteAuthor lanza excepción si no existe")
     void delete_notFound() {
-        when(authorRepository.existsById(99L)).thenReturn(false);
+        when(authorRepository.removeById(99L)).thenReturn(0);
 
         assertThrows(AuthorNotFoundException.class, () -> authorService.deleteAuthor(99L));
-        verify(authorRepository).existsById(99L);
-        verify(authorRepository, never()).deleteById(anyLong());
+        verify(authorRepository).removeBooksOf(99L);
+        verify(authorRepository).removeById(99L);
+        verify(eventPublisher, never()).publishEvent(any(AuthorLocationChangedEvent.class));
         verifyNoMoreInteractions(authorRepository);
     }
 
@@ -187,6 +274,8 @@ class AuthorServiceTests {
                 "Spanish",
                 41.0,
                 -4.0,
+                null,
+                0L,
                 null
         );
 
@@ -235,4 +324,26 @@ class AuthorServiceTests {
         verify(authorRepository).save(existing);
         verifyNoMoreInteractions(authorRepository);
     }
+
+    @Test
+    @DisplayName("updateAuthorPartial ignora id, version y updatedAt: los lleva Hibernate")
+    void patch_ignoresManagedFields() {
+        var existing = sampleAuthor();
+        existing.setVersion(3);
+        Instant updatedAt = existing.getUpdatedAt();
+        when(authorRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(authorRepository.save(any(Author.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var patched = authorService.updateAuthorPartial(1L, Map.of(
+                "id", 7L,
+                "version", 0L,
+                "updatedAt", Instant.EPOCH,
+                "name", "NombreNuevo"
+        ));
+
+        assertThat(patched.getId()).isEqualTo(1L);
+        assertThat(patched.getVersion()).isEqualTo(3);
+        assertThat(patched.getUpdatedAt()).isEqualTo(updatedAt);
+        assertThat(patched.getName()).isEqualTo("NombreNuevo");
+    }
 }
@@ -7,6 +7,7 @@ import com.svalero.Api_Library.exception.BookCategoryNotFoundException;
 import com.svalero.Api_Library.security.JwtAuthenticationFilter;
 import com.svalero.Api_Library.security.JwtRequestFilter;
 import com.svalero.Api_Library.service.BookCategoryService;
+import com.svalero.Api_Library.service.CatalogueVersionService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -47,6 +48,10 @@ class BookCategoryControllerTest {
     @MockBean
     BookCategoryService service;
 
+    // Versión del catálogo para los GET condicionales (por defecto: nunca "not modified")
+    @MockBean
+    CatalogueVersionService catalogueVersionService;
+
     // Mocks de seguridad por si cuela alguna referencia
     @MockBean
     JwtRequestFilter jwtRequestFilter;
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -32,6 +33,9 @@ class BookCategoryServiceTests {
     @Mock
     private BookCategoryRepository bookCategoryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookCategoryService bookCategoryService;
 
@@ -84,12 +88,11 @@ class BookCategoryServiceTests {
     }
 
     @Test
-    @DisplayName("getBookCategoriesById lanza RuntimeException cuando NO existe (tal y como está el servicio ahora)")
-    void getById_notFound_runtime() {
+    @DisplayName("getBookCategoriesById lanza BookCategoryNotFoundException cuando NO existe (404)")
+    void getById_notFound() {
         when(bookCategoryRepository.findById(404L)).thenReturn(Optional.empty());
 
-        // Tu service ahora lanza RuntimeException (no BookCategoryNotFoundException) aquí
-        assertThrows(RuntimeException.class, () -> bookCategoryService.getBookCategoriesById(404L));
+        assertThrows(BookCategoryNotFoundException.class, () -> bookCategoryService.getBookCategoriesById(404L));
 
         verify(bookCategoryRepository).findById(404L);
         verifyNoMoreInteractions(bookCategoryRepository);
@@ -227,25 +230,23 @@ class BookCategoryServiceTests {
     @Test
     @DisplayName("deleteBookCategory elimina cuando existe")
     void delete_success() throws BookCategoryNotFoundException {
-        when(bookCategoryRepository.existsById(30L)).thenReturn(true);
+        when(bookCategoryRepository.removeById(30L)).thenReturn(1);
 
         bookCategoryService.deleteBookCategory(30L);
 
-        verify(bookCategoryRepository).existsById(30L);
-        verify(bookCategoryRepository).deleteById(30L);
+        verify(bookCategoryRepository).removeById(30L);
         verifyNoMoreInteractions(bookCategoryRepository);
     }
 
     @Test
     @DisplayName("deleteBookCategory lanza BookCategoryNotFoundException cuando NO existe")
     void delete_notFound() {
-        when(bookCategoryRepository.existsById(31L)).thenReturn(false);
+        when(bookCategoryRepository.removeById(31L)).thenReturn(0);
 
         assertThrows(BookCategoryNotFoundException.class,
                 () -> bookCategoryService.deleteBookCategory(31L));
 
-        verify(bookCategoryRepository).existsById(31L);
-        verify(bookCategoryRepository, never()).deleteById(anyLong());
+        verify(bookCategoryRepository).removeById(31L);
         verifyNoMoreInteractions(bookCategoryRepository);
     }
 }
@@ -7,6 +7,8 @@ import com.svalero.Api_Library.exception.BookNotFoundException;
 import com.svalero.Api_Library.security.JwtAuthenticationFilter;
 import com.svalero.Api_Library.security.JwtRequestFilter;
 import com.svalero.Api_Library.service.BookService;
+import com.svalero.Api_Library.service.CatalogueVersionService;
+import com.svalero.Api_Library.service.DeleteJob;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,10 +20,12 @@ import org.springframework.context.annotation.FilterType;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.WebRequest;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
@@ -50,6 +54,10 @@ class BookControllerTest {
     @MockBean
     BookService bookService;
 
+    // Versión del catálogo para los GET condicionales (por defecto: nunca "not modified")
+    @MockBean
+    CatalogueVersionService catalogueVersionService;
+
     // mocks por si alguna referencia al filtro cuela
     @MockBean
     JwtRequestFilter jwtRequestFilter;
@@ -57,7 +65,7 @@ class BookControllerTest {
     JwtAuthenticationFilter jwtAuthenticationFilter;
 
     private Book b(long id, String title, String genre, int pages, float price, boolean available) {
-        return new Book(id, title, genre, pages, price, available, null, null, null);
+        return new Book(id, title, genre, pages, price, available, null, null, null, 0L, null);
     }
 
     @Test
@@ -107,6 +115,25 @@ class BookControllerTest {
         verifyNoMoreInteractions(bookService);
     }
 
+    @Test
+    @DisplayName("GET /books con If-None-Match vigente -> 304 sin consultar el servicio")
+    void getAllBooks_NotModified_Returns304() throws Exception {
+        when(catalogueVersionService.checkNotModified(any(WebRequest.class)))
+                .thenAnswer(inv -> inv.<WebRequest>getArgument(0).checkNotModified("\"v1\"", 0));
+
+        mockMvc.perform(get("/books").header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v1\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/books").header("If-None-Match", "\"v0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1\""));
+
+        verify(bookService, times(1)).getAllBooks();
+        verifyNoMoreInteractions(bookService);
+    }
+
     @Test
     @DisplayName("GET /books/title?title=... -> 200 OK")
     void getBooksByTitle_Returns200() throws Exception {
@@ -329,7 +356,7 @@ class BookControllerTest {
     @Test
     @DisplayName("DELETE /books/{id} -> 204 No Content")
     void deleteBook_Returns204() throws Exception {
-        doNothing().when(bookService).deleteBook(1L);
+        when(bookService.deleteBook(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(delete("/books/{id}", 1L))
                 .andExpect(status().isNoContent());
@@ -338,6 +365,23 @@ class BookControllerTest {
         verifyNoMoreInteractions(bookService);
     }
 
+    @Test
+    @DisplayName("DELETE /books/{id} -> 202 con el trabajo si se borra en segundo plano")
+    void deleteBook_Returns202_WhenInBackground() throws Exception {
+        DeleteJob job = mock(DeleteJob.class);
+        when(job.getId()).thenReturn("job-1");
+        when(job.getState()).thenReturn(DeleteJob.State.RUNNING);
+        when(bookService.deleteBook(1L)).thenReturn(Optional.of(job));
+
+        mockMvc.perform(delete("/books/{id}", 1L))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/delete-jobs/job-1"))
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+
+        verify(bookService).deleteBook(1L);
+        verifyNoMoreInteractions(bookService);
+    }
+
     @Test
     @DisplayName("DELETE /books/{id} -> 404 si no existe")
     void deleteBook_Returns404_WhenNotFound() throws Exception {
@@ -1,20 +1,27 @@
 package com.svalero.Api_Library;
 
 import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
 import com.svalero.Api_Library.exception.BookNotFoundException;
 import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
 import com.svalero.Api_Library.service.BookService;
+import com.svalero.Api_Library.service.DeleteJob;
+import com.svalero.Api_Library.service.DeleteJobs;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.IntSupplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,12 +37,21 @@ class BookServiceTests {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private DeleteJobs deleteJobs;
+
     @InjectMocks
     private BookService bookService;
 
     // Helper para crear libros rápido
     private Book b(long id, String title, String genre, int pages, double price, boolean available) {
-        return new Book(id, title, genre, pages, price, available, null, null, null);
+        return new Book(id, title, genre, pages, price, available, null, null, null, 0L, null);
     }
 
     // ===================== READ =====================
@@ -131,6 +147,7 @@ class BookServiceTests {
         assertThat(saved.getTitle()).isEqualTo("Nuevo");
 
         verify(bookRepository).save(toSave);
+        verify(eventPublisher).publishEvent(new CatalogueChangedEvent(Book.class, 42L));
         verifyNoMoreInteractions(bookRepository);
     }
 
@@ -235,24 +252,56 @@ class BookServiceTests {
     @Test
     @DisplayName("deleteBook elimina si existe")
     void deleteBook_success() throws BookNotFoundException {
-        when(bookRepository.existsById(30L)).thenReturn(true);
+        when(bookRepository.removeById(30L)).thenReturn(1);
 
-        bookService.deleteBook(30L);
+        assertTrue(bookService.deleteBook(30L).isEmpty());
 
-        verify(bookRepository).existsById(30L);
-        verify(bookRepository).deleteById(30L);
+        verify(loanRepository).countByBookUpTo(30L, 0L);
+        verify(bookRepository).removeById(30L);
+        verify(eventPublisher).publishEvent(new CatalogueChangedEvent(Book.class, 30L));
         verifyNoMoreInteractions(bookRepository);
     }
 
+    @Test
+    @DisplayName("deleteBook con muchos préstamos: trabajo en segundo plano; cada tramo avisa a las cachés")
+    void deleteBook_inBackground() throws BookNotFoundException {
+        DeleteJob job = mock(DeleteJob.class);
+        ArgumentCaptor<IntSupplier> chunk = ArgumentCaptor.forClass(IntSupplier.class);
+        when(deleteJobs.probeLimit()).thenReturn(10_001L);
+        when(loanRepository.countByBookUpTo(30L, 10_001L)).thenReturn(10_001L);
+        when(deleteJobs.inBackground(10_001L)).thenReturn(true);
+        when(deleteJobs.start(eq("book"), eq(30L), any(), chunk.capture(), any())).thenReturn(job);
+
+        assertThat(bookService.deleteBook(30L)).contains(job);
+        verifyNoInteractions(bookRepository, eventPublisher);
+
+        when(loanRepository.findIdsByBook(eq(30L), any())).thenReturn(List.of(1L, 2L));
+        when(loanRepository.removeAllById(List.of(1L, 2L))).thenReturn(2);
+        assertThat(chunk.getValue().getAsInt()).isEqualTo(2);
+        verify(eventPublisher).publishEvent(new CatalogueChangedEvent(Book.class, 30L));
+    }
+
+    @Test
+    @DisplayName("deleteBook mientras ya se está borrando devuelve ese trabajo sin contar nada")
+    void deleteBook_alreadyRunning() throws BookNotFoundException {
+        DeleteJob job = mock(DeleteJob.class);
+        when(deleteJobs.running("book", 30L)).thenReturn(Optional.of(job));
+
+        assertThat(bookService.deleteBook(30L)).contains(job);
+
+        verifyNoInteractions(loanRepository, bookRepository, eventPublisher);
+        verify(deleteJobs, never()).start(anyString(), anyLong(), any(), any(), any());
+    }
+
     @Test
     @DisplayName("deleteBook lanza excepción si no existe")
     void deleteBook_notFound() {
-        when(bookRepository.existsById(31L)).thenReturn(false);
+        when(bookRepository.removeById(31L)).thenReturn(0);
 
         assertThrows(BookNotFoundException.class, () -> bookService.deleteBook(31L));
 
-        verify(bookRepository).existsById(31L);
-        verify(bookRepository, never()).deleteById(anyLong());
+        verify(bookRepository).removeById(31L);
+        verifyNoInteractions(eventPublisher);
         verifyNoMoreInteractions(bookRepository);
     }
 
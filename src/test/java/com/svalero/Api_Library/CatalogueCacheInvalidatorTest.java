@@ -0,0 +1,143 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.config.CacheConfig;
+import com.svalero.Api_Library.config.CatalogueCache;
+import com.svalero.Api_Library.config.CatalogueCacheInvalidator;
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de la invalidación de cachés ante cambios en el catálogo (sin Spring ni BD: CatalogueCache
+ * con entidades sueltas o cadenas como valores).
+ */
+class CatalogueCacheInvalidatorTest {
+
+    private SimpleCacheManager cacheManager;
+    private CatalogueCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(Stream.of(CacheConfig.BOOKS, CacheConfig.AUTHORS, CacheConfig.BOOK_CATEGORIES, CacheConfig.LOANS)
+                .map(name -> new CatalogueCache(name, 1_000, Duration.ofMinutes(1))).toList());
+        cacheManager.afterPropertiesSet();
+        invalidator = new CatalogueCacheInvalidator(cacheManager);
+
+        cacheManager.getCache(CacheConfig.BOOKS).put(1L, "book-1");
+        cacheManager.getCache(CacheConfig.AUTHORS).put(1L, "author-1");
+        cacheManager.getCache(CacheConfig.BOOK_CATEGORIES).put(1L, "category-1");
+        cacheManager.getCache(CacheConfig.LOANS).put(1L, "loan-1");
+        cacheManager.getCache(CacheConfig.LOANS).put(2L, "loan-2");
+    }
+
+    private boolean cached(String cache, long id) {
+        return cacheManager.getCache(cache).get(id) != null;
+    }
+
+    @Test
+    @DisplayName("Un cambio en un autor limpia el catálogo y los préstamos (borrarlo borra los de sus libros)")
+    void authorChange_clearsLoans() {
+        invalidator.onCatalogueChanged(new CatalogueChangedEvent(Author.class, 1L));
+
+        assertThat(cached(CacheConfig.BOOKS, 1L)).isFalse();
+        assertThat(cached(CacheConfig.AUTHORS, 1L)).isFalse();
+        assertThat(cached(CacheConfig.BOOK_CATEGORIES, 1L)).isFalse();
+        assertThat(cached(CacheConfig.LOANS, 1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Un cambio en un libro limpia también los préstamos")
+    void bookChange_clearsLoans() {
+        invalidator.onCatalogueChanged(new CatalogueChangedEvent(Book.class, 1L));
+
+        assertThat(cached(CacheConfig.LOANS, 1L)).isFalse();
+        assertThat(cached(CacheConfig.LOANS, 2L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Un cambio en un préstamo solo expulsa ese préstamo")
+    void loanChange_evictsOnlyThatLoan() {
+        invalidator.onCatalogueChanged(new CatalogueChangedEvent(Loan.class, 1L));
+
+        assertThat(cached(CacheConfig.LOANS, 1L)).isFalse();
+        assertThat(cached(CacheConfig.LOANS, 2L)).isTrue();
+        assertThat(cached(CacheConfig.BOOKS, 1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Un préstamo de un libro conocido solo expulsa las entradas cuyo grafo contiene ese libro")
+    void loanChange_evictsOnlyEntriesWithItsBook() {
+        Author author = new Author();
+        author.setId(10L);
+        author.setBooks(new ArrayList<>(List.of(book(7L, author))));
+        cacheManager.getCache(CacheConfig.BOOKS).put(7L, author.getBooks().get(0));
+        cacheManager.getCache(CacheConfig.BOOKS).put(8L, book(8L, null));
+        cacheManager.getCache(CacheConfig.AUTHORS).put(10L, author);
+
+        invalidator.onCatalogueChanged(new CatalogueChangedEvent(Loan.class, 1L, Set.of(7L)));
+
+        assertThat(cached(CacheConfig.BOOKS, 7L)).isFalse();
+        assertThat(cached(CacheConfig.AUTHORS, 10L)).isFalse();
+        assertThat(cached(CacheConfig.BOOKS, 8L)).isTrue();
+        assertThat(cached(CacheConfig.BOOKS, 1L)).isTrue();
+        assertThat(cached(CacheConfig.AUTHORS, 1L)).isTrue();
+        assertThat(cached(CacheConfig.LOANS, 1L)).isFalse();
+        assertThat(cached(CacheConfig.LOANS, 2L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Lo leído antes de una invalidación no se guarda después (generación)")
+    void staleRead_NotCachedAfterInvalidation() {
+        CatalogueCache books = (CatalogueCache) cacheManager.getCache(CacheConfig.BOOKS);
+
+        // Como @Cacheable: fallo, carga de la BD... y la invalidación llega antes del put
+        assertThat(books.get(42L)).isNull();
+        invalidator.onCatalogueChanged(new CatalogueChangedEvent(Book.class, 42L));
+        books.put(42L, "book-42-viejo");
+        assertThat(cached(CacheConfig.BOOKS, 42L)).isFalse();
+
+        assertThat(books.get(42L)).isNull();
+        books.put(42L, "book-42");
+        assertThat(cached(CacheConfig.BOOKS, 42L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Cada entrada pesa las entidades de su grafo")
+    void entries_WeighTheirGraph() {
+        CatalogueCache authors = (CatalogueCache) cacheManager.getCache(CacheConfig.AUTHORS);
+        authors.clear();
+        Author author = new Author();
+        author.setId(10L);
+        author.setBooks(new ArrayList<>());
+        for (long id = 1; id <= 5; id++) {
+            author.getBooks().add(book(id, author));
+        }
+
+        authors.put(10L, author);
+        authors.getNativeCache().cleanUp();
+
+        assertThat(authors.getNativeCache().policy().eviction().orElseThrow().weightedSize()).hasValue(6);
+    }
+
+    private static Book book(long id, Author author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setAuthor(author);
+        book.setLoans(new ArrayList<>());
+        return book;
+    }
+}
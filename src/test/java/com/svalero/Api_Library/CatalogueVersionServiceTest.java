@@ -0,0 +1,107 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookCategoryRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.repository.TableVersion;
+import com.svalero.Api_Library.service.CatalogueVersion;
+import com.svalero.Api_Library.service.CatalogueVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la versión agregada del catálogo usada en los GET condicionales.
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogueVersionServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private AuthorRepository authorRepository;
+    @Mock
+    private BookCategoryRepository bookCategoryRepository;
+    @Mock
+    private LoanRepository loanRepository;
+
+    @InjectMocks
+    private CatalogueVersionService catalogueVersionService;
+
+    private static final Instant T1 = Instant.parse("2024-01-01T10:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.findTableVersion()).thenReturn(new TableVersion(2, T1));
+        when(authorRepository.findTableVersion()).thenReturn(new TableVersion(1, T1));
+        when(bookCategoryRepository.findTableVersion()).thenReturn(new TableVersion(1, null));
+        when(loanRepository.findTableVersion()).thenReturn(new TableVersion(0, null));
+    }
+
+    @Test
+    @DisplayName("La versión se calcula una vez y se reutiliza hasta el siguiente cambio")
+    void current_isCachedUntilCatalogueChanges() {
+        CatalogueVersion first = catalogueVersionService.current();
+        CatalogueVersion second = catalogueVersionService.current();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.etag()).startsWith("W/\"").endsWith("\"");
+        // Sin cambios vistos desde el arranque, Last-Modified es como pronto la hora de inicio
+        assertThat(first.lastModified()).isAfter(T1);
+        verify(bookRepository, times(1)).findTableVersion();
+
+        // Un borrado: baja el número de filas aunque ninguna fecha cambie
+        when(bookRepository.findTableVersion()).thenReturn(new TableVersion(1, T1));
+        catalogueVersionService.onCatalogueChanged(new CatalogueChangedEvent(Book.class, 2L));
+
+        CatalogueVersion afterDelete = catalogueVersionService.current();
+        assertThat(afterDelete.etag()).isNotEqualTo(first.etag());
+        assertThat(afterDelete.lastModified()).isAfterOrEqualTo(first.lastModified());
+        verify(bookRepository, times(2)).findTableVersion();
+    }
+
+    @Test
+    @DisplayName("El mismo contenido de las tablas da el mismo ETag")
+    void etag_dependsOnlyOnTables() {
+        String etag = catalogueVersionService.current().etag();
+
+        catalogueVersionService.onCatalogueChanged(new CatalogueChangedEvent(Book.class, 1L));
+
+        assertThat(catalogueVersionService.current().etag()).isEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("checkNotModified responde 304 si el If-None-Match coincide y pone las cabeceras si no")
+    void checkNotModified_comparesIfNoneMatch() {
+        CatalogueVersion version = catalogueVersionService.current();
+        String etag = version.etag();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(catalogueVersionService.checkNotModified(new ServletWebRequest(request, response))).isTrue();
+        assertThat(response.getStatus()).isEqualTo(304);
+
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/books");
+        stale.addHeader("If-None-Match", "\"old\"");
+        MockHttpServletResponse fresh = new MockHttpServletResponse();
+        assertThat(catalogueVersionService.checkNotModified(new ServletWebRequest(stale, fresh))).isFalse();
+        assertThat(fresh.getHeader("ETag")).isEqualTo(etag);
+        assertThat(fresh.getDateHeader("Last-Modified")).isEqualTo(version.lastModified().toEpochMilli() / 1000 * 1000);
+    }
+}
@@ -0,0 +1,119 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.seed.DataSeeder;
+import com.svalero.Api_Library.seed.SeedPlan;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Carga de DataSeeder sobre H2 en memoria con un volumen pequeño: número de filas, contadores de las
+ * categorías y la forma de los datos (popularidad Zipf de los libros y estacionalidad de los préstamos).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:data-seeder;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DataSeederTest {
+
+    private static final int BOOKS = 500;
+    private static final int LOANS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @BeforeAll
+    void seed() {
+        new DataSeeder(jdbcTemplate, passwordEncoder).seed(new SeedPlan(50, 10, BOOKS, 100, LOANS, 1.0,
+                LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31), 7, 2, 1000, "password123"));
+    }
+
+    @Test
+    @DisplayName("Inserta las filas pedidas de cada tabla")
+    void seed_InsertsRequestedRows() {
+        assertEquals(50, count("SELECT COUNT(*) FROM \"authors\""));
+        assertEquals(10, count("SELECT COUNT(*) FROM \"book_categories\""));
+        assertEquals(BOOKS, count("SELECT COUNT(*) FROM \"books\""));
+        assertEquals(100, count("SELECT COUNT(*) FROM \"users\""));
+        assertEquals(LOANS, count("SELECT COUNT(*) FROM \"loans\""));
+        assertEquals(1, count("SELECT COUNT(*) FROM \"books\" WHERE \"title\" = '" + DataSeeder.bookTitle(1) + "'"));
+    }
+
+    @Test
+    @DisplayName("Cada préstamo apunta al usuario de su email")
+    void seed_LinksLoansToUsers() {
+        assertEquals(0, count("SELECT COUNT(*) FROM \"loans\" l LEFT JOIN \"users\" u ON u.\"id\" = l.\"user_id\" "
+                + "WHERE u.\"email\" IS NULL OR u.\"email\" <> l.\"email\""));
+    }
+
+    @Test
+    @DisplayName("El número de libros de cada categoría coincide con los libros insertados")
+    void seed_UpdatesCategoryCounts() {
+        assertEquals(0, count("SELECT COUNT(*) FROM \"book_categories\" c WHERE c.\"number_books\" <> "
+                + "(SELECT COUNT(*) FROM \"books\" b WHERE b.\"category_id\" = c.\"id\")"));
+        assertEquals(BOOKS, count("SELECT SUM(\"number_books\") FROM \"book_categories\""));
+    }
+
+    @Test
+    @DisplayName("Los préstamos se concentran en pocos libros (Zipf)")
+    void seed_LoansFollowZipf() {
+        // Con s = 1 y 500 libros, el 1% más popular debería llevarse en torno a un tercio de los préstamos
+        List<Long> topBooks = jdbcTemplate.queryForList("SELECT COUNT(*) FROM \"loans\" GROUP BY \"book_id\" "
+                + "ORDER BY COUNT(*) DESC LIMIT " + BOOKS / 100, Long.class);
+        long top = topBooks.stream().mapToLong(Long::longValue).sum();
+        assertTrue(top > LOANS * 0.25 && top < LOANS * 0.45, "Préstamos del 1% más popular: " + top);
+    }
+
+    @Test
+    @DisplayName("Hay más préstamos en agosto que en febrero y casi ninguno en domingo")
+    void seed_LoanDatesAreSeasonal() {
+        long august = count("SELECT COUNT(*) FROM \"loans\" WHERE MONTH(\"loan_date\") = 8");
+        long february = count("SELECT COUNT(*) FROM \"loans\" WHERE MONTH(\"loan_date\") = 2");
+        long sundays = count("SELECT COUNT(*) FROM \"loans\" WHERE ISO_DAY_OF_WEEK(\"loan_date\") = 7");
+
+        assertTrue(august > february * 1.6, "Agosto " + august + ", febrero " + february);
+        assertTrue(sundays < LOANS * 0.06, "Domingos: " + sundays);
+        assertEquals(0, count("SELECT COUNT(*) FROM \"loans\" WHERE \"loan_date\" < DATE '2023-01-01' "
+                + "OR \"loan_date\" > DATE '2024-12-31'"));
+    }
+
+    @Test
+    @DisplayName("Después de sembrar, Hibernate sigue numerando los ids a partir de las filas insertadas")
+    void seed_AlignsIdSequences() {
+        Loan loan = new Loan();
+        loan.setName("Préstamo");
+        loan.setCustomerName("Alice");
+        loan.setLoanDate(LocalDate.of(2024, 1, 15));
+        loan.setQuantity(1);
+        loan.setBook(bookRepository.findById(1L).orElseThrow());
+
+        assertTrue(loanRepository.save(loan).getId() > LOANS);
+        assertEquals(LOANS + 1, count("SELECT COUNT(*) FROM \"loans\""));
+        loanRepository.delete(loan);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,176 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.BookCategory;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.domain.User;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookCategoryRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * equals/hashCode/toString de las entidades: identidad por id y sin recorrer relaciones. Sobre un grafo
+ * real cargado por Hibernate (relaciones lazy sin inicializar) se comprueba con QueryBudget.noQueries
+ * que ninguna de esas llamadas lanza SQL.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:entity-identity;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntityIdentityTest {
+
+    @Autowired
+    private BookCategoryRepository bookCategoryRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private long bookId;
+    private long loanId;
+
+    @BeforeAll
+    void seed() {
+        transaction = new TransactionTemplate(transactionManager);
+
+        BookCategory category = new BookCategory();
+        category.setName("Novela");
+        category.setDescription("Novelas");
+        category.setCreatedDate(LocalDate.of(2024, 1, 1));
+        category = bookCategoryRepository.save(category);
+
+        Author author = new Author();
+        author.setName("Frank");
+        author.setSurname("Herbert");
+        author.setBirthdate(LocalDate.of(1920, 10, 8));
+        author.setNationality("US");
+        author = authorRepository.save(author);
+
+        for (int b = 1; b <= 2; b++) {
+            Book book = new Book();
+            book.setTitle("Dune " + b);
+            book.setGenre("Novela");
+            book.setPages(600);
+            book.setPrice(20);
+            book.setAvailable(true);
+            book.setAuthor(author);
+            book.setCategory(category);
+            book = bookRepository.save(book);
+            bookId = book.getId();
+
+            for (int l = 1; l <= 3; l++) {
+                Loan loan = new Loan();
+                loan.setName("Loan " + l);
+                loan.setCustomerName("Customer " + l);
+                loan.setLoanDate(LocalDate.of(2024, 1, l));
+                loan.setQuantity(1);
+                loan.setBook(book);
+                loanId = loanRepository.save(loan).getId();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("hashCode, equals y toString de un grafo cargado no lanzan SQL ni inicializan relaciones lazy")
+    void graph_NoQueries() {
+        transaction.executeWithoutResult(status -> {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            Loan loan = loanRepository.findById(loanId).orElseThrow();
+            // Autor y categoría son LAZY: se cargan antes de medir, lo que se mide es que no se recorran relaciones
+            Author author = book.getAuthor();
+            BookCategory category = book.getCategory();
+            Hibernate.initialize(author);
+            Hibernate.initialize(category);
+
+            QueryBudget.noQueries("hashCode/equals/toString", () -> {
+                Set<Object> entities = new HashSet<>(List.of(book, author, category, loan, loan.getBook()));
+                assertThat(entities).hasSize(4);
+                assertThat(entities).contains(entityManager.getReference(Book.class, bookId));
+                assertThat(book.toString()).doesNotContain("loans", "author", "category");
+                assertThat(author.toString()).doesNotContain("books");
+                assertThat(category.toString()).doesNotContain("books");
+                assertThat(loan.toString()).doesNotContain("book=");
+            });
+
+            assertThat(Hibernate.isInitialized(book.getLoans())).isFalse();
+            assertThat(Hibernate.isInitialized(author.getBooks())).isFalse();
+            assertThat(Hibernate.isInitialized(category.getBooks())).isFalse();
+        });
+    }
+
+    @Test
+    @DisplayName("Una entidad es igual a un proxy con su id sin inicializarlo")
+    void equals_ProxyNotInitialized() {
+        Book detached = bookRepository.findById(bookId).orElseThrow();
+
+        transaction.executeWithoutResult(status -> {
+            Book proxy = entityManager.getReference(Book.class, bookId);
+            Book other = entityManager.getReference(Book.class, bookId - 1);
+
+            QueryBudget.noQueries("equals contra un proxy", () -> {
+                assertThat(detached.equals(proxy)).isTrue();
+                assertThat(detached.equals(other)).isFalse();
+            });
+            assertThat(Hibernate.isInitialized(proxy)).isFalse();
+        });
+    }
+
+    @Test
+    @DisplayName("Sin id solo es igual a sí misma y el hashCode no cambia al guardar")
+    void transientEntity_StableHashCode() {
+        Book first = new Book();
+        Book second = new Book();
+        assertThat(first).isNotEqualTo(second).isEqualTo(first);
+
+        BookCategory category = new BookCategory();
+        category.setName("Ensayo");
+        category.setDescription("Ensayos");
+        category.setCreatedDate(LocalDate.of(2024, 1, 1));
+        Set<BookCategory> categories = new HashSet<>(Set.of(category));
+
+        bookCategoryRepository.save(category);
+
+        assertThat(category.getId()).isPositive();
+        assertThat(categories).contains(category);
+    }
+
+    @Test
+    @DisplayName("toString de User no incluye la contraseña")
+    void userToString_NoPassword() {
+        User user = new User(null, "Isabel", "isabel123", "isabel@example.com", "ENCODED-SECRET",
+                LocalDate.of(2025, 1, 1), true);
+
+        assertThat(user.toString()).contains("isabel123").doesNotContain("ENCODED-SECRET");
+        assertThat(userRepository.save(user)).isEqualTo(user);
+    }
+}
@@ -0,0 +1,96 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.User;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.UserRepository;
+import com.svalero.Api_Library.security.JwtUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compresión de Tomcat (server.compression.*) en las respuestas del catálogo que no salen de
+ * ResponseCache. Con servidor de verdad: MockMvc no pasa por Tomcat. Tomcat no comprime las respuestas
+ * con un ETag fuerte, así que esto falla si el ETag del catálogo deja de ser débil.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:http-compression;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "server.compression.min-response-size=1"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HttpCompressionTest {
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private long bookId;
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        Book book = new Book();
+        book.setTitle("Terramar");
+        book.setGenre("Fantasía");
+        book.setPages(200);
+        book.setPrice(15);
+        book.setAvailable(true);
+        bookId = bookRepository.save(book).getId();
+
+        User user = new User();
+        user.setName("Lectora");
+        user.setUsername("lectora");
+        user.setEmail("lectora@example.com");
+        user.setPassword("no-se-usa");
+        user.setCreationDate(LocalDate.of(2024, 1, 1));
+        user.setActive(true);
+        userRepository.save(user);
+        token = jwtUtil.generateToken("lectora");
+    }
+
+    @Test
+    @DisplayName("GET /books y /books/{id} con Accept-Encoding: gzip -> Content-Encoding: gzip y ETag débil")
+    void catalogueGet_Gzipped() throws Exception {
+        for (String path : new String[]{"/books", "/books/" + bookId}) {
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Accept-Encoding", "gzip")
+                    .GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("ETag")).hasValueSatisfying(etag -> assertThat(etag).startsWith("W/\""));
+            assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+            assertThat(gunzip(response.body())).contains("Terramar");
+        }
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
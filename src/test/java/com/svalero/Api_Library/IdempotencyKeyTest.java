@@ -0,0 +1,378 @@
+package com.svalero.Api_Library;
+
+import com.jayway.jsonpath.JsonPath;
+import com.svalero.Api_Library.config.IdempotencyFilter;
+import com.svalero.Api_Library.config.IdempotencyStore;
+import com.svalero.Api_Library.config.IdempotencyStore.Outcome;
+import com.svalero.Api_Library.config.IdempotencyStore.State;
+import com.svalero.Api_Library.config.QueryStatsFilter;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /loans y POST /books con Idempotency-Key: el reintento recibe la respuesta original sin volver
+ * a ejecutarse (ni una sentencia SQL), los duplicados simultáneos crean una sola fila y la tabla
+ * idempotency_keys sirve las respuestas que ya no están en memoria (otra instancia o un reinicio).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency-key;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.idempotency.max-body-size=1KB"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IdempotencyKeyTest {
+
+    private static final int DUPLICATES = 16;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterRegistrationBean<QueryStatsFilter> queryStatsFilter;
+    @Autowired
+    private FilterRegistrationBean<IdempotencyFilter> idempotencyFilter;
+    @Autowired
+    private IdempotencyStore store;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private long bookId;
+
+    @BeforeAll
+    void seed() {
+        Book book = new Book();
+        book.setTitle("Terramar");
+        book.setGenre("Fantasía");
+        book.setPages(200);
+        book.setPrice(15);
+        book.setAvailable(true);
+        bookId = bookRepository.save(book).getId();
+    }
+
+    // Sin seguridad (no hay token), con QueryStatsFilter para la cabecera X-Query-Count
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(queryStatsFilter.getFilter(), idempotencyFilter.getFilter())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Un reintento de POST /loans con la misma clave devuelve la respuesta original sin tocar la BD")
+    void postLoan_Replayed() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long before = loanRepository.count();
+
+        String original = postLoan(key, "Alice")
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+
+        postLoan(key, "Alice")
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(QueryBudget.exactly(0))
+                .andExpect(result -> assertThat(result.getResponse().getContentAsString()).isEqualTo(original));
+
+        assertThat(loanRepository.count()).isEqualTo(before + 1);
+
+        // Sin cabecera cada POST es un alta nueva
+        postLoan(null, "Alice").andExpect(status().isCreated());
+        postLoan(null, "Alice").andExpect(status().isCreated());
+        assertThat(loanRepository.count()).isEqualTo(before + 3);
+    }
+
+    @Test
+    @DisplayName("POST /books también; la misma clave en otra ruta es otra clave")
+    void postBook_Replayed() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = "{\"title\":\"Los desposeídos\",\"genre\":\"Novela\",\"pages\":300,\"price\":20,\"available\":true}";
+        long before = bookRepository.count();
+
+        long id = JsonPath.<Number>read(mockMvc.perform(post("/books").header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id").longValue();
+        mockMvc.perform(post("/books").header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(id));
+        assertThat(bookRepository.count()).isEqualTo(before + 1);
+
+        postLoan(key, "Alice").andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("La misma clave con otro cuerpo da 422 y una clave vacía o demasiado larga, 400")
+    void reusedKey_DifferentBody() throws Exception {
+        String key = UUID.randomUUID().toString();
+        postLoan(key, "Alice").andExpect(status().isCreated());
+        long before = loanRepository.count();
+
+        postLoan(key, "Bob")
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value(422));
+        postLoan(" ", "Bob").andExpect(status().isBadRequest());
+        postLoan("k".repeat(256), "Bob").andExpect(status().isBadRequest());
+
+        assertThat(loanRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Duplicados simultáneos: un solo alta, y todos reciben la misma respuesta")
+    void concurrentDuplicates_CreateOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long before = loanRepository.count();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES)) {
+            List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < DUPLICATES; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return postLoan(key, "Alice").andReturn().getResponse();
+                }));
+            }
+            start.countDown();
+            for (Future<MockHttpServletResponse> future : futures) {
+                responses.add(future.get(30, TimeUnit.SECONDS));
+            }
+        }
+
+        assertThat(loanRepository.count()).isEqualTo(before + 1);
+        assertThat(responses).allMatch(response -> response.getStatus() == 201);
+        assertThat(responses).filteredOn(response -> response.getHeader(IdempotencyFilter.REPLAYED_HEADER) == null)
+                .hasSize(1);
+        assertThat(responses.stream().map(this::content).distinct()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Un duplicado espera a la petición en curso; si esta falla, el duplicado se ejecuta")
+    void duplicate_WaitsForOriginal() throws Exception {
+        String key = UUID.randomUUID().toString();
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Outcome first = store.begin(key, "cuerpo");
+            assertThat(first.state()).isEqualTo(State.STARTED);
+
+            Future<Outcome> waiting = executor.submit(() -> store.begin(key, "cuerpo"));
+            Thread.sleep(100);
+            assertThat(waiting).isNotDone();
+            store.complete(first.claim(), 201, MediaType.APPLICATION_JSON_VALUE, null, "{}".getBytes());
+            assertThat(waiting.get(5, TimeUnit.SECONDS).state()).isEqualTo(State.REPLAY);
+            assertThat(waiting.get().response().status()).isEqualTo(201);
+
+            String failing = UUID.randomUUID().toString();
+            Outcome original = store.begin(failing, "cuerpo");
+            Future<Outcome> retry = executor.submit(() -> store.begin(failing, "cuerpo"));
+            Thread.sleep(100);
+            store.abandon(original.claim());
+            Outcome retried = retry.get(5, TimeUnit.SECONDS);
+            assertThat(retried.state()).isEqualTo(State.STARTED);
+            store.abandon(retried.claim());
+        }
+    }
+
+    @Test
+    @DisplayName("Otra instancia (sin nada en memoria) repite la respuesta guardada en la tabla o ve la petición en curso")
+    void otherInstance_UsesTable() {
+        IdempotencyStore other = new IdempotencyStore(jdbcTemplate, DataSize.ofMegabytes(1), Duration.ofHours(24),
+                Duration.ofMillis(200), Duration.ofMinutes(5), 1000);
+
+        String done = UUID.randomUUID().toString();
+        Outcome original = store.begin(done, "cuerpo");
+        store.complete(original.claim(), 201, MediaType.APPLICATION_JSON_VALUE, "/loans/1", "{\"id\":1}".getBytes());
+        Outcome replayed = other.begin(done, "cuerpo");
+        assertThat(replayed.state()).isEqualTo(State.REPLAY);
+        assertThat(replayed.response().location()).isEqualTo("/loans/1");
+        assertThat(replayed.response().body()).isEqualTo("{\"id\":1}".getBytes());
+        assertThat(other.begin(done, "otro cuerpo").state()).isEqualTo(State.MISMATCH);
+
+        String running = UUID.randomUUID().toString();
+        Outcome inProgress = store.begin(running, "cuerpo");
+        assertThat(other.begin(running, "cuerpo").state()).isEqualTo(State.IN_PROGRESS);
+        store.abandon(inProgress.claim());
+        assertThat(count(running)).isZero();
+    }
+
+    @Test
+    @DisplayName("Si la reserva falla por otro error de BD la clave no se queda en curso: el reintento se ejecuta")
+    void claimFailure_ReleasesKey() {
+        AtomicBoolean failInsert = new AtomicBoolean(true);
+        JdbcTemplate flaky = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int update(String sql, Object... args) {
+                if (sql.startsWith("INSERT") && failInsert.getAndSet(false)) {
+                    throw new DataAccessResourceFailureException("BD caída");
+                }
+                return super.update(sql, args);
+            }
+        };
+        IdempotencyStore flakyStore = new IdempotencyStore(flaky, DataSize.ofMegabytes(1), Duration.ofHours(24),
+                Duration.ofMillis(200), Duration.ofMinutes(5), 1000);
+        String key = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> flakyStore.begin(key, "cuerpo")).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(flakyStore.size()).isZero();
+
+        Outcome retry = flakyStore.begin(key, "cuerpo");
+        assertThat(retry.state()).isEqualTo(State.STARTED);
+        flakyStore.complete(retry.claim(), 201, MediaType.APPLICATION_JSON_VALUE, null, "{}".getBytes());
+        assertThat(count(key)).isOne();
+    }
+
+    @Test
+    @DisplayName("El controlador puede leer el cuerpo ya guardado con un ReadListener (lectura asíncrona)")
+    void cachedBody_ReadListener() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/loans");
+        request.addHeader(IdempotencyFilter.KEY_HEADER, UUID.randomUUID().toString());
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent("{\"name\":\"Préstamo\"}".getBytes(StandardCharsets.UTF_8));
+        List<String> events = new ArrayList<>();
+
+        idempotencyFilter.getFilter().doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("fin");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+            ((HttpServletResponse) res).setStatus(201);
+        });
+
+        assertThat(events).containsExactly("{\"name\":\"Préstamo\"}", "fin");
+    }
+
+    @Test
+    @DisplayName("Con la cabecera, un cuerpo de más de max-body-size da 413 sin llegar al controlador")
+    void oversizedBody_Rejected() throws Exception {
+        long before = loanRepository.count();
+        String big = "{\"name\":\"" + "x".repeat(2048) + "\"}";
+
+        // Por Content-Length, sin leer el cuerpo
+        mockMvc.perform(post("/loans").header(IdempotencyFilter.KEY_HEADER, UUID.randomUUID().toString())
+                        .contentType(MediaType.APPLICATION_JSON).content(big))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.status").value(413));
+        // Sin Content-Length (chunked): al pasar del límite leyendo
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/loans") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.addHeader(IdempotencyFilter.KEY_HEADER, UUID.randomUUID().toString());
+        chunked.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        chunked.setContent(big.getBytes());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        idempotencyFilter.getFilter().doFilter(chunked, response, chain);
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+
+        assertThat(loanRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("La purga borra por lotes las claves caducadas y deja las vigentes")
+    void purgeExpired_InBatches() {
+        IdempotencyStore purger = new IdempotencyStore(jdbcTemplate, DataSize.ofMegabytes(1), Duration.ofHours(24),
+                Duration.ofMillis(200), Duration.ofMinutes(5), 2);
+        jdbcTemplate.update("DELETE FROM \"idempotency_keys\"");
+        Timestamp old = Timestamp.from(Instant.now().minus(Duration.ofDays(2)));
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO \"idempotency_keys\" (\"idempotency_key\", \"fingerprint\", \"created_at\") "
+                    + "VALUES (?, 'cuerpo', ?)", "old-" + i, old);
+        }
+        Outcome recent = store.begin(UUID.randomUUID().toString(), "cuerpo");
+        store.complete(recent.claim(), 201, MediaType.APPLICATION_JSON_VALUE, null, "{}".getBytes());
+
+        assertThat(purger.purgeExpired()).isEqualTo(5);
+        assertThat(count(recent.claim().key())).isOne();
+        assertThat(purger.purgeExpired()).isZero();
+    }
+
+    private ResultActions postLoan(String key, String customer) throws Exception {
+        String body = "{\"name\":\"Préstamo\",\"customerName\":\"" + customer + "\",\"loanDate\":\"2024-01-15\","
+                + "\"quantity\":1,\"book\":{\"id\":" + bookId + "}}";
+        var request = post("/loans").contentType(MediaType.APPLICATION_JSON).content(body);
+        if (key != null) {
+            request.header(IdempotencyFilter.KEY_HEADER, key);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private String content(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long count(String key) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"idempotency_keys\" WHERE \"idempotency_key\" = ?",
+                Long.class, key);
+    }
+}
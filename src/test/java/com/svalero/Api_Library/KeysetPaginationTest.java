@@ -0,0 +1,226 @@
+package com.svalero.Api_Library;
+
+import com.jayway.jsonpath.JsonPath;
+import com.svalero.Api_Library.config.QueryStatsFilter;
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.BookCategory;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookCategoryRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Subrecursos paginados por keyset: se recorren siguiendo la cabecera Link, cada página es una consulta
+ * (dos para los préstamos, con el resumen del libro) tenga el padre los hijos que tenga, y la consulta
+ * usa el índice del padre en vez de recorrer la tabla.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:keyset-pagination;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class KeysetPaginationTest {
+
+    private static final int BOOKS = 7;
+    private static final int LOANS = 5;
+    private static final Pattern NEXT = Pattern.compile("<([^>]+)>; rel=\"next\"");
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterRegistrationBean<QueryStatsFilter> queryStatsFilter;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookCategoryRepository bookCategoryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private long authorId;
+    private long categoryId;
+    private long bookId;
+    private List<Long> bookIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        BookCategory category = new BookCategory();
+        category.setName("Ciencia ficción");
+        category.setDescription("Novelas");
+        category.setCreatedDate(LocalDate.of(2024, 1, 1));
+        category = bookCategoryRepository.save(category);
+        categoryId = category.getId();
+
+        Author author = new Author();
+        author.setName("Ursula");
+        author.setSurname("Le Guin");
+        author.setBirthdate(LocalDate.of(1929, 10, 21));
+        author.setNationality("US");
+        author = authorRepository.save(author);
+        authorId = author.getId();
+
+        // Un libro de otro autor en medio, que no debe salir en las páginas
+        Author other = new Author();
+        other.setName("Isaac");
+        other.setSurname("Asimov");
+        other.setBirthdate(LocalDate.of(1920, 1, 2));
+        other.setNationality("US");
+        other = authorRepository.save(other);
+
+        for (int i = 0; i < BOOKS; i++) {
+            bookIds.add(bookRepository.save(book("Libro " + i, author, category)).getId());
+            if (i == 3) {
+                bookRepository.save(book("Fundación", other, null));
+            }
+        }
+        bookId = bookIds.get(0);
+
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < LOANS; i++) {
+            Loan loan = new Loan();
+            loan.setName("Préstamo " + i);
+            loan.setCustomerName("Lector " + i);
+            loan.setLoanDate(LocalDate.of(2024, 1, 15));
+            loan.setQuantity(1);
+            loan.setBook(book);
+            loans.add(loan);
+        }
+        loanRepository.saveAll(loans);
+    }
+
+    // Sin seguridad (no hay token), con QueryStatsFilter para la cabecera X-Query-Count
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(queryStatsFilter.getFilter())
+                .build();
+    }
+
+    @Test
+    @DisplayName("GET /authors/{id}/books se recorre por páginas con una consulta cada una")
+    void authorBooks_Pages() throws Exception {
+        assertThat(walk("/authors/" + authorId + "/books?size=3", 1)).containsExactlyElementsOf(bookIds);
+    }
+
+    @Test
+    @DisplayName("GET /book-categories/{id}/books se recorre por páginas con una consulta cada una")
+    void categoryBooks_Pages() throws Exception {
+        assertThat(walk("/book-categories/" + categoryId + "/books?size=3", 1)).containsExactlyElementsOf(bookIds);
+    }
+
+    @Test
+    @DisplayName("GET /books/{id}/loans se recorre por páginas, con el resumen del libro en cada préstamo")
+    void bookLoans_Pages() throws Exception {
+        mockMvc.perform(get("/books/{id}/loans", bookId).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].book.id").value(bookId))
+                .andExpect(jsonPath("$[0].book.title").value("Libro 0"))
+                .andExpect(QueryBudget.exactly(2));
+
+        assertThat(walk("/books/" + bookId + "/loans?size=2", 2)).hasSize(LOANS).isSorted();
+    }
+
+    @Test
+    @DisplayName("Padre que no existe: 404; tamaño de página fuera de rango: 400")
+    void missingParent_NotFound() throws Exception {
+        mockMvc.perform(get("/authors/{id}/books", 999_999)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/book-categories/{id}/books", 999_999)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/books/{id}/loans", 999_999)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/authors/{id}/books", authorId).param("size", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/books/{id}/loans", bookId).param("size", "501")).andExpect(status().isBadRequest());
+
+        // Un autor sin libros (o una página después del último) existe: lista vacía, sin Link
+        mockMvc.perform(get("/authors/{id}/books", authorId).param("after", String.valueOf(bookIds.get(BOOKS - 1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    @DisplayName("Las páginas se leen del índice del padre ya ordenadas, y las de libros sin tocar la tabla")
+    void pages_UseKeysetIndexes() {
+        assertThat(plan("SELECT \"id\", \"title\", \"genre\", \"available\" FROM \"books\" WHERE \"author_id\" = 1 "
+                + "AND \"id\" > 0 ORDER BY \"author_id\", \"id\" FETCH FIRST 50 ROWS ONLY"))
+                .contains("idx_books_author_keyset")
+                .contains("index sorted")
+                .doesNotContain("scan");
+        assertThat(plan("SELECT \"id\", \"title\", \"genre\", \"available\" FROM \"books\" WHERE \"category_id\" = 1 "
+                + "AND \"id\" > 0 ORDER BY \"category_id\", \"id\" FETCH FIRST 50 ROWS ONLY"))
+                .contains("idx_books_category_keyset")
+                .contains("index sorted");
+        assertThat(plan("SELECT * FROM \"loans\" WHERE \"book_id\" = 1 AND \"id\" > 0 ORDER BY \"book_id\", \"id\" "
+                + "FETCH FIRST 50 ROWS ONLY"))
+                .contains("idx_loans_book_keyset")
+                .contains("index sorted");
+    }
+
+    // Sigue los Link rel="next" desde url; cada página con queriesPerPage sentencias. Devuelve los ids
+    private List<Long> walk(String url, int queriesPerPage) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String next = url;
+        while (next != null) {
+            MockHttpServletResponse response = mockMvc.perform(get(next))
+                    .andExpect(status().isOk())
+                    .andExpect(QueryBudget.atMost(queriesPerPage + 1))
+                    .andReturn().getResponse();
+            List<Number> page = JsonPath.read(response.getContentAsString(), "$[*].id");
+            if (!page.isEmpty()) {
+                assertThat(response.getHeader("X-Query-Count")).isEqualTo(String.valueOf(queriesPerPage));
+            }
+            page.forEach(id -> ids.add(id.longValue()));
+            String link = response.getHeader("Link");
+            Matcher matcher = link == null ? null : NEXT.matcher(link);
+            next = matcher != null && matcher.find() ? matcher.group(1) : null;
+        }
+        return ids;
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private static Book book(String title, Author author, BookCategory category) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setGenre("Novela");
+        book.setPages(200);
+        book.setPrice(15);
+        book.setAvailable(true);
+        book.setAuthor(author);
+        book.setCategory(category);
+        return book;
+    }
+}
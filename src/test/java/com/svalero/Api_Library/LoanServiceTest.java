@@ -3,15 +3,22 @@ package com.svalero.Api_Library;
 import com.svalero.Api_Library.DTO.LoanDTO;
 import com.svalero.Api_Library.domain.Book;
 import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.domain.User;
 import com.svalero.Api_Library.exception.LoanNotFoundException;
+import com.svalero.Api_Library.mapper.BookMapperImpl;
+import com.svalero.Api_Library.mapper.LoanMapper;
+import com.svalero.Api_Library.mapper.LoanMapperImpl;
 import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.repository.UserRepository;
 import com.svalero.Api_Library.service.LoanService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -28,6 +35,16 @@ class LoanServiceTests {
     @Mock
     private LoanRepository loanRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserRepository userRepository;
+
+    // Mapper real (código generado por MapStruct): los tests de convertToDTO comprueban el mapeo
+    @Spy
+    private LoanMapper loanMapper = new LoanMapperImpl(new BookMapperImpl());
+
     @InjectMocks
     private LoanService loanService;
 
@@ -111,28 +128,52 @@ class LoanServiceTests {
         verifyNoMoreInteractions(loanRepository);
     }
 
+    @Test
+    @DisplayName("saveLoan enlaza el préstamo con el usuario de su email")
+    void save_linksUserByEmail() {
+        User alice = new User();
+        alice.setId(7L);
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(alice);
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        assertThat(loanService.saveLoan(loan(0)).getUser()).isSameAs(alice);
+        verify(userRepository, never()).findTop2ByName(any());
+    }
+
+    @Test
+    @DisplayName("saveLoan sin usuario con ese email busca por nombre, solo si es único")
+    void save_linksUserByUniqueName() {
+        User alice = new User();
+        alice.setId(7L);
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        when(userRepository.findTop2ByName("Alice")).thenReturn(List.of(alice));
+        assertThat(loanService.saveLoan(loan(0)).getUser()).isSameAs(alice);
+
+        when(userRepository.findTop2ByName("Alice")).thenReturn(List.of(alice, new User()));
+        assertThat(loanService.saveLoan(loan(0)).getUser()).isNull();
+    }
+
     // ===================== DELETE =====================
 
     @Test
     @DisplayName("deleteLoan elimina cuando existe")
     void delete_ok() throws LoanNotFoundException {
-        when(loanRepository.existsById(5L)).thenReturn(true);
+        when(loanRepository.removeById(5L)).thenReturn(1);
 
         loanService.deleteLoan(5L);
 
-        verify(loanRepository).existsById(5L);
-        verify(loanRepository).deleteById(5L);
+        verify(loanRepository).removeById(5L);
         verifyNoMoreInteractions(loanRepository);
     }
 
     @Test
     @DisplayName("deleteLoan lanza LoanNotFoundException cuando NO existe")
     void delete_notFound() {
-        when(loanRepository.existsById(6L)).thenReturn(false);
+        when(loanRepository.removeById(6L)).thenReturn(0);
 
         assertThrows(LoanNotFoundException.class, () -> loanService.deleteLoan(6L));
-        verify(loanRepository).existsById(6L);
-        verify(loanRepository, never()).deleteById(anyLong());
+        verify(loanRepository).removeById(6L);
         verifyNoMoreInteractions(loanRepository);
     }
 
@@ -0,0 +1,107 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.tools.EndpointStats;
+import com.svalero.Api_Library.tools.LogAnalyzer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del analizador de logs con los tres formatos de traza y trozos muy pequeños, para que
+ * casi todas las líneas crucen el límite entre dos trozos.
+ */
+class LogAnalyzerTest {
+
+    @TempDir
+    Path logs;
+
+    private Map<String, EndpointStats> analyze(int chunkSize) throws Exception {
+        LogAnalyzer analyzer = new LogAnalyzer("Controller", chunkSize, 3, ZoneOffset.UTC);
+        return analyzer.analyze(List.of(logs)).endpoints();
+    }
+
+    private void writeLogs() throws Exception {
+        Files.writeString(logs.resolve("Api-Library-2025-09-07.log"), """
+                2025-09-07 17:26:11,966 INFO c.s.A.c.UserController {addUser} [http-nio-8082-exec-3] Adding new user: maria123@gmail.com
+                2025-09-07 17:26:40,001 INFO c.s.A.c.BookController {getAllBooks} [http-nio-8082-exec-4] Fetching all books
+                2025-09-07 17:26:52,457 ERROR c.s.A.c.BookController {getAllBooks} [http-nio-8082-exec-4] Error fetching books
+                java.lang.IllegalStateException: boom
+                \tat com.svalero.Api_Library.controller.BookController.getAllBooks(BookController.java:40)
+                2025-09-07 17:27:01,000 INFO c.s.A.c.BookController {getAllBooks} [http-nio-8082-exec-5] Fetching all books
+                2025-09-07 17:27:02,000 WARN c.s.A.e.GlobalExceptionHandler {handleNotFound} [http-nio-8082-exec-5] Recurso no encontrado
+                """);
+        Files.writeString(logs.resolve("Api-Library.log"), """
+                2025-10-19 13:07:14,156 INFO BookController [main] Fetching all books
+                """);
+        // 2025-10-19 10:00 UTC y 10:01 UTC
+        Files.writeString(logs.resolve("access.log"), """
+                {"ts":1760868000000,"method":"GET","route":"/books/{id}","status":200,"bytes":512,"ms":3.214,"user":"isabel123"}
+                {"ts":1760868030000,"method":"GET","route":"/books/{id}","status":503,"bytes":0,"ms":1.000,"user":null}
+                {"ts":1760868060000,"method":"GET","route":"/books/{id}","status":200,"bytes":512,"ms":2.000,"user":null}
+                """);
+    }
+
+    @Test
+    @DisplayName("Cuenta llamadas, errores y llamadas por minuto en los tres formatos")
+    void countsCallsErrorsAndMinutes() throws Exception {
+        writeLogs();
+
+        Map<String, EndpointStats> endpoints = analyze(1 << 20);
+
+        assertThat(endpoints.keySet()).containsExactly(
+                "BookController#getAllBooks", "GET /books/{id}", "BookController", "UserController#addUser");
+
+        EndpointStats books = endpoints.get("BookController#getAllBooks");
+        assertThat(books.calls()).isEqualTo(3);
+        assertThat(books.errors()).isEqualTo(1);
+        assertThat(books.perMinute()).containsExactly(
+                Map.entry(LocalDateTime.of(2025, 9, 7, 17, 26), 2L),
+                Map.entry(LocalDateTime.of(2025, 9, 7, 17, 27), 1L));
+        assertThat(books.peakMinute()).isEqualTo(LocalDateTime.of(2025, 9, 7, 17, 26));
+        assertThat(books.peakCalls()).isEqualTo(2);
+
+        EndpointStats byId = endpoints.get("GET /books/{id}");
+        assertThat(byId.calls()).isEqualTo(3);
+        assertThat(byId.errors()).isEqualTo(1);
+        assertThat(byId.perMinute()).containsExactly(
+                Map.entry(LocalDateTime.of(2025, 10, 19, 10, 0), 2L),
+                Map.entry(LocalDateTime.of(2025, 10, 19, 10, 1), 1L));
+    }
+
+    @Test
+    @DisplayName("El resultado no depende de dónde se corten los trozos")
+    void chunkBoundariesDoNotChangeTheResult() throws Exception {
+        writeLogs();
+        Map<String, EndpointStats> expected = analyze(1 << 20);
+
+        for (int chunkSize : new int[] {1, 7, 64, 100, 333}) {
+            Map<String, EndpointStats> endpoints = analyze(chunkSize);
+            assertThat(endpoints.keySet()).containsExactlyElementsOf(expected.keySet());
+            endpoints.forEach((endpoint, stats) -> {
+                assertThat(stats.calls()).as(endpoint + " / " + chunkSize).isEqualTo(expected.get(endpoint).calls());
+                assertThat(stats.errors()).isEqualTo(expected.get(endpoint).errors());
+                assertThat(stats.perMinute()).isEqualTo(expected.get(endpoint).perMinute());
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("Con filtro vacío cuenta también los loggers que no son controladores")
+    void emptyFilterKeepsEveryLogger() throws Exception {
+        writeLogs();
+
+        LogAnalyzer analyzer = new LogAnalyzer("", 1 << 20, 1, ZoneOffset.UTC);
+        Map<String, EndpointStats> endpoints = analyzer.analyze(List.of(logs)).endpoints();
+
+        assertThat(endpoints).containsKey("GlobalExceptionHandler#handleNotFound");
+    }
+}
@@ -0,0 +1,108 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.DTO.AuthorDTO;
+import com.svalero.Api_Library.DTO.BookCategoryDTO;
+import com.svalero.Api_Library.DTO.BookDTO;
+import com.svalero.Api_Library.DTO.LoanDTO;
+import com.svalero.Api_Library.DTO.UserInDto;
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.BookCategory;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.domain.User;
+import com.svalero.Api_Library.mapper.AuthorMapperImpl;
+import com.svalero.Api_Library.mapper.BookCategoryMapperImpl;
+import com.svalero.Api_Library.mapper.BookMapperImpl;
+import com.svalero.Api_Library.mapper.LoanMapperImpl;
+import com.svalero.Api_Library.mapper.UserMapperImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mappers de MapStruct (código generado al compilar), en los dos sentidos.
+ */
+class MapperTest {
+
+    private final BookMapperImpl bookMapper = new BookMapperImpl();
+
+    @Test
+    @DisplayName("UserInDto -> User copia todos los campos menos el id; User -> UserInDto no devuelve la contraseña")
+    void user_BothDirections() {
+        UserInDto dto = new UserInDto("Isabel", "isabel123", "isabel@example.com", "ENCODED",
+                LocalDate.of(2025, 1, 1), true);
+        UserMapperImpl userMapper = new UserMapperImpl();
+
+        User user = userMapper.toEntity(dto);
+
+        assertThat(user.getId()).isNull();
+        // Los campos $$_hibernate_* los añade la mejora de bytecode de las entidades (perfil enhance)
+        assertThat(user).usingRecursiveComparison().ignoringFields("id")
+                .ignoringFieldsMatchingRegexes("\\$\\$_hibernate_.*").isEqualTo(dto);
+
+        UserInDto back = userMapper.toDto(user);
+
+        assertThat(back.getPassword()).isNull();
+        assertThat(back).usingRecursiveComparison().ignoringFields("password").isEqualTo(dto);
+    }
+
+    @Test
+    @DisplayName("Loan <-> LoanDTO mapea también el libro anidado")
+    void loan_BothDirections() {
+        Book book = new Book();
+        book.setId(10);
+        book.setTitle("Dune");
+        book.setGenre("Novela");
+        book.setAvailable(true);
+        Loan loan = new Loan();
+        loan.setId(8);
+        loan.setName("Préstamo");
+        loan.setCustomerName("Alice");
+        loan.setEmail("alice@example.com");
+        loan.setLoanDate(LocalDate.of(2024, 1, 15));
+        loan.setQuantity(2);
+        loan.setBook(book);
+        LoanMapperImpl loanMapper = new LoanMapperImpl(bookMapper);
+
+        LoanDTO dto = loanMapper.toDto(loan);
+
+        assertThat(dto.getBook().getTitle()).isEqualTo("Dune");
+        assertThat(dto.getBook().getGenre()).isEqualTo("Novela");
+        assertThat(dto.getBook().isAvailable()).isTrue();
+
+        Loan back = loanMapper.toEntity(dto);
+
+        assertThat(back).usingRecursiveComparison().ignoringFields("book").isEqualTo(loan);
+        assertThat(back.getBook().getId()).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("Book, Author y BookCategory <-> sus DTO resumen")
+    void catalogue_BothDirections() {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(1);
+        bookDTO.setTitle("Dune");
+        bookDTO.setGenre("Novela");
+        bookDTO.setAvailable(true);
+        assertThat(bookMapper.toDto(bookMapper.toEntity(bookDTO))).isEqualTo(bookDTO);
+
+        AuthorDTO authorDTO = new AuthorDTO();
+        authorDTO.setId(2);
+        authorDTO.setName("Frank");
+        authorDTO.setSurname("Herbert");
+        AuthorMapperImpl authorMapper = new AuthorMapperImpl();
+        Author author = authorMapper.toEntity(authorDTO);
+        assertThat(author.getBooks()).isNull();
+        assertThat(authorMapper.toDto(author)).isEqualTo(authorDTO);
+
+        BookCategoryDTO categoryDTO = new BookCategoryDTO();
+        categoryDTO.setId(3);
+        categoryDTO.setName("Ciencia ficción");
+        BookCategoryMapperImpl categoryMapper = new BookCategoryMapperImpl();
+        BookCategory category = categoryMapper.toEntity(categoryDTO);
+        assertThat(categoryMapper.toDto(category)).isEqualTo(categoryDTO);
+    }
+}
@@ -0,0 +1,115 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.domain.User;
+import com.svalero.Api_Library.repository.UserRepository;
+import com.svalero.Api_Library.security.JwtUtil;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /actuator/prometheus, /actuator/metrics y /actuator/caches solo con HTTP Basic y el usuario de
+ * app.metrics (rol METRICS): ni anónimo, ni con otra contraseña, ni con el token de un usuario de la API.
+ * /actuator/health sigue abierto.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metrics-security;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.metrics.username=scraper",
+        "app.metrics.password=s3cret"
+})
+@AutoConfigureObservability
+class MetricsEndpointSecurityTest {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    @Qualifier("springSecurityFilterChain")
+    private Filter springSecurityFilterChain;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private MockMvc mockMvc;
+
+    // Con la cadena de Spring Security delante, como en la aplicación, y un usuario de la API con su token
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByUsername("lectora").isEmpty()) {
+            User user = new User();
+            user.setName("Lectora");
+            user.setUsername("lectora");
+            user.setEmail("lectora@example.com");
+            user.setPassword("no-se-usa");
+            user.setCreationDate(LocalDate.of(2024, 1, 1));
+            user.setActive(true);
+            userRepository.save(user);
+        }
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(springSecurityFilterChain)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Sin credenciales o con otra contraseña -> 401; con el usuario de métricas -> 200")
+    void prometheus_RequiresScrapeUser() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, basic("scraper", "otra")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, basic("admin", "s3cret")))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, basic("scraper", "s3cret")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("jvm_memory_used_bytes")));
+    }
+
+    @Test
+    @DisplayName("/actuator/metrics y /actuator/caches (también DELETE) piden el usuario de métricas, no el token de la API")
+    void metricsAndCaches_RequireScrapeUser() throws Exception {
+        String apiToken = "Bearer " + jwtUtil.generateToken("lectora");
+        for (String path : new String[]{"/actuator/metrics", "/actuator/metrics/jvm.memory.used", "/actuator/caches"}) {
+            mockMvc.perform(get(path))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, apiToken))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, basic("scraper", "s3cret")))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(delete("/actuator/caches").header(HttpHeaders.AUTHORIZATION, apiToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("/actuator/health sigue sin token")
+    void health_IsOpen() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,166 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.BookCategory;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookCategoryRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.service.AuthorService;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sin open-session-in-view no hay sesión mientras Jackson escribe la respuesta: los endpoints que
+ * devuelven entidades con relaciones lazy tienen que recibirlas ya cargadas del servicio.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:open-in-view;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OpenInViewTest {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private BookCategoryRepository bookCategoryRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private AuthorService authorService;
+
+    private MockMvc mockMvc;
+    private long bookId;
+    private long authorId;
+    private long categoryId;
+
+    @BeforeAll
+    void seed() {
+        BookCategory category = new BookCategory();
+        category.setName("Novela");
+        category.setDescription("Novelas");
+        category.setCreatedDate(LocalDate.of(2024, 1, 1));
+        categoryId = bookCategoryRepository.save(category).getId();
+
+        Author author = new Author();
+        author.setName("Ursula");
+        author.setSurname("Le Guin");
+        author.setBirthdate(LocalDate.of(1929, 10, 21));
+        author.setNationality("US");
+        author = authorRepository.save(author);
+        authorId = author.getId();
+
+        Book book = new Book();
+        book.setTitle("Terramar");
+        book.setGenre("Fantasía");
+        book.setPages(200);
+        book.setPrice(15);
+        book.setAvailable(true);
+        book.setAuthor(author);
+        book.setCategory(category);
+        book = bookRepository.save(book);
+        bookId = book.getId();
+
+        Loan loan = new Loan();
+        loan.setName("Préstamo");
+        loan.setCustomerName("Alice");
+        loan.setLoanDate(LocalDate.of(2024, 1, 15));
+        loan.setQuantity(1);
+        loan.setBook(book);
+        loanRepository.save(loan);
+    }
+
+    // Sin seguridad (no hay token), como QueryBudgetTest
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("open-in-view está desactivado")
+    void openInView_Disabled() {
+        assertThat(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Los listados se serializan con sus relaciones lazy")
+    void lists_Serialized() throws Exception {
+        mockMvc.perform(get("/books"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].loans.length()").value(1));
+        mockMvc.perform(get("/authors/name").param("name", "Ursula"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].books[0].loans.length()").value(1));
+        mockMvc.perform(get("/book-categories/name").param("name", "Novela"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].books[0].title").value("Terramar"));
+    }
+
+    @Test
+    @DisplayName("Solo se carga lo que se serializa: el autor y la categoría de un libro van sin sus libros")
+    void onlySerializedGraph_Initialized() throws Exception {
+        Author author = authorService.getAuthorById(authorId);
+        Book book = author.getBooks().get(0);
+        assertThat(Hibernate.isInitialized(book.getLoans())).isTrue();
+        assertThat(Hibernate.isInitialized(book.getCategory())).isTrue();
+        assertThat(Hibernate.isInitialized(book.getCategory().getBooks())).isFalse();
+
+        mockMvc.perform(get("/books/{id}", bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.author.surname").value("Le Guin"))
+                .andExpect(jsonPath("$.author.books").doesNotExist())
+                .andExpect(jsonPath("$.category.name").value("Novela"))
+                .andExpect(jsonPath("$.category.books").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("PUT y PATCH devuelven la entidad con sus relaciones lazy")
+    void updates_Serialized() throws Exception {
+        mockMvc.perform(put("/books/{id}", bookId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title":"Terramar","genre":"Fantasía","pages":250,"price":18,"available":true}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pages").value(250))
+                .andExpect(jsonPath("$.loans.length()").value(1));
+        mockMvc.perform(patch("/authors/{id}", authorId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nationality\":\"GB\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nationality").value("GB"))
+                .andExpect(jsonPath("$.books[0].loans.length()").value(1));
+        mockMvc.perform(patch("/book-categories/{id}", categoryId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Novelas y relatos\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].title").value("Terramar"));
+    }
+}
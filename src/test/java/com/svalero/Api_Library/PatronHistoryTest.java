@@ -0,0 +1,233 @@
+package com.svalero.Api_Library;
+
+import com.jayway.jsonpath.JsonPath;
+import com.svalero.Api_Library.config.LoanUserMigration;
+import com.svalero.Api_Library.config.QueryStatsFilter;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.domain.User;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.UserRepository;
+import com.svalero.Api_Library.service.LoanService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Préstamos enlazados con su usuario (user_id): al guardarlos, y en los antiguos con LoanUserMigration;
+ * historial de cada usuario por páginas (/users/{id}/loans) con una consulta por página sobre
+ * idx_loans_user_history.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:patron-history;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        // La migración se lanza a mano en el test, con tramos pequeños
+        "app.loan-user-migration.enabled=false",
+        "app.loan-user-migration.batch-size=3"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PatronHistoryTest {
+
+    private static final Pattern NEXT = Pattern.compile("<([^>]+)>; rel=\"next\"");
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterRegistrationBean<QueryStatsFilter> queryStatsFilter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private LoanUserMigration loanUserMigration;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private Book book;
+    private User alice;
+    private User bob;
+
+    @BeforeAll
+    void seed() {
+        alice = user("Alice", "alice", "alice@example.com");
+        bob = user("Bob", "bob", "bob@example.com");
+        user("Carol", "carol1", "carol1@example.com");
+        user("Carol", "carol2", "carol2@example.com");
+
+        book = new Book();
+        book.setTitle("Terramar");
+        book.setGenre("Fantasía");
+        book.setPages(200);
+        book.setPrice(15);
+        book.setAvailable(true);
+        book = bookRepository.save(book);
+    }
+
+    // Sin seguridad (no hay token), con QueryStatsFilter para la cabecera X-Query-Count
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(queryStatsFilter.getFilter())
+                .build();
+        jdbcTemplate.update("DELETE FROM \"loans\"");
+    }
+
+    @Test
+    @DisplayName("Un préstamo nuevo se enlaza por email o por nombre único; si no, queda sin usuario")
+    void saveLoan_ResolvesUser() {
+        assertThat(userOf(loan("Alice", "alice@example.com", LocalDate.of(2024, 1, 1)))).isEqualTo(alice.getId());
+        assertThat(userOf(loan("Bob", null, LocalDate.of(2024, 1, 1)))).isEqualTo(bob.getId());
+        assertThat(userOf(loan("Otro nombre", "bob@example.com", LocalDate.of(2024, 1, 1)))).isEqualTo(bob.getId());
+        assertThat(userOf(loan("Carol", null, LocalDate.of(2024, 1, 1)))).isNull();
+        assertThat(userOf(loan("Nadie", "nadie@example.com", LocalDate.of(2024, 1, 1)))).isNull();
+    }
+
+    @Test
+    @DisplayName("La migración enlaza por tramos los préstamos antiguos con el mismo criterio")
+    void migration_LinksOldLoans() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(loan("Alice", "alice@example.com", LocalDate.of(2024, 1, 1 + i)).getId());
+        }
+        ids.add(loan("Bob", null, LocalDate.of(2024, 2, 1)).getId());
+        ids.add(loan("Carol", "carol@elsewhere.com", LocalDate.of(2024, 2, 1)).getId());
+        // Como estaban antes de la columna user_id
+        jdbcTemplate.update("UPDATE \"loans\" SET \"user_id\" = NULL");
+
+        LoanUserMigration.Result result = loanUserMigration.migrate();
+
+        assertThat(result.linked()).isEqualTo(5);
+        assertThat(result.unlinked()).isEqualTo(1);
+        assertThat(result.batches()).isEqualTo((ids.get(5) - ids.get(0)) / 3 + 1);
+        assertThat(ids.subList(0, 4)).allMatch(id -> alice.getId().equals(userOf(id)));
+        assertThat(userOf(ids.get(4))).isEqualTo(bob.getId());
+        assertThat(userOf(ids.get(5))).isNull();
+
+        // Lo ya recorrido no se vuelve a mirar, ni siquiera el préstamo que se quedó sin usuario
+        assertThat(loanUserMigration.migrate()).isEqualTo(new LoanUserMigration.Result(0, 0, 0));
+
+        // Solo lo cargado después (por JDBC, sin usuario) entra en la siguiente pasada
+        long later = loan("Bob", null, LocalDate.of(2024, 3, 1)).getId();
+        jdbcTemplate.update("UPDATE \"loans\" SET \"user_id\" = NULL WHERE \"id\" = ?", later);
+        assertThat(loanUserMigration.migrate()).isEqualTo(new LoanUserMigration.Result(1, 0, 1));
+        assertThat(userOf(later)).isEqualTo(bob.getId());
+    }
+
+    @Test
+    @DisplayName("GET /users/{id}/loans recorre el historial del más reciente al más antiguo, una consulta por página")
+    void history_Pages() throws Exception {
+        // Dos préstamos el mismo día: el cursor desempata por id
+        List<LocalDate> dates = List.of(LocalDate.of(2023, 5, 1), LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 10),
+                LocalDate.of(2022, 1, 20), LocalDate.of(2025, 7, 4));
+        List<Loan> loans = new ArrayList<>();
+        dates.forEach(date -> loans.add(loan("Alice", "alice@example.com", date)));
+        loan("Bob", "bob@example.com", LocalDate.of(2024, 3, 10));
+
+        List<Long> expected = loans.stream()
+                .sorted((a, b) -> a.getLoanDate().equals(b.getLoanDate())
+                        ? Long.compare(b.getId(), a.getId()) : b.getLoanDate().compareTo(a.getLoanDate()))
+                .map(Loan::getId)
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        String next = "/users/" + alice.getId() + "/loans?size=2";
+        while (next != null) {
+            MockHttpServletResponse response = mockMvc.perform(get(next))
+                    .andExpect(status().isOk())
+                    .andExpect(QueryBudget.atMost(2))
+                    .andReturn().getResponse();
+            List<Number> page = JsonPath.read(response.getContentAsString(), "$[*].id");
+            if (!page.isEmpty()) {
+                assertThat(response.getHeader("X-Query-Count")).isEqualTo("1");
+            }
+            page.forEach(id -> seen.add(id.longValue()));
+            String link = response.getHeader("Link");
+            Matcher matcher = link == null ? null : NEXT.matcher(link);
+            next = matcher != null && matcher.find() ? matcher.group(1) : null;
+        }
+        assertThat(seen).containsExactlyElementsOf(expected);
+
+        mockMvc.perform(get("/users/{id}/loans", alice.getId()).param("size", "1"))
+                .andExpect(jsonPath("$[0].loanDate").value("2025-07-04"))
+                .andExpect(jsonPath("$[0].book.title").value("Terramar"));
+        mockMvc.perform(get("/users/{id}/loans", 999_999)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("El historial se lee de idx_loans_user_history desde la página pedida y ya ordenado")
+    void history_UsesIndex() {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM \"loans\" l WHERE l.\"user_id\" = 1 "
+                + "AND l.\"loan_date\" <= DATE '2024-03-10' AND (l.\"loan_date\" < DATE '2024-03-10' OR l.\"id\" < 100) "
+                + "ORDER BY l.\"user_id\", l.\"loan_date\" DESC, l.\"id\" DESC FETCH FIRST 50 ROWS ONLY", String.class);
+        assertThat(plan).contains("idx_loans_user_history").contains("loan_date <=").contains("index sorted");
+    }
+
+    @Test
+    @DisplayName("Al borrar un usuario sus préstamos se quedan, sin usuario")
+    void deleteUser_KeepsLoans() {
+        User dave = user("Dave", "dave", "dave@example.com");
+        Loan loan = loan("Dave", "dave@example.com", LocalDate.of(2024, 1, 1));
+        assertThat(userOf(loan)).isEqualTo(dave.getId());
+
+        userRepository.deleteById(dave.getId());
+
+        assertThat(jdbcTemplate.queryForMap("SELECT \"id\", \"user_id\" FROM \"loans\" WHERE \"id\" = ?", loan.getId()))
+                .containsEntry("user_id", null);
+    }
+
+    private User user(String name, String username, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setCreationDate(LocalDate.of(2024, 1, 1));
+        user.setActive(true);
+        return userRepository.save(user);
+    }
+
+    private Loan loan(String customer, String email, LocalDate date) {
+        Loan loan = new Loan();
+        loan.setName("Préstamo");
+        loan.setCustomerName(customer);
+        loan.setEmail(email);
+        loan.setLoanDate(date);
+        loan.setQuantity(1);
+        loan.setBook(book);
+        return loanService.saveLoan(loan);
+    }
+
+    private Long userOf(Loan loan) {
+        return userOf(loan.getId());
+    }
+
+    private Long userOf(long loanId) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT \"user_id\" FROM \"loans\" WHERE \"id\" = ?", loanId);
+        return row.get("user_id") == null ? null : ((Number) row.get("user_id")).longValue();
+    }
+}
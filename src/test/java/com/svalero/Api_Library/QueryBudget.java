@@ -0,0 +1,66 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.config.QueryStats;
+import com.svalero.Api_Library.config.QueryStatsFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Aserciones sobre el número de sentencias SQL de una petición (cabecera X-Query-Count de QueryStatsFilter).
+ * Sirve para fijar el "presupuesto" de consultas de cada endpoint y que un N+1 nuevo rompa el test:
+ *
+ *     mockMvc.perform(get("/books/1")).andExpect(QueryBudget.atMost(3));
+ *
+ * El MockMvc tiene que incluir QueryStatsFilter (ver QueryBudgetTest).
+ *
+ * Fuera de MockMvc, noQueries comprueba que un bloque de código no lanza ninguna sentencia (p.ej. que
+ * equals/hashCode/toString de una entidad no disparan cargas lazy):
+ *
+ *     QueryBudget.noQueries("Book.toString", () -> book.toString());
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            int count = queryCount(result.getResponse().getHeader(QueryStatsFilter.QUERY_COUNT_HEADER));
+            if (count > statements) {
+                fail("Query budget exceeded for " + result.getRequest().getRequestURI()
+                        + ": " + count + " statements, budget " + statements);
+            }
+        };
+    }
+
+    public static ResultMatcher exactly(int statements) {
+        return result -> {
+            int count = queryCount(result.getResponse().getHeader(QueryStatsFilter.QUERY_COUNT_HEADER));
+            if (count != statements) {
+                fail("Expected " + statements + " statements for " + result.getRequest().getRequestURI()
+                        + " but got " + count);
+            }
+        };
+    }
+
+    public static void atMost(String description, int statements, Runnable action) {
+        int count = QueryStats.measure(action).count();
+        if (count > statements) {
+            fail(description + " executed " + count + " SQL statements, budget " + statements);
+        }
+    }
+
+    public static void noQueries(String description, Runnable action) {
+        int count = QueryStats.measure(action).count();
+        if (count != 0) {
+            fail(description + " executed " + count + " SQL statements, expected none");
+        }
+    }
+
+    private static int queryCount(String header) {
+        assertNotNull(header, "Missing " + QueryStatsFilter.QUERY_COUNT_HEADER + " header: is QueryStatsFilter registered?");
+        return Integer.parseInt(header);
+    }
+}
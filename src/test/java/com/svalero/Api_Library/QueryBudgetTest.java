@@ -0,0 +1,199 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.config.QueryStatsFilter;
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.BookCategory;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookCategoryRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.service.CatalogueVersionService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias SQL de los endpoints del catálogo, con la aplicación completa sobre H2 en memoria.
+ * Si un cambio añade consultas (un N+1 nuevo) el test falla; si las reduce, hay que bajar el presupuesto.
+ * Los datos: 1 categoría, 2 autores con 2 libros cada uno y 2 préstamos por libro.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    // Con default_batch_fetch_size las colecciones y proxies lazy se cargan por lotes (IN), no uno a uno.
+    // Autor y categoría de un libro son LAZY: los detalles, que serializan todo el grafo, los cargan aparte
+    // cuando aparecen en una colección (el autor de otro libro de la categoría...)
+    private static final int BOOKS = 6;
+    private static final int BOOK_BY_ID = 7;
+    private static final int AUTHOR_BY_ID = 8;
+    private static final int BOOK_CATEGORY_BY_ID = 5;
+    private static final int LOANS = 1;
+    // 100 préstamos nuevos: 2 lotes de INSERT (batch_size 50) y un valor de secuencia por cada 50 ids
+    private static final int SAVE_LOANS = 100;
+    private static final int SAVE_LOANS_BUDGET = 4;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterRegistrationBean<QueryStatsFilter> queryStatsFilter;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CatalogueVersionService catalogueVersionService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookCategoryRepository bookCategoryRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+
+    private MockMvc mockMvc;
+    private long bookId;
+    private long authorId;
+    private long categoryId;
+
+    @BeforeAll
+    void seed() {
+        BookCategory category = new BookCategory();
+        category.setName("Novela");
+        category.setDescription("Novelas");
+        category.setCreatedDate(LocalDate.of(2024, 1, 1));
+        category = bookCategoryRepository.save(category);
+        categoryId = category.getId();
+
+        for (int a = 1; a <= 2; a++) {
+            Author author = new Author();
+            author.setName("Author" + a);
+            author.setSurname("Surname" + a);
+            author.setBirthdate(LocalDate.of(1900 + a, 1, 1));
+            author.setNationality("ES");
+            author = authorRepository.save(author);
+            authorId = author.getId();
+
+            for (int b = 1; b <= 2; b++) {
+                Book book = new Book();
+                book.setTitle("Book " + a + "-" + b);
+                book.setGenre("Novela");
+                book.setPages(100);
+                book.setPrice(10);
+                book.setAvailable(true);
+                book.setAuthor(author);
+                book.setCategory(category);
+                book = bookRepository.save(book);
+                bookId = book.getId();
+
+                for (int l = 1; l <= 2; l++) {
+                    Loan loan = new Loan();
+                    loan.setName("Loan " + l);
+                    loan.setCustomerName("Customer " + l);
+                    loan.setLoanDate(LocalDate.of(2024, 1, l));
+                    loan.setQuantity(1);
+                    loan.setBook(book);
+                    loanRepository.save(loan);
+                }
+            }
+        }
+    }
+
+    // Sin seguridad (no hay token), pero con QueryStatsFilter para tener la cabecera X-Query-Count
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(queryStatsFilter.getFilter())
+                .build();
+        // Las búsquedas por id van cacheadas: cada test mide la petición en frío
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        // La versión del catálogo (ETag) se calcula una vez por cambio, no por petición: se deja calculada
+        catalogueVersionService.current();
+    }
+
+    @Test
+    @DisplayName("GET /books")
+    void getAllBooks() throws Exception {
+        mockMvc.perform(get("/books"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(BOOKS));
+    }
+
+    @Test
+    @DisplayName("GET /books/{id}")
+    void getBookById() throws Exception {
+        mockMvc.perform(get("/books/{id}", bookId))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(BOOK_BY_ID));
+    }
+
+    @Test
+    @DisplayName("GET /authors/{id}")
+    void getAuthorById() throws Exception {
+        mockMvc.perform(get("/authors/{id}", authorId))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTHOR_BY_ID));
+    }
+
+    @Test
+    @DisplayName("GET /book-categories/{id}")
+    void getBookCategoryById() throws Exception {
+        mockMvc.perform(get("/book-categories/{id}", categoryId))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(BOOK_CATEGORY_BY_ID));
+    }
+
+    @Test
+    @DisplayName("GET /loans")
+    void getAllLoans() throws Exception {
+        mockMvc.perform(get("/loans"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(LOANS));
+    }
+
+    @Test
+    @DisplayName("Guardar préstamos en bloque agrupa los INSERT")
+    void saveLoans_Batched() {
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < SAVE_LOANS; i++) {
+            Loan loan = new Loan();
+            loan.setName("Bulk " + i);
+            loan.setCustomerName("Customer " + i);
+            loan.setLoanDate(LocalDate.of(2024, 2, 1));
+            loan.setQuantity(1);
+            loan.setBook(book);
+            loans.add(loan);
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        QueryBudget.atMost("saveAll of " + SAVE_LOANS + " loans", SAVE_LOANS_BUDGET,
+                () -> transaction.executeWithoutResult(status -> loanRepository.saveAll(loans)));
+        loanRepository.deleteAll(loans);
+    }
+}
@@ -0,0 +1,147 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.service.BookService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Camino de lectura de los servicios: transacción de solo lectura (sin flush ni copias para detectar
+ * cambios) y conexión del pool de la réplica. La "réplica" es la misma BD en memoria con otro pool.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-only;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.datasource.read-only.url=jdbc:h2:mem:read-only;DB_CLOSE_DELAY=-1"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadOnlyTransactionTest {
+
+    // Lo que ve el repositorio mientras el servicio lee
+    record ReadState(boolean readOnlyTransaction, FlushMode flushMode, boolean readOnlyEntities,
+                     int readPoolConnections, int primaryPoolConnections) {
+    }
+
+    @MockitoSpyBean
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    @Autowired
+    @Qualifier("readOnlyDataSource")
+    private DataSource readOnlyDataSource;
+
+    @BeforeAll
+    void seed() {
+        Author author = new Author();
+        author.setName("Ursula");
+        author.setSurname("Le Guin");
+        author.setBirthdate(LocalDate.of(1929, 10, 21));
+        author.setNationality("US");
+        author = authorRepository.save(author);
+
+        Book book = new Book();
+        book.setTitle("Terramar");
+        book.setGenre("Fantasía");
+        book.setPages(200);
+        book.setPrice(15);
+        book.setAvailable(true);
+        book.setAuthor(author);
+        book = bookRepository.save(book);
+
+        Loan loan = new Loan();
+        loan.setName("Préstamo");
+        loan.setCustomerName("Alice");
+        loan.setLoanDate(LocalDate.of(2024, 1, 15));
+        loan.setQuantity(1);
+        loan.setBook(book);
+        loanRepository.save(loan);
+    }
+
+    @Test
+    @DisplayName("Las lecturas de BookService van en transacción read-only, sin flush, sin copias y a la réplica")
+    void readPath_ReadOnlyTransactionOnReplica() {
+        List<ReadState> states = new ArrayList<>();
+        // El spy de un repositorio (proxy de interfaz) delega en el real a través de su respuesta por defecto
+        Answer<?> repository = mockingDetails(bookRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            List<?> books = (List<?>) repository.answer(invocation);
+            Session session = entityManager.unwrap(Session.class);
+            states.add(new ReadState(TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+                    session.getHibernateFlushMode(), books.stream().allMatch(session::isReadOnly),
+                    activeConnections(readOnlyDataSource), activeConnections(primaryDataSource)));
+            return books;
+        }).when(bookRepository).findAll();
+
+        List<Book> books = bookService.getAllBooks();
+
+        assertThat(states).containsExactly(new ReadState(true, FlushMode.MANUAL, true, 1, 0));
+        // El grafo que serializa Jackson ya está cargado al salir de la transacción
+        assertThat(books).singleElement().satisfies(book -> {
+            assertThat(Hibernate.isInitialized(book.getLoans())).isTrue();
+            assertThat(book.getLoans()).hasSize(1);
+            assertThat(Hibernate.isInitialized(book.getAuthor())).isTrue();
+            // ...y solo ese: el autor de un libro se serializa sin sus libros
+            assertThat(Hibernate.isInitialized(book.getAuthor().getBooks())).isFalse();
+        });
+    }
+
+    @Test
+    @DisplayName("Las transacciones de escritura siguen usando el pool principal")
+    void writePath_PrimaryPool() {
+        List<Integer> connections = new TransactionTemplate(transactionManager).execute(status -> {
+            entityManager.createNativeQuery("SELECT 1").getSingleResult();
+            return List.of(activeConnections(readOnlyDataSource), activeConnections(primaryDataSource));
+        });
+
+        assertThat(connections).containsExactly(0, 1);
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.svalero.Api_Library;
+
+import com.svalero.Api_Library.config.QueryStatsFilter;
+import com.svalero.Api_Library.config.ResponseCache;
+import com.svalero.Api_Library.config.ResponseCacheFilter;
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.event.CatalogueChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de la caché de respuestas serializadas (sin Spring: el "controlador" es el FilterChain).
+ */
+class ResponseCacheFilterTest {
+
+    private static final String JSON = "[{\"id\":1,\"name\":\"Isaac\"}]";
+
+    private ResponseCache responseCache;
+    private ResponseCacheFilter filter;
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+    private int status = 200;
+
+    // Hace de controlador: cuenta las llamadas y escribe siempre el mismo JSON con su ETag
+    private final FilterChain controller = (request, response) -> {
+        controllerCalls.incrementAndGet();
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(status);
+        httpResponse.setHeader("ETag", "\"v1\"");
+        httpResponse.setContentType("application/json");
+        response.getOutputStream().write(JSON.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new ResponseCache(DataSize.ofMegabytes(1));
+        filter = new ResponseCacheFilter(responseCache, Set.of("/authors"), DataSize.ofKilobytes(64).toBytes());
+    }
+
+    private MockHttpServletResponse get(String path, String... headers) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("La primera petición pasa por el controlador y las siguientes salen de la caché")
+    void secondRequest_isServedFromCache() throws Exception {
+        MockHttpServletResponse first = get("/authors", "Accept-Encoding", "gzip, deflate");
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(first.getHeader("ETag")).isEqualTo("\"v1-gzip\"");
+        assertThat(gunzip(first.getContentAsByteArray())).isEqualTo(JSON);
+
+        MockHttpServletResponse second = get("/authors");
+        assertThat(second.getHeader("Content-Encoding")).isNull();
+        assertThat(second.getHeader("ETag")).isEqualTo("\"v1\"");
+        assertThat(second.getContentAsString()).isEqualTo(JSON);
+        assertThat(second.getContentLength()).isEqualTo(JSON.length());
+
+        assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("If-None-Match con el ETag de la variante pedida -> 304 sin cuerpo")
+    void matchingEtag_returns304() throws Exception {
+        get("/authors");
+
+        MockHttpServletResponse notModified = get("/authors", "Accept-Encoding", "gzip", "If-None-Match", "\"v1-gzip\"");
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+
+        // gzip;q=0 -> el cliente quiere la variante sin comprimir, cuyo ETag es otro
+        MockHttpServletResponse identity = get("/authors", "Accept-Encoding", "gzip;q=0", "If-None-Match", "\"v1-gzip\"");
+        assertThat(identity.getStatus()).isEqualTo(200);
+        assertThat(identity.getContentAsString()).isEqualTo(JSON);
+        assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Un cambio en el catálogo vacía la caché")
+    void catalogueChange_invalidates() throws Exception {
+        get("/authors");
+        responseCache.onCatalogueChanged(new CatalogueChangedEvent(Author.class, 1L));
+        get("/authors");
+
+        assertThat(controllerCalls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Los parámetros forman parte de la clave y los errores no se cachean")
+    void queryStringAndErrors() throws Exception {
+        get("/authors");
+        get("/authors?sort=name");
+        assertThat(controllerCalls).hasValue(2);
+
+        status = 500;
+        MockHttpServletResponse error = get("/authors?page=2");
+        get("/authors?page=2");
+        assertThat(error.getStatus()).isEqualTo(500);
+        assertThat(error.getContentAsString()).isEqualTo(JSON);
+        assertThat(controllerCalls).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Las rutas no configuradas no pasan por la caché")
+    void otherPaths_areNotCached() throws Exception {
+        get("/books");
+        get("/books");
+
+        assertThat(controllerCalls).hasValue(2);
+        assertThat(responseCache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Detrás de QueryStatsFilter un acierto se escribe sin buffer intermedio y lleva X-Query-Count")
+    void behindQueryStatsFilter_hitIsNotBuffered() throws Exception {
+        QueryStatsFilter queryStatsFilter = new QueryStatsFilter(true, Set.of("/authors"), new SimpleMeterRegistry());
+        AtomicReference<ServletResponse> seen = new AtomicReference<>();
+        FilterChain chain = (request, response) -> {
+            seen.set(response);
+            filter.doFilter(request, response, controller);
+        };
+
+        MockHttpServletResponse miss = new MockHttpServletResponse();
+        queryStatsFilter.doFilter(new MockHttpServletRequest("GET", "/authors"), miss, chain);
+        MockHttpServletResponse hit = new MockHttpServletResponse();
+        queryStatsFilter.doFilter(new MockHttpServletRequest("GET", "/authors"), hit, chain);
+
+        assertThat(seen.get()).isNotInstanceOf(ContentCachingResponseWrapper.class);
+        assertThat(hit.getContentAsString()).isEqualTo(JSON);
+        assertThat(hit.getHeader(QueryStatsFilter.QUERY_COUNT_HEADER)).isEqualTo("0");
+        assertThat(miss.getContentAsString()).isEqualTo(JSON);
+        assertThat(miss.getHeader(QueryStatsFilter.QUERY_COUNT_HEADER)).isEqualTo("0");
+        assertThat(controllerCalls).hasValue(1);
+
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/authors");
+        conditional.addHeader("If-None-Match", "\"v1\"");
+        queryStatsFilter.doFilter(conditional, notModified, chain);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getHeader(QueryStatsFilter.QUERY_COUNT_HEADER)).isEqualTo("0");
+    }
+}
@@ -0,0 +1,244 @@
+package com.svalero.Api_Library;
+
+import com.jayway.jsonpath.JsonPath;
+import com.svalero.Api_Library.config.CascadeForeignKeys;
+import com.svalero.Api_Library.config.QueryStatsFilter;
+import com.svalero.Api_Library.domain.Author;
+import com.svalero.Api_Library.domain.Book;
+import com.svalero.Api_Library.domain.Loan;
+import com.svalero.Api_Library.repository.AuthorRepository;
+import com.svalero.Api_Library.repository.BookRepository;
+import com.svalero.Api_Library.repository.LoanRepository;
+import com.svalero.Api_Library.service.DeleteJob;
+import com.svalero.Api_Library.service.DeleteJobs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los DELETE son una sentencia condicionada al id (dos para un autor, con sus libros), más el recuento de
+ * préstamos (hasta el umbral) que decide si el borrado va en segundo plano: no se carga la entidad ni sus hijos, los
+ * préstamos de un libro los borra la BD (ON DELETE CASCADE) y el 404 sale de las filas borradas. Con más
+ * de BACKGROUND_THRESHOLD préstamos se borran por tramos de CHUNK_SIZE en segundo plano (DeleteJobs).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:single-statement-delete;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.delete.background-threshold=" + SingleStatementDeleteTest.BACKGROUND_THRESHOLD,
+        "app.delete.chunk-size=" + SingleStatementDeleteTest.CHUNK_SIZE
+})
+class SingleStatementDeleteTest {
+
+    static final int BACKGROUND_THRESHOLD = 50;
+    static final int CHUNK_SIZE = 20;
+
+    private static final String DELETE_RULE = "SELECT rc.DELETE_RULE FROM INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS rc "
+            + "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE k ON k.CONSTRAINT_NAME = rc.CONSTRAINT_NAME "
+            + "WHERE k.TABLE_NAME = 'loans' AND k.COLUMN_NAME = 'book_id'";
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterRegistrationBean<QueryStatsFilter> queryStatsFilter;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CascadeForeignKeys cascadeForeignKeys;
+    @Autowired
+    private DeleteJobs deleteJobs;
+
+    private MockMvc mockMvc;
+
+    // Sin seguridad (no hay token), con QueryStatsFilter para la cabecera X-Query-Count
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(queryStatsFilter.getFilter())
+                .build();
+    }
+
+    @Test
+    @DisplayName("DELETE /books/{id} borra el libro y sus préstamos con un recuento y una sentencia")
+    void deleteBook_OneStatement() throws Exception {
+        Book book = book(author("Ursula"), "Terramar", 3);
+
+        mockMvc.perform(delete("/books/{id}", book.getId()))
+                .andExpect(status().isNoContent())
+                .andExpect(QueryBudget.exactly(2));
+
+        assertThat(bookRepository.existsById(book.getId())).isFalse();
+        assertThat(count("SELECT COUNT(*) FROM \"loans\" WHERE \"book_id\" = " + book.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("DELETE /authors/{id} borra libros y préstamos del autor con tres sentencias, tenga los que tenga")
+    void deleteAuthor_BoundedStatements() throws Exception {
+        Author small = author("Isaac");
+        book(small, "Fundación", 1);
+        Author large = author("Terry");
+        for (int i = 0; i < 12; i++) {
+            book(large, "Mundodisco " + i, 4);
+        }
+
+        for (Author author : List.of(small, large)) {
+            mockMvc.perform(delete("/authors/{id}", author.getId()))
+                    .andExpect(status().isNoContent())
+                    .andExpect(QueryBudget.exactly(3));
+
+            assertThat(authorRepository.existsById(author.getId())).isFalse();
+            assertThat(count("SELECT COUNT(*) FROM \"books\" WHERE \"author_id\" = " + author.getId())).isZero();
+        }
+        assertThat(loanRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Un libro con muchos préstamos se borra en segundo plano por tramos (202 y progreso)")
+    void deleteBook_InBackground() throws Exception {
+        int loans = 130;
+        Book book = book(author("Ursula"), "Los desposeídos", loans);
+
+        String location = mockMvc.perform(delete("/books/{id}", book.getId()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.target").value("book"))
+                .andExpect(QueryBudget.exactly(1))
+                .andReturn().getResponse().getHeader("Location");
+
+        awaitDone(location);
+        // El recuento, 6 tramos completos y uno de 10 (ids + DELETE cada uno) y el DELETE del libro
+        mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(loans))
+                .andExpect(jsonPath("$.deleted").value(loans))
+                .andExpect(jsonPath("$.progress").value(1.0))
+                .andExpect(jsonPath("$.chunks").value(7))
+                .andExpect(jsonPath("$.statements").value(16));
+        assertThat(bookRepository.existsById(book.getId())).isFalse();
+        assertThat(loanRepository.count()).isZero();
+
+        mockMvc.perform(get("/delete-jobs/{id}", "no-such-job"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Un segundo borrado del mismo libro mientras el primero sigue en marcha recibe el mismo trabajo")
+    void deleteJobs_OneJobPerTarget() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DeleteJob first = deleteJobs.start("book", 42, () -> 0, () -> {
+            await(release);
+            return 0;
+        }, () -> { });
+
+        assertThat(deleteJobs.start("book", 42, () -> 0, () -> 0, () -> { })).isSameAs(first);
+        assertThat(deleteJobs.running("book", 42)).containsSame(first);
+        assertThat(deleteJobs.running("author", 42)).isEmpty();
+
+        release.countDown();
+        awaitDone("/delete-jobs/" + first.getId());
+        assertThat(deleteJobs.running("book", 42)).isEmpty();
+        assertThat(deleteJobs.start("book", 42, () -> 0, () -> 0, () -> { })).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Borrar un id que no existe da 404 sin más sentencias que las de un borrado")
+    void deleteMissing_NotFound() throws Exception {
+        mockMvc.perform(delete("/books/{id}", 999_999))
+                .andExpect(status().isNotFound())
+                .andExpect(QueryBudget.exactly(2));
+        mockMvc.perform(delete("/loans/{id}", 999_999))
+                .andExpect(status().isNotFound())
+                .andExpect(QueryBudget.exactly(1));
+    }
+
+    @Test
+    @DisplayName("Una clave loans.book_id sin cascada (BD antigua) se rehace con ON DELETE CASCADE")
+    void cascadeForeignKeys_UpgradesOldKey() {
+        String name = jdbcTemplate.queryForObject(DELETE_RULE.replace("rc.DELETE_RULE", "rc.CONSTRAINT_NAME"), String.class);
+        jdbcTemplate.execute("ALTER TABLE \"loans\" DROP CONSTRAINT \"" + name + "\"");
+        jdbcTemplate.execute("ALTER TABLE \"loans\" ADD CONSTRAINT \"" + name
+                + "\" FOREIGN KEY (\"book_id\") REFERENCES \"books\" (\"id\")");
+        assertThat(jdbcTemplate.queryForObject(DELETE_RULE, String.class)).isEqualTo("RESTRICT");
+
+        cascadeForeignKeys.alignAll();
+
+        assertThat(jdbcTemplate.queryForObject(DELETE_RULE, String.class)).isEqualTo("CASCADE");
+    }
+
+    private Author author(String name) {
+        Author author = new Author();
+        author.setName(name);
+        author.setSurname("Surname");
+        author.setBirthdate(LocalDate.of(1920, 1, 2));
+        author.setNationality("US");
+        return authorRepository.save(author);
+    }
+
+    private Book book(Author author, String title, int loans) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setGenre("Novela");
+        book.setPages(200);
+        book.setPrice(15);
+        book.setAvailable(true);
+        book.setAuthor(author);
+        book = bookRepository.save(book);
+        List<Loan> saved = new ArrayList<>();
+        for (int i = 0; i < loans; i++) {
+            Loan loan = new Loan();
+            loan.setName("Préstamo " + i);
+            loan.setCustomerName("Lector " + i);
+            loan.setLoanDate(LocalDate.of(2024, 1, 15));
+            loan.setQuantity(1);
+            loan.setBook(book);
+            saved.add(loan);
+        }
+        loanRepository.saveAll(saved);
+        return book;
+    }
+
+    private void awaitDone(String location) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String state;
+        do {
+            Thread.sleep(50);
+            state = JsonPath.read(mockMvc.perform(get(location)).andReturn().getResponse().getContentAsString(), "$.state");
+        } while (state.equals("RUNNING") && System.currentTimeMillis() < deadline);
+        assertThat(state).isEqualTo("DONE");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
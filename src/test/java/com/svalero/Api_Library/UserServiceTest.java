@@ -3,13 +3,15 @@ package com.svalero.Api_Library;
 import com.svalero.Api_Library.DTO.UserInDto;
 import com.svalero.Api_Library.domain.User;
 import com.svalero.Api_Library.exception.UserNotFoundException;
+import com.svalero.Api_Library.mapper.LoanMapper;
+import com.svalero.Api_Library.mapper.UserMapper;
+import com.svalero.Api_Library.repository.LoanRepository;
 import com.svalero.Api_Library.repository.UserRepository;
 import com.svalero.Api_Library.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.modelmapper.ModelMapper;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -33,18 +35,19 @@ class UserServiceTests {
 
     @Mock private UserRepository userRepository;
     @Mock private PasswordEncoder passwordEncoder;
-    @Mock private ModelMapper modelMapper;
+    @Mock private UserMapper userMapper;
+    @Mock private LoanRepository loanRepository;
+    @Mock private LoanMapper loanMapper;
 
     // OJO: lo creamos a mano en @BeforeEach para inyectar los @Autowired de campo
     private UserService userService;
 
     @BeforeEach
     void setUp() {
-        // El servicio solo pide el repo por constructor
-        userService = new UserService(userRepository);
-        // Pero passwordEncoder y modelMapper son @Autowired por campo → los ponemos con reflexión
+        // El servicio pide los repos y los mappers por constructor
+        userService = new UserService(userRepository, userMapper, loanRepository, loanMapper);
+        // Pero passwordEncoder es @Autowired por campo → lo ponemos con reflexión
         ReflectionTestUtils.setField(userService, "passwordEncoder", passwordEncoder);
-        ReflectionTestUtils.setField(userService, "modelMapper", modelMapper);
     }
 
     // ===== Helpers =====
@@ -153,7 +156,7 @@ class UserServiceTests {
                 "ENCODED", LocalDate.parse("2024-02-02"), true);
 
         when(passwordEncoder.encode("plainSecret")).thenReturn("ENCODED");
-        when(modelMapper.map(dto, User.class)).thenReturn(mapped);
+        when(userMapper.toEntity(dto)).thenReturn(mapped);
         when(userRepository.save(mapped)).thenReturn(saved);
 
         User out = userService.saveUser(dto);
@@ -161,9 +164,9 @@ class UserServiceTests {
         assertThat(out.getId()).isEqualTo(99L);
         assertThat(out.getPassword()).isEqualTo("ENCODED");
         verify(passwordEncoder).encode("plainSecret");
-        verify(modelMapper).map(dto, User.class);
+        verify(userMapper).toEntity(dto);
         verify(userRepository).save(mapped);
-        verifyNoMoreInteractions(userRepository, passwordEncoder, modelMapper);
+        verifyNoMoreInteractions(userRepository, passwordEncoder, userMapper);
     }
 
     // ===================== UPDATE (PUT) =====================
@@ -239,27 +242,46 @@ class UserServiceTests {
     @Test
     @DisplayName("deleteUser elimina cuando existe")
     void delete_success() throws UserNotFoundException {
-        when(userRepository.existsById(11L)).thenReturn(true);
+        when(userRepository.removeById(11L)).thenReturn(1);
 
         userService.deleteUser(11L);
 
-        verify(userRepository).existsById(11L);
-        verify(userRepository).deleteById(11L);
+        verify(userRepository).removeById(11L);
         verifyNoMoreInteractions(userRepository);
     }
 
     @Test
     @DisplayName("deleteUser lanza UserNotFoundException cuando NO existe")
     void delete_notFound() {
-        when(userRepository.existsById(12L)).thenReturn(false);
+        when(userRepository.removeById(12L)).thenReturn(0);
 
         assertThrows(UserNotFoundException.class, () -> userService.deleteUser(12L));
 
-        verify(userRepository).existsById(12L);
-        verify(userRepository, never()).deleteById(anyLong());
+        verify(userRepository).removeById(12L);
         verifyNoMoreInteractions(userRepository);
     }
 
+    // ===================== HISTORIAL DE PRÉSTAMOS =====================
+
+    @Test
+    @DisplayName("getLoans sin cursor empieza por el préstamo más reciente")
+    void loans_firstPage() {
+        when(loanRepository.findHistoryPage(eq(3L), eq(LocalDate.of(9999, 12, 31)), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of());
+        when(userRepository.existsById(3L)).thenReturn(true);
+
+        assertThat(userService.getLoans(3L, null, Long.MAX_VALUE, 50)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("getLoans lanza UserNotFoundException si la página sale vacía y el usuario no existe")
+    void loans_userNotFound() {
+        when(loanRepository.findHistoryPage(eq(12L), any(), anyLong(), any())).thenReturn(List.of());
+        when(userRepository.existsById(12L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userService.getLoans(12L, null, Long.MAX_VALUE, 50));
+    }
+
     // ===================== QUERY NATIVA =====================
 
     @Test